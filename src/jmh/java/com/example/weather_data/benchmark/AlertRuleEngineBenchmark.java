@@ -0,0 +1,65 @@
+package com.example.weather_data.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.weather_data.service.AlertRuleEngine;
+import com.example.weather_data.service.AlertRuleProperties;
+import com.example.weather_data.service.AlertRuleProperties.Rule;
+
+/**
+ * One tick of {@link AlertRuleEngine} over many cities, with the default rule set. Readings stay
+ * inside every threshold, so this measures the steady state where no alert fires.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class AlertRuleEngineBenchmark {
+
+    @Param({"1000", "10000"})
+    int cities;
+
+    private AlertRuleEngine engine;
+    private String[] names;
+    private double[] temperatures;
+    private final AlertRuleEngine.AlertSink sink = (city, kind, message) -> { };
+
+    @Setup
+    public void setUp() {
+        engine = new AlertRuleEngine(new AlertRuleProperties(List.of(
+                new Rule("temperature-change", "temperature", "delta", 1.0, -5.0, null, null, "%.2f %.2f", true),
+                new Rule("humidity-change", "humidity", "delta", 3.0, -20.0, null, null, "%.0f %.0f", null),
+                new Rule("unhealthy-air", "aqi", null, null, null, "Unhealthy", null, "%2$.0f", null))),
+                35.0, 80, 2);
+        names = new String[cities];
+        temperatures = new double[cities];
+        for (int i = 0; i < cities; i++) {
+            names[i] = "City " + i;
+            temperatures[i] = 20 + (i % 10);
+        }
+    }
+
+    @Benchmark
+    public int tick() {
+        int fired = 0;
+        for (int i = 0; i < names.length; i++) {
+            fired += engine.evaluate(names[i], temperatures[i], 60, 80, sink);
+        }
+        return fired;
+    }
+}
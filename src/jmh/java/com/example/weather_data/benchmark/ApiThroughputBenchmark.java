@@ -0,0 +1,113 @@
+package com.example.weather_data.benchmark;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.example.weather_data.entity.WeatherCondition;
+import com.example.weather_data.repository.DailyWeatherSummaryRepository;
+import com.example.weather_data.repository.DailyWeatherSummaryRepositoryCustom.DailyReading;
+
+/**
+ * Requests per second for the JSON API against the Thymeleaf pages showing the same data, over
+ * real HTTP to an embedded Tomcat, with a year of summaries for six cities behind the range query.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Threads(4)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ApiThroughputBenchmark {
+
+    private static final List<String> CITIES = List.of("Delhi", "Mumbai", "Chennai", "Bengaluru", "Kolkata", "Hyderabad");
+
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private String baseUrl;
+    private String rangeQuery;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start("api-throughput", BenchmarkApplication.recordedUpstream(),
+                WebApplicationType.SERVLET, "server.port=0");
+        baseUrl = "http://localhost:" + ((ServletWebServerApplicationContext) context).getWebServer().getPort();
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+        LocalDate endDate = LocalDate.now().minusDays(1);
+        LocalDate startDate = endDate.minusDays(364);
+        List<DailyReading> readings = new ArrayList<>();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (LocalDate day = startDate; !day.isAfter(endDate); day = day.plusDays(1)) {
+            for (String city : CITIES) {
+                readings.add(new DailyReading(city, day, 15 + random.nextDouble(25), 40 + random.nextInt(50), WeatherCondition.CLEAR));
+            }
+        }
+        context.getBean(DailyWeatherSummaryRepository.class).upsertReadings(readings);
+        rangeQuery = "/api/weather/trends?startDate=" + startDate + "&endDate=" + endDate;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public String htmlStats() throws Exception {
+        return get("/weather/stats");
+    }
+
+    @Benchmark
+    public String apiStats() throws Exception {
+        return get("/api/weather/stats");
+    }
+
+    @Benchmark
+    public String htmlTrends() throws Exception {
+        return get("/weather/trends");
+    }
+
+    @Benchmark
+    public String apiTrends() throws Exception {
+        return get("/api/weather/trends");
+    }
+
+    @Benchmark
+    public String apiTrendsYearRange() throws Exception {
+        return get(rangeQuery);
+    }
+
+    private String get(String path) throws IOException, InterruptedException {
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder(URI.create(baseUrl + path)).build(),
+                HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException(path + " returned " + response.statusCode());
+        }
+        return response.body();
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.weather_data.benchmark;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.beans.factory.support.BeanDefinitionRegistry;
+import org.springframework.beans.factory.support.RootBeanDefinition;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+import com.example.weather_data.WeatherDataApplication;
+
+/**
+ * Boots the real application for a benchmark trial, against a private in-memory H2 database
+ * and with the {@code restTemplate} bean replaced by one backed by {@link StubUpstream}.
+ */
+final class BenchmarkApplication {
+
+    private BenchmarkApplication() {
+    }
+
+    /** Upstream stub answering OpenWeatherMap with a recorded Delhi reading and IQAir with a recorded AQI. */
+    static StubUpstream recordedUpstream() {
+        return new StubUpstream()
+                .respond("api.openweathermap.org/data/2.5/group", "owm-group-metros.json")
+                .respond("api.openweathermap.org", "owm-current-delhi.json")
+                .respond("api.airvisual.com", "iqair-city-delhi.json");
+    }
+
+    static ConfigurableApplicationContext start(String databaseName, ClientHttpRequestFactory upstream,
+                                                String... extraProperties) {
+        return start(databaseName, upstream, WebApplicationType.NONE, extraProperties);
+    }
+
+    static ConfigurableApplicationContext start(String databaseName, ClientHttpRequestFactory upstream,
+                                                WebApplicationType webApplicationType, String... extraProperties) {
+        List<String> properties = new ArrayList<>(List.of(
+                "IQAIR_API_KEY=benchmark",
+                "OPENWEATHERMAP_API_KEY=benchmark",
+                "spring.datasource.url=jdbc:h2:mem:" + databaseName + ";DB_CLOSE_ON_EXIT=FALSE",
+                "weather.observations.dir=" + observationDirectory(databaseName),
+                // Keep the scheduled tick from firing again mid-measurement
+                "weather.fetch.interval=86400000",
+                "spring.main.lazy-initialization=false",
+                "logging.level.root=WARN"));
+        properties.addAll(List.of(extraProperties));
+        return new SpringApplicationBuilder(WeatherDataApplication.class)
+                .web(webApplicationType)
+                .properties(properties.toArray(String[]::new))
+                .initializers(context -> context.addBeanFactoryPostProcessor(beanFactory -> {
+                    // Runs after configuration classes are parsed, so it wins over RestTemplateConfig
+                    BeanDefinitionRegistry registry = (BeanDefinitionRegistry) beanFactory;
+                    registry.removeBeanDefinition("restTemplate");
+                    registry.registerBeanDefinition("restTemplate",
+                            new RootBeanDefinition(RestTemplate.class, () -> new RestTemplate(upstream)));
+                }))
+                .run();
+    }
+
+    private static Path observationDirectory(String databaseName) {
+        try {
+            return Files.createTempDirectory("weather-bench-" + databaseName);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.weather_data.benchmark;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.RestTemplate;
+
+import com.example.weather_data.service.IqAirResponseParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * IQAir AQI extraction: the streaming {@link IqAirResponseParser} used by {@code IqAirClient}
+ * against the previous approach of binding the whole response to a raw {@code Map} and walking
+ * {@code data -> current -> pollution -> aqius}. Measured both as a bare parse and through a
+ * {@link RestTemplate} backed by the local stub, which adds the HTTP/message-converter path.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class IqAirParsingBenchmark {
+
+    private static final String CITY_URL = "http://api.airvisual.com/v2/city?city=Delhi&state=Delhi&country=India&key=benchmark";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private byte[] payload;
+    private RestTemplate restTemplate;
+
+    @Setup
+    public void setUp() {
+        payload = StubUpstream.load("iqair-city-delhi.json");
+        restTemplate = new RestTemplate(new StubUpstream().respond("api.airvisual.com", "iqair-city-delhi.json"));
+    }
+
+    @Benchmark
+    public int jacksonMapParse() throws IOException {
+        return extractAqi(objectMapper.readValue(payload, Map.class));
+    }
+
+    @Benchmark
+    public int streamingParse() throws IOException {
+        return IqAirResponseParser.parse(payload).aqi();
+    }
+
+    @Benchmark
+    public int restTemplateStreamingParse() {
+        return restTemplate.execute(CITY_URL, HttpMethod.GET, null,
+                response -> IqAirResponseParser.parse(response.getBody()).aqi());
+    }
+
+    @Benchmark
+    public int restTemplateMapParse() {
+        ResponseEntity<Map> response = restTemplate.getForEntity(CITY_URL, Map.class);
+        return extractAqi(response.getBody());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static int extractAqi(Map<String, Object> responseBody) {
+        if (responseBody != null && responseBody.get("status").equals("success")) {
+            Map<String, Object> data = (Map<String, Object>) responseBody.get("data");
+            Map<String, Object> current = (Map<String, Object>) data.get("current");
+            Map<String, Object> pollution = (Map<String, Object>) current.get("pollution");
+            return ((Number) pollution.get("aqius")).intValue();
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.weather_data.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.util.FileSystemUtils;
+import org.springframework.util.unit.DataSize;
+
+import com.example.weather_data.storage.Observation;
+import com.example.weather_data.storage.ObservationArchive;
+import com.example.weather_data.storage.ObservationLog;
+import com.example.weather_data.storage.ObservationSeries;
+
+/**
+ * Decoding a city's history from the compressed archive against reading it from the raw
+ * observation log, on synthetic 10-minute readings that follow a daily temperature cycle with
+ * hourly AQI updates. The archive-to-log size ratio is printed once per trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ObservationArchiveBenchmark {
+
+    private static final String CITY = "Archive City";
+    private static final long START = 1_700_000_000L;
+    private static final int READINGS_PER_DAY = 144;
+
+    @Param({"30", "365"})
+    public int days;
+
+    private Path directory;
+    private ObservationLog log;
+    private ObservationArchive archive;
+    private long end;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("archive-benchmark");
+        log = new ObservationLog(directory.resolve("log"), DataSize.ofMegabytes(64));
+        archive = new ObservationArchive(directory.resolve("archive"));
+        Random random = new Random(42);
+        float humidity = 60;
+        int aqi = 80;
+        for (int day = 0; day < days; day++) {
+            for (int i = 0; i < READINGS_PER_DAY; i++) {
+                long t = START + day * 86_400L + i * 600L + (random.nextInt(20) == 0 ? random.nextInt(60) : 0);
+                double kelvin = Math.round((293.15 + 8 * Math.sin(i * Math.PI / 72) + random.nextGaussian()) * 100) / 100.0;
+                humidity = Math.max(10, Math.min(100, humidity + random.nextInt(3) - 1));
+                if (i % 6 == 0) {
+                    aqi = Math.max(0, aqi + random.nextInt(11) - 5);
+                }
+                float wind = Math.round(random.nextFloat() * 800) / 100f;
+                log.append(new Observation(CITY, t, (float) (kelvin - 273.15), (float) (kelvin - 274.4),
+                        (int) humidity, wind, 10 * random.nextInt(36), random.nextInt(3) == 0 ? wind * 1.6f : Float.NaN,
+                        aqi));
+            }
+            archive.seal(CITY, log.range(CITY, START + day * 86_400L, START + (day + 1) * 86_400L - 1));
+        }
+        end = START + days * 86_400L;
+        System.out.printf("%n%d readings: log %d bytes, archive %d bytes (%.1f bytes/reading, %.1fx smaller)%n",
+                log.size(), log.size() * 40, archive.sizeBytes(), (double) archive.sizeBytes() / log.size(),
+                log.size() * 40.0 / archive.sizeBytes());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        log.destroy();
+        archive.destroy();
+        FileSystemUtils.deleteRecursively(directory);
+    }
+
+    @Benchmark
+    public ObservationSeries readLog() {
+        return log.range(CITY, START, end);
+    }
+
+    @Benchmark
+    public ObservationSeries decodeArchive() {
+        return archive.range(CITY, START, end);
+    }
+
+    @Benchmark
+    public ObservationSeries decodeArchiveOneDay() {
+        return archive.range(CITY, START + 86_400L * (days / 2), START + 86_400L * (days / 2 + 1) - 1);
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.weather_data.benchmark;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.example.weather_data.entity.RollupGranularity;
+import com.example.weather_data.repository.WeatherRollupRepositoryCustom.RollupReading;
+import com.example.weather_data.service.RollupStats;
+import com.example.weather_data.service.SummaryWriteBehind;
+import com.example.weather_data.service.WeatherRollups;
+
+/**
+ * Aggregating a multi-year range for one city with hourly history: {@link WeatherRollups#summarize}
+ * (MONTH buckets plus DAY edges) against folding every HOUR bucket of the range, which costs what
+ * a scan over the individual readings would.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class RollupRangeBenchmark {
+
+    private static final String CITY = "Rollup City";
+
+    @Param({"1", "5"})
+    public int years;
+
+    private ConfigurableApplicationContext context;
+    private WeatherRollups rollups;
+    private LocalDate start;
+    private LocalDate end;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start("rollup-range-" + years, BenchmarkApplication.recordedUpstream(),
+                "weather.persistence.flush-interval=86400000", "weather.persistence.flush-size=1000000",
+                "weather.rollup.retention.hour=P0D", "weather.rollup.retention.day=P0D");
+        rollups = context.getBean(WeatherRollups.class);
+        SummaryWriteBehind writeBehind = context.getBean(SummaryWriteBehind.class);
+
+        end = LocalDate.now().minusDays(1);
+        start = end.minusYears(years).plusDays(10);
+        long first = end.minusYears(years).atStartOfDay(ZoneId.systemDefault()).toEpochSecond();
+        long last = end.plusDays(1).atStartOfDay(ZoneId.systemDefault()).toEpochSecond();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        List<RollupReading> history = new ArrayList<>();
+        for (long t = first; t < last; t += 3600) {
+            history.add(new RollupReading(CITY, t, -10 + random.nextDouble(45), 30 + random.nextInt(60),
+                    random.nextInt(10) == 0 ? -1 : random.nextInt(200)));
+            if (history.size() >= 5_000) {
+                rollups.record(history);
+                writeBehind.flush();
+                history.clear();
+            }
+        }
+        rollups.record(history);
+        writeBehind.flush();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public RollupStats summarize() {
+        return rollups.summarize(CITY, start, end);
+    }
+
+    @Benchmark
+    public double foldHourBuckets() {
+        ZoneId zone = ZoneId.systemDefault();
+        double sum = 0;
+        for (RollupStats hour : rollups.series(CITY, RollupGranularity.HOUR,
+                start.atStartOfDay(zone).toInstant(), end.plusDays(1).atStartOfDay(zone).toInstant())) {
+            sum += hour.averageTemp() * hour.readings();
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.weather_data.benchmark;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+
+/**
+ * In-process stand-in for OpenWeatherMap and IQAir: answers every request with a recorded
+ * payload chosen by URL substring, so benchmarks never leave the JVM.
+ */
+final class StubUpstream implements ClientHttpRequestFactory {
+
+    private final Map<String, byte[]> payloads = new LinkedHashMap<>();
+
+    StubUpstream respond(String urlFragment, String payloadResource) {
+        payloads.put(urlFragment, load(payloadResource));
+        return this;
+    }
+
+    @Override
+    public ClientHttpRequest createRequest(URI uri, HttpMethod httpMethod) {
+        MockClientHttpRequest request = new MockClientHttpRequest(httpMethod, uri);
+        String url = uri.toString();
+        for (Map.Entry<String, byte[]> entry : payloads.entrySet()) {
+            if (url.contains(entry.getKey())) {
+                MockClientHttpResponse response = new MockClientHttpResponse(entry.getValue(), HttpStatus.OK);
+                response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+                request.setResponse(response);
+                return request;
+            }
+        }
+        request.setResponse(new MockClientHttpResponse(new byte[0], HttpStatus.NOT_FOUND));
+        return request;
+    }
+
+    static byte[] load(String payloadResource) {
+        try (InputStream in = StubUpstream.class.getResourceAsStream("/payloads/" + payloadResource)) {
+            if (in == null) {
+                throw new IllegalArgumentException("Missing benchmark payload " + payloadResource);
+            }
+            return in.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.weather_data.benchmark;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.example.weather_data.entity.WeatherCondition;
+import com.example.weather_data.repository.DailyWeatherSummaryRepository;
+import com.example.weather_data.repository.DailyWeatherSummaryRepositoryCustom.DailyReading;
+import com.example.weather_data.service.SummaryWriteBehind;
+
+/**
+ * Cost of writing one 50-city tick into the daily summaries, with and without years of history
+ * in the table: the direct per-tick upsert, the write-behind queue flushed after every tick, and
+ * the write-behind queue coalescing ten ticks into one flush (reported per tick).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class SummaryIngestBenchmark {
+
+    private static final int CITIES = 50;
+    private static final int COALESCED_TICKS = 10;
+
+    @Param({"0", "1825"})
+    public int historyDays;
+
+    private ConfigurableApplicationContext context;
+    private DailyWeatherSummaryRepository repository;
+    private SummaryWriteBehind writeBehind;
+    private List<DailyReading> tick;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start("summary-ingest-" + historyDays, BenchmarkApplication.recordedUpstream(),
+                "weather.persistence.flush-interval=86400000", "weather.persistence.flush-size=1000000");
+        repository = context.getBean(DailyWeatherSummaryRepository.class);
+        writeBehind = context.getBean(SummaryWriteBehind.class);
+
+        LocalDate today = LocalDate.now();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        List<DailyReading> history = new ArrayList<>();
+        for (int day = historyDays; day >= 1; day--) {
+            for (int city = 0; city < CITIES; city++) {
+                history.add(new DailyReading("City " + city, today.minusDays(day), 15 + random.nextDouble(25),
+                        40 + random.nextInt(50), WeatherCondition.CLEAR));
+            }
+            if (history.size() >= 10_000) {
+                repository.upsertReadings(history);
+                history.clear();
+            }
+        }
+        repository.upsertReadings(history);
+
+        tick = new ArrayList<>(CITIES);
+        for (int city = 0; city < CITIES; city++) {
+            tick.add(new DailyReading("City " + city, today, 15 + random.nextDouble(25), 40 + random.nextInt(50),
+                    WeatherCondition.values()[city % 4]));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void upsertPerTick() {
+        repository.upsertReadings(tick);
+    }
+
+    @Benchmark
+    public void writeBehindFlushEveryTick() {
+        writeBehind.submit(tick);
+        writeBehind.flush();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(COALESCED_TICKS)
+    public void writeBehindCoalesced() {
+        for (int i = 0; i < COALESCED_TICKS; i++) {
+            writeBehind.submit(tick);
+        }
+        writeBehind.flush();
+    }
+}
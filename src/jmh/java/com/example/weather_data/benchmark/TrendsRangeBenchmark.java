@@ -0,0 +1,107 @@
+package com.example.weather_data.benchmark;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.DoubleSummaryStatistics;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.example.weather_data.entity.DailyWeatherSummary;
+import com.example.weather_data.entity.WeatherCondition;
+import com.example.weather_data.repository.DailyWeatherSummaryRepository;
+import com.example.weather_data.repository.DailyWeatherSummaryRepositoryCustom.DailyReading;
+import com.example.weather_data.service.WeatherService;
+
+/**
+ * Cost of {@code getWeatherTrends} against range length: the single GROUP BY query versus the
+ * previous one-query-per-day loop, over two years of history for six cities.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class TrendsRangeBenchmark {
+
+    private static final List<String> CITIES = List.of("Delhi", "Mumbai", "Chennai", "Bengaluru", "Kolkata", "Hyderabad");
+    private static final int HISTORY_DAYS = 730;
+
+    @Param({"7", "30", "365"})
+    public int rangeDays;
+
+    private ConfigurableApplicationContext context;
+    private WeatherService weatherService;
+    private DailyWeatherSummaryRepository repository;
+    private LocalDate startDate;
+    private LocalDate endDate;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start("trends-range", BenchmarkApplication.recordedUpstream());
+        weatherService = context.getBean(WeatherService.class);
+        repository = context.getBean(DailyWeatherSummaryRepository.class);
+
+        endDate = LocalDate.now().minusDays(1);
+        LocalDate firstDay = endDate.minusDays(HISTORY_DAYS - 1);
+        List<DailyReading> readings = new ArrayList<>();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (LocalDate day = firstDay; !day.isAfter(endDate); day = day.plusDays(1)) {
+            for (String city : CITIES) {
+                readings.add(new DailyReading(city, day, 15 + random.nextDouble(25), 40 + random.nextInt(50), WeatherCondition.CLEAR));
+            }
+        }
+        repository.upsertReadings(readings);
+        startDate = endDate.minusDays(rangeDays - 1);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Map<LocalDate, Map<String, Object>> aggregatedRangeQuery() {
+        return weatherService.getWeatherTrends(startDate, endDate);
+    }
+
+    // The previous implementation: start at the earliest stored day and query each day separately
+    @Benchmark
+    public Map<LocalDate, Map<String, Object>> perDayQueries() {
+        Map<LocalDate, Map<String, Object>> trends = new LinkedHashMap<>();
+        LocalDate earliestDate = repository.findEarliestDate();
+        if (earliestDate == null || earliestDate.isAfter(startDate)) {
+            earliestDate = startDate;
+        }
+        for (LocalDate day = earliestDate; !day.isAfter(endDate); day = day.plusDays(1)) {
+            DoubleSummaryStatistics tempStats = repository.findByDate(day).stream()
+                    .mapToDouble(DailyWeatherSummary::getAverageTemp)
+                    .summaryStatistics();
+            Map<String, Object> dailyStats = new HashMap<>();
+            dailyStats.put("averageTemp", tempStats.getAverage());
+            dailyStats.put("maxTemp", tempStats.getMax());
+            dailyStats.put("minTemp", tempStats.getMin());
+            trends.put(day, dailyStats);
+        }
+        return trends;
+    }
+}
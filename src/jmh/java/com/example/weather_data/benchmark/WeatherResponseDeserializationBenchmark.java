@@ -0,0 +1,57 @@
+package com.example.weather_data.benchmark;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.weather_data.service.GroupWeatherResponse;
+import com.example.weather_data.service.OwmResponseParser;
+import com.example.weather_data.service.WeatherResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Recorded OpenWeatherMap payloads into {@link WeatherResponse}: Jackson data binding against the
+ * streaming {@link OwmResponseParser} the application uses, for single readings and a group response.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class WeatherResponseDeserializationBenchmark {
+
+    @Param({"owm-current-delhi.json", "owm-current-mumbai.json", "owm-current-chennai.json", "owm-group-metros.json"})
+    public String payload;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private byte[] bytes;
+    private boolean group;
+
+    @Setup
+    public void setUp() {
+        bytes = StubUpstream.load(payload);
+        group = payload.contains("group");
+    }
+
+    @Benchmark
+    public Object bindWeatherResponse() throws IOException {
+        return group ? objectMapper.readValue(bytes, GroupWeatherResponse.class) : objectMapper.readValue(bytes, WeatherResponse.class);
+    }
+
+    @Benchmark
+    public Object streamWeatherResponse() throws IOException {
+        return group ? OwmResponseParser.parseGroup(bytes) : OwmResponseParser.parseCurrent(bytes);
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.weather_data.benchmark;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.example.weather_data.service.CurrentWeatherView;
+import com.example.weather_data.service.WeatherResponse;
+import com.example.weather_data.service.WeatherService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Per-tick and per-request paths of {@link WeatherService} inside the real application context,
+ * with H2 in memory and OpenWeatherMap/IQAir answered by {@link StubUpstream}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class WeatherServiceBenchmark {
+
+    private static final List<String> CITIES = List.of("Delhi", "Mumbai", "Chennai", "Bengaluru", "Kolkata", "Hyderabad");
+
+    private ConfigurableApplicationContext context;
+    private WeatherService weatherService;
+    private List<WeatherResponse> tick;
+    private List<WeatherResponse> alternateTick;
+    private boolean alternate;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        context = BenchmarkApplication.start("weather-service", BenchmarkApplication.recordedUpstream());
+        weatherService = context.getBean(WeatherService.class);
+        tick = readings(0);
+        // Swings temperature and humidity far enough that every city trips the delta alerts
+        alternateTick = readings(6);
+        weatherService.getCurrentWeatherView("Delhi");
+    }
+
+    @Setup(Level.Iteration)
+    public void clearAlerts() {
+        weatherService.clearAlerts();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void processWeatherBatch() {
+        weatherService.processWeatherBatch(tick);
+    }
+
+    @Benchmark
+    public int checkAlertThresholds() {
+        alternate = !alternate;
+        int fired = 0;
+        for (WeatherResponse response : alternate ? alternateTick : tick) {
+            if (weatherService.checkAlertThresholds(response)) {
+                fired++;
+            }
+        }
+        return fired;
+    }
+
+    @Benchmark
+    public CurrentWeatherView getCurrentWeatherView() {
+        return weatherService.getCurrentWeatherView("Delhi");
+    }
+
+    private static List<WeatherResponse> readings(double offset) throws IOException {
+        ObjectMapper objectMapper = new ObjectMapper();
+        byte[] payload = StubUpstream.load("owm-current-delhi.json");
+        List<WeatherResponse> readings = new ArrayList<>();
+        for (int i = 0; i < CITIES.size(); i++) {
+            WeatherResponse response = objectMapper.readValue(payload, WeatherResponse.class);
+            response.setName(CITIES.get(i));
+            response.getMain().setTemp(response.getMain().getTemp() + i + offset);
+            response.getMain().setHumidity(response.getMain().getHumidity() + (int) (offset * 4));
+            readings.add(response);
+        }
+        return readings;
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.weather_data.benchmark;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.example.weather_data.entity.WeatherCondition;
+import com.example.weather_data.repository.DailyWeatherSummaryRepository;
+import com.example.weather_data.repository.DailyWeatherSummaryRepositoryCustom.DailyReading;
+import com.example.weather_data.service.WeatherService;
+
+/**
+ * {@code getWeatherStats} over a day holding N per-city summaries.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class WeatherStatsBenchmark {
+
+    @Param({"6", "600", "6000"})
+    public int summaries;
+
+    private ConfigurableApplicationContext context;
+    private WeatherService weatherService;
+    private LocalDate date;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start("weather-stats", BenchmarkApplication.recordedUpstream());
+        weatherService = context.getBean(WeatherService.class);
+        date = LocalDate.now().minusDays(1);
+
+        WeatherCondition[] conditions = WeatherCondition.values();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        List<DailyReading> readings = new ArrayList<>(summaries);
+        for (int i = 0; i < summaries; i++) {
+            readings.add(new DailyReading("City-" + i, date, 15 + random.nextDouble(25), 40 + random.nextInt(50),
+                    conditions[random.nextInt(conditions.length)]));
+        }
+        context.getBean(DailyWeatherSummaryRepository.class).upsertReadings(readings);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Map<String, Object> getWeatherStats() {
+        return weatherService.getWeatherStats(date);
+    }
+}
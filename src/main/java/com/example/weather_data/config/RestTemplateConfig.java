@@ -1,14 +1,72 @@
 package com.example.weather_data.config;
 
+import java.time.Duration;
+
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+
 @Configuration
 public class RestTemplateConfig {
 
+    // One pool shared by the OpenWeatherMap and IQAir clients; limits apply per upstream host
+    @Bean
+    public PoolingHttpClientConnectionManager weatherHttpConnectionManager(
+            @Value("${weather.http.max-connections:50}") int maxConnections,
+            @Value("${weather.http.max-connections-per-host:20}") int maxConnectionsPerHost,
+            @Value("${weather.http.connect-timeout:PT3S}") Duration connectTimeout,
+            @Value("${weather.http.read-timeout:PT10S}") Duration readTimeout,
+            @Value("${weather.http.connection-ttl:PT5M}") Duration connectionTtl) {
+        return PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(maxConnections)
+                .setMaxConnPerRoute(maxConnectionsPerHost)
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.of(connectTimeout))
+                        .setSocketTimeout(Timeout.of(readTimeout))
+                        .setTimeToLive(TimeValue.of(connectionTtl))
+                        .setValidateAfterInactivity(TimeValue.ofSeconds(2))
+                        .build())
+                .build();
+    }
+
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient weatherHttpClient(
+            PoolingHttpClientConnectionManager weatherHttpConnectionManager,
+            @Value("${weather.http.response-timeout:PT10S}") Duration responseTimeout,
+            @Value("${weather.http.pool-acquire-timeout:PT2S}") Duration poolAcquireTimeout,
+            @Value("${weather.http.idle-eviction:PT30S}") Duration idleEviction) {
+        return HttpClients.custom()
+                .setConnectionManager(weatherHttpConnectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setResponseTimeout(Timeout.of(responseTimeout))
+                        .setConnectionRequestTimeout(Timeout.of(poolAcquireTimeout))
+                        .build())
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.of(idleEviction))
+                .build();
+    }
+
+    @Bean
+    public RestTemplate restTemplate(CloseableHttpClient weatherHttpClient) {
+        return new RestTemplate(new HttpComponentsClientHttpRequestFactory(weatherHttpClient));
+    }
+
+    // Publishes httpcomponents.httpclient.pool.* gauges (leased, available, pending, max)
     @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
+    public MeterBinder weatherHttpPoolMetrics(PoolingHttpClientConnectionManager weatherHttpConnectionManager) {
+        return new PoolingHttpClientConnectionManagerMetricsBinder(weatherHttpConnectionManager, "weather-http");
     }
 }
@@ -0,0 +1,246 @@
+package com.example.weather_data.controller;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.example.weather_data.entity.RollupGranularity;
+import com.example.weather_data.repository.DailyTemperatureAggregate;
+import com.example.weather_data.service.BackfillProgress;
+import com.example.weather_data.service.City;
+import com.example.weather_data.service.CityAqi;
+import com.example.weather_data.service.CityRegistry;
+import com.example.weather_data.service.CurrentConditions;
+import com.example.weather_data.service.DailyStats;
+import com.example.weather_data.service.DashboardSnapshot;
+import com.example.weather_data.service.HistoricalBackfill;
+import com.example.weather_data.service.RollupStats;
+import com.example.weather_data.service.WeatherAlert;
+import com.example.weather_data.service.WeatherRollups;
+import com.example.weather_data.service.WeatherService;
+import com.example.weather_data.storage.ObservationSeries;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * JSON counterpart of the dashboard pages. Small responses are records serialized by Jackson;
+ * date ranges and intraday series are written row by row through a {@link JsonGenerator}, so their
+ * size never has to fit in memory. Numbers are always JSON numbers, and missing values are {@code null}.
+ */
+@RestController
+@RequestMapping(value = "/api/weather", produces = MediaType.APPLICATION_JSON_VALUE)
+public class WeatherApiController {
+
+    private final WeatherService weatherService;
+    private final WeatherRollups weatherRollups;
+    private final CityRegistry cityRegistry;
+    private final HistoricalBackfill historicalBackfill;
+    private final ObjectMapper objectMapper;
+
+    public WeatherApiController(WeatherService weatherService, WeatherRollups weatherRollups, CityRegistry cityRegistry,
+                                HistoricalBackfill historicalBackfill, ObjectMapper objectMapper) {
+        this.weatherService = weatherService;
+        this.weatherRollups = weatherRollups;
+        this.cityRegistry = cityRegistry;
+        this.historicalBackfill = historicalBackfill;
+        this.objectMapper = objectMapper;
+    }
+
+    @GetMapping
+    public ResponseEntity<CurrentConditions> getCurrentWeather(@RequestParam String city) {
+        if (!weatherService.isValidCity(city)) {
+            throw new IllegalArgumentException("City must not be blank");
+        }
+        CurrentConditions conditions = weatherService.getCurrentConditions(city);
+        return conditions != null ? ResponseEntity.ok(conditions) : ResponseEntity.notFound().build();
+    }
+
+    @GetMapping("/stats")
+    public DailyStats getStats(@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        return weatherService.getDailyStats(date != null ? date : LocalDate.now());
+    }
+
+    // Alerts and today's per-city values come from the dashboard snapshot and honour If-None-Match
+
+    @GetMapping("/alerts")
+    public ResponseEntity<List<WeatherAlert>> getAlerts() {
+        DashboardSnapshot dashboard = weatherService.getDashboard();
+        return ResponseEntity.ok()
+                .eTag(dashboard.etag())
+                .lastModified(dashboard.builtAtEpochMilli())
+                .body(dashboard.alerts());
+    }
+
+    @GetMapping("/trends")
+    public ResponseEntity<List<CityToday>> getTodayTrends() {
+        DashboardSnapshot dashboard = weatherService.getDashboard();
+        List<CityToday> cities = new ArrayList<>(dashboard.today().size());
+        dashboard.today().forEach((city, values) -> cities.add(CityToday.of(city, values)));
+        cities.sort((a, b) -> a.city().compareTo(b.city()));
+        return ResponseEntity.ok()
+                .eTag(dashboard.etag())
+                .lastModified(dashboard.builtAtEpochMilli())
+                .body(cities);
+    }
+
+    @GetMapping("/aqi")
+    public List<CityAqi> getAqi() {
+        return weatherService.getAqiReadings();
+    }
+
+    /** Per-day aggregates across all cities for days in the range that have data, oldest first. */
+    @GetMapping(value = "/trends", params = {"startDate", "endDate"})
+    public void getTrends(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+                          @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+                          HttpServletResponse response) throws IOException {
+        if (endDate.isBefore(startDate)) {
+            throw new IllegalArgumentException("endDate must not be before startDate");
+        }
+        try (JsonGenerator json = startJson(response)) {
+            json.writeStartArray();
+            weatherService.forEachDailyAggregate(startDate, endDate, row -> writeAggregate(json, row));
+            json.writeEndArray();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /** Every stored reading for {@code city} on {@code date} (default today), oldest first. */
+    @GetMapping("/trends/{city}")
+    public void getCityTrends(@PathVariable String city,
+                              @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+                              HttpServletResponse response) throws IOException {
+        LocalDate day = date != null ? date : LocalDate.now();
+        ObservationSeries series = weatherService.getIntradayObservations(city, day);
+        try (JsonGenerator json = startJson(response)) {
+            json.writeStartObject();
+            json.writeStringField("city", city);
+            json.writeStringField("date", day.toString());
+            json.writeArrayFieldStart("readings");
+            for (int i = 0; i < series.size(); i++) {
+                json.writeStartObject();
+                json.writeStringField("time", Instant.ofEpochSecond(series.epochSeconds()[i]).toString());
+                writeNumberField(json, "temperature", series.temps()[i]);
+                writeNumberField(json, "feelsLike", series.feelsLike()[i]);
+                json.writeNumberField("humidity", series.humidity()[i]);
+                writeNumberField(json, "windSpeed", series.windSpeeds()[i]);
+                writeNumberField(json, "windDirection", series.windDegs()[i]);
+                writeNumberField(json, "windGust", series.windGusts()[i]);
+                if (series.aqi()[i] >= 0) {
+                    json.writeNumberField("aqi", series.aqi()[i]);
+                } else {
+                    json.writeNullField("aqi");
+                }
+                json.writeEndObject();
+            }
+            json.writeEndArray();
+            json.writeEndObject();
+        }
+    }
+
+    /**
+     * Aggregates for {@code city} over a date range of any length, read from the rollup buckets.
+     * The city may be given by any registry name or alias; others are 404.
+     */
+    @GetMapping("/history/{city}")
+    public ResponseEntity<RollupStats> getHistory(@PathVariable String city,
+                                                  @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+                                                  @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        City known = cityRegistry.find(city);
+        if (known == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(weatherRollups.summarize(known.name(), startDate, endDate));
+    }
+
+    /** One entry per HOUR, DAY or MONTH bucket of {@code city} with data in the date range, oldest first. */
+    @GetMapping("/history/{city}/series")
+    public ResponseEntity<List<RollupStats>> getHistorySeries(@PathVariable String city,
+                                                              @RequestParam(defaultValue = "DAY") RollupGranularity granularity,
+                                                              @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+                                                              @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        if (endDate.isBefore(startDate)) {
+            throw new IllegalArgumentException("endDate must not be before startDate");
+        }
+        City known = cityRegistry.find(city);
+        if (known == null) {
+            return ResponseEntity.notFound().build();
+        }
+        ZoneId zone = ZoneId.systemDefault();
+        return ResponseEntity.ok(weatherRollups.series(known.name(), granularity,
+                startDate.atStartOfDay(zone).toInstant(), endDate.plusDays(1).atStartOfDay(zone).toInstant()));
+    }
+
+    /**
+     * Queues every day in the range for {@code cities} (all tracked cities when omitted) and starts
+     * the backfill in the background; progress is polled from {@code GET /backfill}.
+     */
+    @PostMapping("/backfill")
+    public ResponseEntity<BackfillProgress> startBackfill(@RequestParam(required = false) List<String> cities,
+                                                          @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+                                                          @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        historicalBackfill.start(cities != null ? cities : List.of(), startDate, endDate);
+        return ResponseEntity.accepted().body(historicalBackfill.progress());
+    }
+
+    @GetMapping("/backfill")
+    public BackfillProgress getBackfillProgress() {
+        return historicalBackfill.progress();
+    }
+
+    private JsonGenerator startJson(HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        return objectMapper.getFactory().createGenerator(response.getOutputStream());
+    }
+
+    private static void writeAggregate(JsonGenerator json, DailyTemperatureAggregate row) {
+        try {
+            json.writeStartObject();
+            json.writeStringField("date", row.date().toString());
+            json.writeNumberField("averageTemp", row.averageTemp());
+            json.writeNumberField("maxTemp", row.maxTemp());
+            json.writeNumberField("minTemp", row.minTemp());
+            json.writeEndObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // The observation log stores missing wind values as NaN, which JSON cannot represent
+    private static void writeNumberField(JsonGenerator json, String name, float value) throws IOException {
+        if (Float.isNaN(value)) {
+            json.writeNullField(name);
+        } else {
+            json.writeNumberField(name, value);
+        }
+    }
+
+    /** Today's latest values for one city; {@code null} where the city has no reading yet. */
+    public record CityToday(String city, Double temperature, Integer humidity, Integer aqi) {
+        static CityToday of(String city, Map<String, Double> values) {
+            Double humidity = values.get("humidity");
+            Double aqi = values.get("aqi");
+            return new CityToday(city, values.get("temperature"),
+                    humidity != null ? humidity.intValue() : null,
+                    aqi != null && aqi >= 0 ? aqi.intValue() : null);
+        }
+    }
+}
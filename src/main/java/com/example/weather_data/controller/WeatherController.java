@@ -1,31 +1,39 @@
 package com.example.weather_data.controller;
 
-import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.util.Arrays;
-import java.util.List;
 import java.util.Map;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import com.example.weather_data.service.CityRegistry;
+import com.example.weather_data.service.DashboardSnapshot;
+import com.example.weather_data.service.WeatherEventStream;
 import com.example.weather_data.service.WeatherService;
 
 @Controller
 public class WeatherController {
 
     private final WeatherService weatherService;
-    private final List<String> indianMetros = Arrays.asList("Delhi", "Mumbai", "Chennai", "Bengaluru", "Kolkata", "Hyderabad");
+    private final WeatherEventStream weatherEventStream;
+    private final CityRegistry cityRegistry;
 
     @Autowired
-    public WeatherController(WeatherService weatherService) {
+    public WeatherController(WeatherService weatherService, WeatherEventStream weatherEventStream,
+                             CityRegistry cityRegistry) {
         this.weatherService = weatherService;
+        this.weatherEventStream = weatherEventStream;
+        this.cityRegistry = cityRegistry;
     }
 
     @GetMapping({"/", "/home"})
@@ -45,21 +53,10 @@ public class WeatherController {
             return "redirect:/home";
         }
 
-        Map<String, Object> weatherData = weatherService.getCurrentWeatherData(city);
-        
         model.addAttribute("city", city);
-        model.addAttribute("cities", indianMetros);
-        model.addAttribute("temperature", weatherData.get("temperature"));
-        model.addAttribute("feelsLike", weatherData.get("feelsLike"));
-        model.addAttribute("weatherCondition", weatherData.get("weatherCondition"));
-        model.addAttribute("weatherIcon", weatherData.get("weatherIcon"));
-        model.addAttribute("windSpeed", weatherData.get("windSpeed"));
-        model.addAttribute("windDirection", weatherData.get("windDirection"));
-        model.addAttribute("windGusts", weatherData.get("windGusts"));
-        model.addAttribute("aqi", weatherData.get("aqi"));
-        model.addAttribute("aqiCategory", weatherData.get("aqiCategory"));
-        model.addAttribute("currentTime", weatherData.get("currentTime"));
-        model.addAttribute("lastUpdated", weatherData.get("lastUpdated"));
+        model.addAttribute("cities", cityRegistry.names());
+        model.addAttribute("weather", weatherService.getCurrentWeatherView(city));
+        model.addAttribute("currentTime", LocalDateTime.now());
 
         return "current-weather";
     }
@@ -71,30 +68,55 @@ public class WeatherController {
         return directions[index];
     }
 
+    // Dashboard pages render from the snapshot of the last tick; returning null after a
+    // successful conditional check sends 304 Not Modified without rendering anything
+
     @GetMapping("/weather/stats")
-    public String getWeatherStats(Model model) {
-        Map<String, Map<String, Object>> allStats = weatherService.getAllWeatherStats();
-        model.addAttribute("allStats", allStats);
+    public String getWeatherStats(WebRequest request, Model model) {
+        DashboardSnapshot dashboard = weatherService.getDashboard();
+        if (request.checkNotModified(dashboard.etag(), dashboard.builtAtEpochMilli())) {
+            return null;
+        }
+        model.addAttribute("allStats", dashboard.stats());
         return "weather-stats";
     }
 
     @GetMapping("/weather/trends")
-    public String getWeatherTrends(@RequestParam(required = false, defaultValue = "temperature") String dataType, Model model) {
-        LocalDate today = LocalDate.now();
-        Map<String, Map<String, Double>> weatherData = weatherService.getWeatherDataForToday();
-        model.addAttribute("date", today);
-        model.addAttribute("weatherData", weatherData);
+    public String getWeatherTrends(@RequestParam(required = false, defaultValue = "temperature") String dataType,
+                                   WebRequest request, Model model) {
+        DashboardSnapshot dashboard = weatherService.getDashboard();
+        if (request.checkNotModified(dashboard.etag(), dashboard.builtAtEpochMilli())) {
+            return null;
+        }
+        model.addAttribute("date", dashboard.date());
+        model.addAttribute("weatherData", dashboard.today());
         model.addAttribute("dataType", dataType);
         return "weather-trends";
     }
 
     @GetMapping({"/weather/alerts", "/alerts"})
-    public String showAlerts(Model model) {
-        List<String> activeAlerts = weatherService.getActiveAlerts();
-        model.addAttribute("alerts", activeAlerts);
+    public String showAlerts(WebRequest request, Model model) {
+        DashboardSnapshot dashboard = weatherService.getDashboard();
+        if (request.checkNotModified(dashboard.etag(), dashboard.builtAtEpochMilli())) {
+            return null;
+        }
+        model.addAttribute("alerts", dashboard.alerts());
         return "weather-alerts";
     }
 
+    @GetMapping(value = "/weather/alerts/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @ResponseBody
+    public SseEmitter streamAlerts(@RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        return weatherEventStream.subscribe(null, false, lastEventId);
+    }
+
+    @GetMapping(value = "/weather/{city}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @ResponseBody
+    public SseEmitter streamCity(@PathVariable String city,
+                                 @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        return weatherEventStream.subscribe(weatherService.normalizeCity(city), true, lastEventId);
+    }
+
     @GetMapping("/weather/clear-alerts")
     @ResponseBody
     public ResponseEntity<String> clearAlerts() {
@@ -7,10 +7,11 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.Table;
 
 @Entity
-@Table(name = "aqi_cache")
+@Table(name = "aqi_cache", indexes = @Index(name = "ux_aqi_cache_city", columnList = "city", unique = true))
 public class AQICache {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -25,20 +26,13 @@ public class AQICache {
     @Column(nullable = false)
     private LocalDateTime lastUpdated;
 
-    // Default 30-minute cache validity
+    // Expiry as epoch millis so validity checks are a single long comparison
     @Column(nullable = false)
-    private LocalDateTime validUntil;
+    private long validUntilEpochMilli;
 
     public AQICache() {
     }
 
-    public AQICache(String city, Integer aqiValue) {
-        this.city = city;
-        this.aqiValue = aqiValue;
-        this.lastUpdated = LocalDateTime.now();
-        this.validUntil = this.lastUpdated.plusMinutes(30);
-    }
-
     public Long getId() {
         return id;
     }
@@ -71,15 +65,11 @@ public class AQICache {
         this.lastUpdated = lastUpdated;
     }
 
-    public LocalDateTime getValidUntil() {
-        return validUntil;
-    }
-
-    public void setValidUntil(LocalDateTime validUntil) {
-        this.validUntil = validUntil;
+    public long getValidUntilEpochMilli() {
+        return validUntilEpochMilli;
     }
 
-    public boolean isValid() {
-        return LocalDateTime.now().isBefore(validUntil);
+    public void setValidUntilEpochMilli(long validUntilEpochMilli) {
+        this.validUntilEpochMilli = validUntilEpochMilli;
     }
 } 
\ No newline at end of file
@@ -0,0 +1,75 @@
+package com.example.weather_data.entity;
+
+import java.time.LocalDate;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+/**
+ * One city and day of a historical backfill. Rows are created pending when a backfill is
+ * requested and marked completed in the same transaction that stores the day's readings, so the
+ * table doubles as the job's checkpoint: after a restart only pending units are fetched again.
+ */
+@Entity
+@Table(name = "backfill_units",
+       indexes = {
+           @Index(name = "ux_backfill_units_key", columnList = "city, date", unique = true),
+           @Index(name = "ix_backfill_units_pending", columnList = "completed, id")
+       })
+public class BackfillUnit {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String city;
+
+    @Column(nullable = false)
+    private LocalDate date;
+
+    private boolean completed;
+
+    // Hourly readings stored for the day; 0 when the day already had data or upstream had none
+    private int readings;
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getCity() {
+        return city;
+    }
+
+    public void setCity(String city) {
+        this.city = city;
+    }
+
+    public LocalDate getDate() {
+        return date;
+    }
+
+    public void setDate(LocalDate date) {
+        this.date = date;
+    }
+
+    public boolean isCompleted() {
+        return completed;
+    }
+
+    public void setCompleted(boolean completed) {
+        this.completed = completed;
+    }
+
+    public int getReadings() {
+        return readings;
+    }
+
+    public void setReadings(int readings) {
+        this.readings = readings;
+    }
+}
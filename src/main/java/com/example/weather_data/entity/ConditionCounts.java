@@ -0,0 +1,113 @@
+package com.example.weather_data.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+
+/**
+ * Exact per-condition reading counts for one summary, bit-packed as 16-bit lanes into four
+ * BIGINT columns (four conditions per column, in {@link WeatherCondition} ordinal order).
+ * Because lanes never carry into each other, merging two histograms is plain addition of the
+ * words, which lets the daily upsert maintain them in SQL. The top lane of each word shares the
+ * sign bit, so a single condition is capped at 32767 readings per day. That only holds for one
+ * city-day: sum several cities' counts with {@link ConditionTally}.
+ */
+@Embeddable
+public class ConditionCounts {
+
+    private static final int LANE_BITS = 16;
+    private static final int LANES_PER_WORD = 4;
+    private static final int WORDS = 4;
+    private static final long LANE_MASK = 0xFFFFL;
+
+    @Column(name = "condition_counts0", nullable = false)
+    private long word0;
+
+    @Column(name = "condition_counts1", nullable = false)
+    private long word1;
+
+    @Column(name = "condition_counts2", nullable = false)
+    private long word2;
+
+    @Column(name = "condition_counts3", nullable = false)
+    private long word3;
+
+    /** Index (0-3) of the column holding {@code condition}'s lane. */
+    public static int wordIndex(WeatherCondition condition) {
+        return condition.ordinal() / LANES_PER_WORD;
+    }
+
+    /** Value to add to {@code condition}'s column to count one more reading. */
+    public static long unit(WeatherCondition condition) {
+        return 1L << ((condition.ordinal() % LANES_PER_WORD) * LANE_BITS);
+    }
+
+    public void increment(WeatherCondition condition) {
+        long unit = unit(condition);
+        switch (wordIndex(condition)) {
+            case 0 -> word0 += unit;
+            case 1 -> word1 += unit;
+            case 2 -> word2 += unit;
+            default -> word3 += unit;
+        }
+    }
+
+    /** Adds another histogram of the same city and day; the lanes would overflow across cities. */
+    public void add(ConditionCounts other) {
+        word0 += other.word0;
+        word1 += other.word1;
+        word2 += other.word2;
+        word3 += other.word3;
+    }
+
+    public int count(WeatherCondition condition) {
+        long word = switch (wordIndex(condition)) {
+            case 0 -> word0;
+            case 1 -> word1;
+            case 2 -> word2;
+            default -> word3;
+        };
+        return (int) ((word >>> ((condition.ordinal() % LANES_PER_WORD) * LANE_BITS)) & LANE_MASK);
+    }
+
+    public int total() {
+        int total = 0;
+        for (int lane = 0; lane < LANES_PER_WORD; lane++) {
+            int shift = lane * LANE_BITS;
+            total += (int) ((word0 >>> shift) & LANE_MASK) + (int) ((word1 >>> shift) & LANE_MASK)
+                    + (int) ((word2 >>> shift) & LANE_MASK) + (int) ((word3 >>> shift) & LANE_MASK);
+        }
+        return total;
+    }
+
+    void addTo(int[] counts) {
+        for (int word = 0; word < WORDS; word++) {
+            long bits = getWord(word);
+            for (int lane = 0; lane < LANES_PER_WORD; lane++) {
+                counts[word * LANES_PER_WORD + lane] += (int) ((bits >>> (lane * LANE_BITS)) & LANE_MASK);
+            }
+        }
+    }
+
+    /** Most frequent condition, earliest ordinal on ties, or {@code null} if nothing was counted. */
+    public WeatherCondition dominant() {
+        int bestOrdinal = -1;
+        int bestCount = 0;
+        for (int ordinal = 0; ordinal < WORDS * LANES_PER_WORD; ordinal++) {
+            int count = count(WeatherCondition.ofOrdinal(ordinal));
+            if (count > bestCount) {
+                bestCount = count;
+                bestOrdinal = ordinal;
+            }
+        }
+        return bestOrdinal < 0 ? null : WeatherCondition.ofOrdinal(bestOrdinal);
+    }
+
+    public long getWord(int index) {
+        return switch (index) {
+            case 0 -> word0;
+            case 1 -> word1;
+            case 2 -> word2;
+            default -> word3;
+        };
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.weather_data.entity;
+
+/**
+ * Per-condition reading counts summed over many {@link ConditionCounts}, such as every city's
+ * summary for one date. A packed lane only has room for one city-day, so totals across cities
+ * are unpacked lane by lane into int counters instead of adding the words.
+ */
+public class ConditionTally {
+
+    private final int[] counts = new int[WeatherCondition.values().length];
+
+    public void add(ConditionCounts conditionCounts) {
+        conditionCounts.addTo(counts);
+    }
+
+    public int count(WeatherCondition condition) {
+        return counts[condition.ordinal()];
+    }
+
+    public int total() {
+        int total = 0;
+        for (int count : counts) {
+            total += count;
+        }
+        return total;
+    }
+
+    /** Most frequent condition, earliest ordinal on ties, or {@code null} if nothing was counted. */
+    public WeatherCondition dominant() {
+        int bestOrdinal = -1;
+        int bestCount = 0;
+        for (int ordinal = 0; ordinal < counts.length; ordinal++) {
+            if (counts[ordinal] > bestCount) {
+                bestCount = counts[ordinal];
+                bestOrdinal = ordinal;
+            }
+        }
+        return bestOrdinal < 0 ? null : WeatherCondition.ofOrdinal(bestOrdinal);
+    }
+}
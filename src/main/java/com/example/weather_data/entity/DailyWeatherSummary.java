@@ -4,7 +4,11 @@ import jakarta.persistence.*;
 import java.time.LocalDate;
 
 @Entity
-@Table(name = "daily_weather_summaries")
+@Table(name = "daily_weather_summaries",
+       indexes = {
+           @Index(name = "ux_daily_weather_city_date", columnList = "city, date", unique = true),
+           @Index(name = "ix_daily_weather_date", columnList = "date")
+       })
 public class DailyWeatherSummary {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -14,7 +18,8 @@ public class DailyWeatherSummary {
     private double averageTemp;
     private double maxTemp;
     private double minTemp;
-    private String dominantCondition;
+    @Embedded
+    private ConditionCounts conditionCounts = new ConditionCounts();
     private LocalDate date;
     private int humidity;
     private int dataPointCount; // To keep track of how many data points were used for aggregation
@@ -60,12 +65,18 @@ public class DailyWeatherSummary {
         this.minTemp = minTemp;
     }
 
-    public String getDominantCondition() {
-        return dominantCondition;
+    public ConditionCounts getConditionCounts() {
+        return conditionCounts;
+    }
+
+    public void setConditionCounts(ConditionCounts conditionCounts) {
+        this.conditionCounts = conditionCounts;
     }
 
-    public void setDominantCondition(String dominantCondition) {
-        this.dominantCondition = dominantCondition;
+    // Derived from the exact per-condition counts rather than stored separately
+    public String getDominantCondition() {
+        WeatherCondition dominant = conditionCounts.dominant();
+        return dominant != null ? dominant.getDisplayName() : "Unknown";
     }
 
     public LocalDate getDate() {
@@ -102,7 +113,7 @@ public class DailyWeatherSummary {
                 ", averageTemp=" + averageTemp +
                 ", maxTemp=" + maxTemp +
                 ", minTemp=" + minTemp +
-                ", dominantCondition='" + dominantCondition + '\'' +
+                ", dominantCondition='" + getDominantCondition() + '\'' +
                 ", humidity=" + humidity +
                 ", dataPointCount=" + dataPointCount +
                 '}';
@@ -0,0 +1,28 @@
+package com.example.weather_data.entity;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Bucket sizes of the weather rollups, finest first. Buckets are aligned to the server time zone,
+ * so a DAY bucket is a local calendar day and a MONTH bucket a local calendar month. The name is
+ * persisted.
+ */
+public enum RollupGranularity {
+    HOUR,
+    DAY,
+    MONTH;
+
+    /** Start (epoch second) of the bucket containing {@code epochSecond}. */
+    public long bucketStart(long epochSecond, ZoneId zone) {
+        ZonedDateTime time = Instant.ofEpochSecond(epochSecond).atZone(zone);
+        ZonedDateTime start = switch (this) {
+            case HOUR -> time.truncatedTo(ChronoUnit.HOURS);
+            case DAY -> time.truncatedTo(ChronoUnit.DAYS);
+            case MONTH -> time.truncatedTo(ChronoUnit.DAYS).withDayOfMonth(1);
+        };
+        return start.toEpochSecond();
+    }
+}
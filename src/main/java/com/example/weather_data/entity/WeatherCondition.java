@@ -0,0 +1,64 @@
+package com.example.weather_data.entity;
+
+/**
+ * OpenWeatherMap's top-level condition groups ({@code weather[0].main}), in a fixed order
+ * so each one owns a lane in {@link ConditionCounts}. Do not reorder: the ordinal is persisted.
+ */
+public enum WeatherCondition {
+    THUNDERSTORM("Thunderstorm"),
+    DRIZZLE("Drizzle"),
+    RAIN("Rain"),
+    SNOW("Snow"),
+    MIST("Mist"),
+    SMOKE("Smoke"),
+    HAZE("Haze"),
+    DUST("Dust"),
+    FOG("Fog"),
+    SAND("Sand"),
+    ASH("Ash"),
+    SQUALL("Squall"),
+    TORNADO("Tornado"),
+    CLEAR("Clear"),
+    CLOUDS("Clouds"),
+    OTHER("Other");
+
+    private static final WeatherCondition[] VALUES = values();
+
+    private final String displayName;
+
+    WeatherCondition(String displayName) {
+        this.displayName = displayName;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    static WeatherCondition ofOrdinal(int ordinal) {
+        return VALUES[ordinal];
+    }
+
+    public static WeatherCondition fromOwm(String main) {
+        if (main == null) {
+            return OTHER;
+        }
+        return switch (main) {
+            case "Thunderstorm" -> THUNDERSTORM;
+            case "Drizzle" -> DRIZZLE;
+            case "Rain" -> RAIN;
+            case "Snow" -> SNOW;
+            case "Mist" -> MIST;
+            case "Smoke" -> SMOKE;
+            case "Haze" -> HAZE;
+            case "Dust" -> DUST;
+            case "Fog" -> FOG;
+            case "Sand" -> SAND;
+            case "Ash" -> ASH;
+            case "Squall" -> SQUALL;
+            case "Tornado" -> TORNADO;
+            case "Clear" -> CLEAR;
+            case "Clouds" -> CLOUDS;
+            default -> OTHER;
+        };
+    }
+}
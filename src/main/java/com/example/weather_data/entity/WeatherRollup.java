@@ -0,0 +1,159 @@
+package com.example.weather_data.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+/**
+ * One hour, day or month of readings for a city, kept as mergeable aggregates: counts, sums,
+ * sum of squares and extremes. Two buckets combine by adding the sums and taking the min/max,
+ * so any range can be answered from whichever buckets cover it. AQI is aggregated over the
+ * readings that had a value.
+ */
+@Entity
+@Table(name = "weather_rollups",
+       indexes = {
+           @Index(name = "ux_weather_rollups_key", columnList = "granularity, city, bucket_start", unique = true),
+           @Index(name = "ix_weather_rollups_bucket", columnList = "granularity, bucket_start")
+       })
+public class WeatherRollup {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 8)
+    private RollupGranularity granularity;
+
+    @Column(nullable = false)
+    private String city;
+
+    // Epoch second of the bucket's first instant
+    @Column(nullable = false)
+    private long bucketStart;
+
+    private long readingCount;
+    private double tempSum;
+    private double tempSumSq;
+    private double tempMin;
+    private double tempMax;
+    private long humiditySum;
+    private long aqiCount;
+    private long aqiSum;
+    private Integer aqiMin;
+    private Integer aqiMax;
+
+    public Long getId() {
+        return id;
+    }
+
+    public RollupGranularity getGranularity() {
+        return granularity;
+    }
+
+    public void setGranularity(RollupGranularity granularity) {
+        this.granularity = granularity;
+    }
+
+    public String getCity() {
+        return city;
+    }
+
+    public void setCity(String city) {
+        this.city = city;
+    }
+
+    public long getBucketStart() {
+        return bucketStart;
+    }
+
+    public void setBucketStart(long bucketStart) {
+        this.bucketStart = bucketStart;
+    }
+
+    public long getReadingCount() {
+        return readingCount;
+    }
+
+    public void setReadingCount(long readingCount) {
+        this.readingCount = readingCount;
+    }
+
+    public double getTempSum() {
+        return tempSum;
+    }
+
+    public void setTempSum(double tempSum) {
+        this.tempSum = tempSum;
+    }
+
+    public double getTempSumSq() {
+        return tempSumSq;
+    }
+
+    public void setTempSumSq(double tempSumSq) {
+        this.tempSumSq = tempSumSq;
+    }
+
+    public double getTempMin() {
+        return tempMin;
+    }
+
+    public void setTempMin(double tempMin) {
+        this.tempMin = tempMin;
+    }
+
+    public double getTempMax() {
+        return tempMax;
+    }
+
+    public void setTempMax(double tempMax) {
+        this.tempMax = tempMax;
+    }
+
+    public long getHumiditySum() {
+        return humiditySum;
+    }
+
+    public void setHumiditySum(long humiditySum) {
+        this.humiditySum = humiditySum;
+    }
+
+    public long getAqiCount() {
+        return aqiCount;
+    }
+
+    public void setAqiCount(long aqiCount) {
+        this.aqiCount = aqiCount;
+    }
+
+    public long getAqiSum() {
+        return aqiSum;
+    }
+
+    public void setAqiSum(long aqiSum) {
+        this.aqiSum = aqiSum;
+    }
+
+    public Integer getAqiMin() {
+        return aqiMin;
+    }
+
+    public void setAqiMin(Integer aqiMin) {
+        this.aqiMin = aqiMin;
+    }
+
+    public Integer getAqiMax() {
+        return aqiMax;
+    }
+
+    public void setAqiMax(Integer aqiMax) {
+        this.aqiMax = aqiMax;
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.weather_data.exception;
+
+import java.io.IOException;
+
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ProblemDetail;
+import org.springframework.web.bind.MissingServletRequestParameterException;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
+import org.springframework.web.util.DisconnectedClientHelper;
+
+import com.example.weather_data.controller.WeatherApiController;
+
+/**
+ * Error responses for the JSON API as RFC 7807 problem details; ordered ahead of
+ * {@link GlobalExceptionHandler}, which renders the HTML error page.
+ */
+@RestControllerAdvice(assignableTypes = WeatherApiController.class)
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class ApiExceptionHandler {
+
+    @ExceptionHandler(MethodArgumentTypeMismatchException.class)
+    public ProblemDetail handleTypeMismatch(MethodArgumentTypeMismatchException ex) {
+        return ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST,
+                "Invalid value for '" + ex.getName() + "'. Dates use YYYY-MM-DD.");
+    }
+
+    @ExceptionHandler({MissingServletRequestParameterException.class, IllegalArgumentException.class})
+    public ProblemDetail handleBadRequest(Exception ex) {
+        return ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST, ex.getMessage());
+    }
+
+    @ExceptionHandler(IOException.class)
+    public ProblemDetail handleIOException(IOException ex) {
+        // The client went away mid-stream; there is no response left to write a problem into
+        if (DisconnectedClientHelper.isClientDisconnectedException(ex)) {
+            return null;
+        }
+        return ProblemDetail.forStatusAndDetail(HttpStatus.INTERNAL_SERVER_ERROR, ex.getMessage());
+    }
+
+    @ExceptionHandler(Exception.class)
+    public ProblemDetail handleGenericException(Exception ex) {
+        return ProblemDetail.forStatusAndDetail(HttpStatus.INTERNAL_SERVER_ERROR,
+                "An unexpected error occurred: " + ex.getMessage());
+    }
+}
@@ -1,9 +1,13 @@
 package com.example.weather_data.exception;
 
+import java.io.IOException;
+
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
+import org.springframework.web.servlet.ModelAndView;
+import org.springframework.web.util.DisconnectedClientHelper;
 
 @ControllerAdvice
 public class GlobalExceptionHandler {
@@ -14,6 +18,15 @@ public class GlobalExceptionHandler {
         return "error";
     }
 
+    @ExceptionHandler(IOException.class)
+    public ModelAndView handleIOException(IOException ex) {
+        // A streaming client went away; there is no response left to render an error page into
+        if (DisconnectedClientHelper.isClientDisconnectedException(ex)) {
+            return null;
+        }
+        return new ModelAndView("error", "error", "An unexpected error occurred: " + ex.getMessage());
+    }
+
     @ExceptionHandler(Exception.class)
     public String handleGenericException(Exception ex, Model model) {
         model.addAttribute("error", "An unexpected error occurred: " + ex.getMessage());
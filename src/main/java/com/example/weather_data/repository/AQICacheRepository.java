@@ -1,13 +1,25 @@
 package com.example.weather_data.repository;
 
-import java.util.Optional;
+import java.time.LocalDateTime;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.example.weather_data.entity.AQICache;
 
 @Repository
 public interface AQICacheRepository extends JpaRepository<AQICache, Long> {
-    Optional<AQICache> findFirstByCityOrderByLastUpdatedDesc(String city);
+    // One row per city: refreshes overwrite the existing row instead of appending a new one
+    @Modifying
+    @Transactional
+    @Query(value = "MERGE INTO aqi_cache (city, aqi_value, last_updated, valid_until_epoch_milli) KEY (city) "
+            + "VALUES (:city, :aqiValue, :lastUpdated, :validUntilEpochMilli)", nativeQuery = true)
+    int upsert(@Param("city") String city,
+               @Param("aqiValue") int aqiValue,
+               @Param("lastUpdated") LocalDateTime lastUpdated,
+               @Param("validUntilEpochMilli") long validUntilEpochMilli);
 } 
\ No newline at end of file
@@ -0,0 +1,21 @@
+package com.example.weather_data.repository;
+
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.example.weather_data.entity.BackfillUnit;
+
+@Repository
+public interface BackfillUnitRepository extends JpaRepository<BackfillUnit, Long>, BackfillUnitRepositoryCustom {
+
+    // Keyset paging in creation order, so one pass visits every pending unit once
+    @Query("SELECT u FROM BackfillUnit u WHERE u.completed = false AND u.id > :afterId ORDER BY u.id")
+    List<BackfillUnit> findPendingAfter(@Param("afterId") long afterId, Pageable page);
+
+    long countByCompleted(boolean completed);
+}
@@ -0,0 +1,21 @@
+package com.example.weather_data.repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Map;
+
+public interface BackfillUnitRepositoryCustom {
+
+    /**
+     * Creates a pending unit for every city and day from {@code start} to {@code end} inclusive
+     * with one batched MERGE; units that already exist, completed or not, are left as they are.
+     * Returns the number of units created.
+     */
+    int enqueue(Collection<String> cities, LocalDate start, LocalDate end);
+
+    /**
+     * Marks units completed with the number of readings stored for each, keyed by unit id. Joins
+     * the caller's transaction so the checkpoint commits together with the readings.
+     */
+    void markCompleted(Map<Long, Integer> readingsByUnit);
+}
@@ -0,0 +1,60 @@
+package com.example.weather_data.repository;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+class BackfillUnitRepositoryImpl implements BackfillUnitRepositoryCustom {
+
+    private static final String ENQUEUE_SQL = """
+            MERGE INTO backfill_units t
+            USING (VALUES (CAST(? AS VARCHAR(255)), CAST(? AS DATE))) AS s(city, date)
+            ON t.city = s.city AND t.date = s.date
+            WHEN NOT MATCHED THEN INSERT (city, date, completed, readings) VALUES (s.city, s.date, FALSE, 0)
+            """;
+
+    private static final String COMPLETE_SQL = "UPDATE backfill_units SET completed = TRUE, readings = ? WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int batchSize;
+
+    BackfillUnitRepositoryImpl(JdbcTemplate jdbcTemplate,
+                               @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:30}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public int enqueue(Collection<String> cities, LocalDate start, LocalDate end) {
+        List<Object[]> units = new ArrayList<>();
+        for (String city : cities) {
+            for (LocalDate date = start; !date.isAfter(end); date = date.plusDays(1)) {
+                units.add(new Object[] {city, Date.valueOf(date)});
+            }
+        }
+        int created = 0;
+        for (int from = 0; from < units.size(); from += batchSize) {
+            for (int count : jdbcTemplate.batchUpdate(ENQUEUE_SQL, units.subList(from, Math.min(units.size(), from + batchSize)))) {
+                created += Math.max(count, 0);
+            }
+        }
+        return created;
+    }
+
+    @Override
+    public void markCompleted(Map<Long, Integer> readingsByUnit) {
+        if (readingsByUnit.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(COMPLETE_SQL, readingsByUnit.entrySet(), batchSize, (ps, unit) -> {
+            ps.setInt(1, unit.getValue());
+            ps.setLong(2, unit.getKey());
+        });
+    }
+}
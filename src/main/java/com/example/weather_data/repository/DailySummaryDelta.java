@@ -0,0 +1,89 @@
+package com.example.weather_data.repository;
+
+import java.time.LocalDate;
+
+import com.example.weather_data.entity.ConditionCounts;
+import com.example.weather_data.repository.DailyWeatherSummaryRepositoryCustom.DailyReading;
+
+/**
+ * Readings for one (city, date) folded together before they are written: count, temperature sum,
+ * min and max, per-condition counts, and the humidity of the latest reading. Applying a delta to
+ * a summary gives the same row as applying its readings one by one.
+ */
+public final class DailySummaryDelta {
+
+    private final String city;
+    private final LocalDate date;
+    private final ConditionCounts conditionCounts = new ConditionCounts();
+    private int count;
+    private double tempSum;
+    private double minTemp = Double.POSITIVE_INFINITY;
+    private double maxTemp = Double.NEGATIVE_INFINITY;
+    private int humidity;
+
+    public DailySummaryDelta(Key key) {
+        this.city = key.city();
+        this.date = key.date();
+    }
+
+    public record Key(String city, LocalDate date) {
+        public static Key of(DailyReading reading) {
+            return new Key(reading.city(), reading.date());
+        }
+    }
+
+    public Key key() {
+        return new Key(city, date);
+    }
+
+    public void add(DailyReading reading) {
+        count++;
+        tempSum += reading.temp();
+        minTemp = Math.min(minTemp, reading.temp());
+        maxTemp = Math.max(maxTemp, reading.temp());
+        humidity = reading.humidity();
+        conditionCounts.increment(reading.condition());
+    }
+
+    /** Folds in a delta for the same key whose readings came after this one's. */
+    public void absorb(DailySummaryDelta later) {
+        count += later.count;
+        tempSum += later.tempSum;
+        minTemp = Math.min(minTemp, later.minTemp);
+        maxTemp = Math.max(maxTemp, later.maxTemp);
+        humidity = later.humidity;
+        conditionCounts.add(later.conditionCounts);
+    }
+
+    public String city() {
+        return city;
+    }
+
+    public LocalDate date() {
+        return date;
+    }
+
+    public int count() {
+        return count;
+    }
+
+    public double tempSum() {
+        return tempSum;
+    }
+
+    public double minTemp() {
+        return minTemp;
+    }
+
+    public double maxTemp() {
+        return maxTemp;
+    }
+
+    public int humidity() {
+        return humidity;
+    }
+
+    public ConditionCounts conditionCounts() {
+        return conditionCounts;
+    }
+}
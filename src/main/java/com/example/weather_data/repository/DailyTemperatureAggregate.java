@@ -0,0 +1,10 @@
+package com.example.weather_data.repository;
+
+import java.time.LocalDate;
+
+/**
+ * Per-day temperature aggregate across all cities, computed by the database
+ * from the per-city daily averages.
+ */
+public record DailyTemperatureAggregate(LocalDate date, double averageTemp, double minTemp, double maxTemp) {
+}
@@ -8,9 +8,10 @@ import org.springframework.stereotype.Repository;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface DailyWeatherSummaryRepository extends JpaRepository<DailyWeatherSummary, Long> {
+public interface DailyWeatherSummaryRepository extends JpaRepository<DailyWeatherSummary, Long>, DailyWeatherSummaryRepositoryCustom {
     List<DailyWeatherSummary> findByDate(LocalDate date);
     Optional<DailyWeatherSummary> findByCityAndDate(String city, LocalDate date);
 
@@ -19,4 +20,12 @@ public interface DailyWeatherSummaryRepository extends JpaRepository<DailyWeathe
 
     @Query("SELECT MIN(d.date) FROM DailyWeatherSummary d")
     LocalDate findEarliestDate();
+
+    // One GROUP BY over the exact range; days without any summaries produce no row
+    @Query("SELECT new com.example.weather_data.repository.DailyTemperatureAggregate("
+            + "d.date, AVG(d.averageTemp), MIN(d.averageTemp), MAX(d.averageTemp)) "
+            + "FROM DailyWeatherSummary d WHERE d.date BETWEEN :startDate AND :endDate "
+            + "GROUP BY d.date ORDER BY d.date")
+    Stream<DailyTemperatureAggregate> streamDailyTemperatureAggregates(@Param("startDate") LocalDate startDate,
+                                                                       @Param("endDate") LocalDate endDate);
 }
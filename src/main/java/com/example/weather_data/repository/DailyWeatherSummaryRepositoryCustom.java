@@ -0,0 +1,26 @@
+package com.example.weather_data.repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+import com.example.weather_data.entity.WeatherCondition;
+
+public interface DailyWeatherSummaryRepositoryCustom {
+
+    /**
+     * Folds each reading into its (city, date) summary with a single batched MERGE (readings for
+     * the same key are coalesced first),
+     * inserting the row on first sight and recomputing the running averages and the per-condition
+     * counts in SQL otherwise.
+     */
+    void upsertReadings(List<DailyReading> readings);
+
+    /**
+     * Applies already coalesced per-(city, date) deltas with one batched MERGE in a single
+     * transaction: either every delta is applied or none is.
+     */
+    void mergeDeltas(Collection<DailySummaryDelta> deltas);
+
+    record DailyReading(String city, LocalDate date, double temp, int humidity, WeatherCondition condition) {}
+}
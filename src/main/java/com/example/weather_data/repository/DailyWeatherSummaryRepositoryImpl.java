@@ -0,0 +1,88 @@
+package com.example.weather_data.repository;
+
+import java.sql.Date;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+class DailyWeatherSummaryRepositoryImpl implements DailyWeatherSummaryRepositoryCustom {
+
+    // One row per coalesced (city, date): s.n readings summing to s.temp_sum
+    private static final String MERGE_SQL = """
+            MERGE INTO daily_weather_summaries t
+            USING (VALUES (CAST(? AS VARCHAR(255)), CAST(? AS DATE), CAST(? AS INTEGER),
+                           CAST(? AS DOUBLE PRECISION), CAST(? AS DOUBLE PRECISION), CAST(? AS DOUBLE PRECISION),
+                           CAST(? AS INTEGER), CAST(? AS BIGINT), CAST(? AS BIGINT), CAST(? AS BIGINT),
+                           CAST(? AS BIGINT)))
+                AS s(city, date, n, temp_sum, temp_min, temp_max, humidity, cc0, cc1, cc2, cc3)
+            ON t.city = s.city AND t.date = s.date
+            WHEN MATCHED THEN UPDATE SET
+                average_temp = (t.average_temp * t.data_point_count + s.temp_sum) / (t.data_point_count + s.n),
+                max_temp = GREATEST(t.max_temp, s.temp_max),
+                min_temp = LEAST(t.min_temp, s.temp_min),
+                data_point_count = t.data_point_count + s.n,
+                humidity = s.humidity,
+                condition_counts0 = t.condition_counts0 + s.cc0,
+                condition_counts1 = t.condition_counts1 + s.cc1,
+                condition_counts2 = t.condition_counts2 + s.cc2,
+                condition_counts3 = t.condition_counts3 + s.cc3
+            WHEN NOT MATCHED THEN INSERT
+                (city, date, average_temp, max_temp, min_temp, humidity, data_point_count,
+                 condition_counts0, condition_counts1, condition_counts2, condition_counts3)
+                VALUES (s.city, s.date, s.temp_sum / s.n, s.temp_max, s.temp_min, s.humidity, s.n,
+                        s.cc0, s.cc1, s.cc2, s.cc3)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+
+    DailyWeatherSummaryRepositoryImpl(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                                      @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:30}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public void upsertReadings(List<DailyReading> readings) {
+        if (readings.isEmpty()) {
+            return;
+        }
+        Map<DailySummaryDelta.Key, DailySummaryDelta> deltas = new LinkedHashMap<>();
+        for (DailyReading reading : readings) {
+            deltas.computeIfAbsent(DailySummaryDelta.Key.of(reading), DailySummaryDelta::new).add(reading);
+        }
+        mergeDeltas(deltas.values());
+    }
+
+    @Override
+    public void mergeDeltas(Collection<DailySummaryDelta> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        MergeRetry.inTransaction(transactionTemplate, () -> executeMerge(deltas));
+    }
+
+    private void executeMerge(Collection<DailySummaryDelta> deltas) {
+        jdbcTemplate.batchUpdate(MERGE_SQL, deltas, batchSize, (ps, delta) -> {
+            ps.setString(1, delta.city());
+            ps.setDate(2, Date.valueOf(delta.date()));
+            ps.setInt(3, delta.count());
+            ps.setDouble(4, delta.tempSum());
+            ps.setDouble(5, delta.minTemp());
+            ps.setDouble(6, delta.maxTemp());
+            ps.setInt(7, delta.humidity());
+            // Packed condition words add lane-wise in SQL
+            for (int i = 0; i < 4; i++) {
+                ps.setLong(8 + i, delta.conditionCounts().getWord(i));
+            }
+        });
+    }
+}
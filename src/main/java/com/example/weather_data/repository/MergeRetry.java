@@ -0,0 +1,40 @@
+package com.example.weather_data.repository;
+
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Runs a batch of MERGEs in one transaction, retrying when it loses the race to insert a new key.
+ * Two writers can both take the NOT MATCHED branch for the same key; the one whose insert reaches
+ * the unique index second gets a {@link DuplicateKeyException}, rolls back and, on the retry,
+ * takes the MATCHED branch instead.
+ * <p>
+ * Inside a caller's transaction the merge runs once and the exception propagates: the failed
+ * insert has already doomed that transaction, so only the caller can retry, by wrapping its whole
+ * unit of work in {@link #inTransaction} too.
+ */
+public final class MergeRetry {
+
+    private static final int MAX_ATTEMPTS = 3;
+
+    private MergeRetry() {
+    }
+
+    public static void inTransaction(TransactionTemplate transactionTemplate, Runnable merge) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            merge.run();
+            return;
+        }
+        for (int attempt = 1; ; attempt++) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> merge.run());
+                return;
+            } catch (DuplicateKeyException e) {
+                if (attempt == MAX_ATTEMPTS) {
+                    throw e;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.weather_data.repository;
+
+import com.example.weather_data.entity.RollupGranularity;
+import com.example.weather_data.repository.WeatherRollupRepositoryCustom.RollupReading;
+
+/**
+ * Readings for one (granularity, city, bucket) folded together before they are merged into the
+ * stored bucket. Like the bucket itself, two deltas for the same key combine by adding sums and
+ * taking extremes.
+ */
+public final class RollupDelta {
+
+    private final Key key;
+    private long count;
+    private double tempSum;
+    private double tempSumSq;
+    private double tempMin = Double.POSITIVE_INFINITY;
+    private double tempMax = Double.NEGATIVE_INFINITY;
+    private long humiditySum;
+    private long aqiCount;
+    private long aqiSum;
+    private int aqiMin = Integer.MAX_VALUE;
+    private int aqiMax = Integer.MIN_VALUE;
+
+    public RollupDelta(Key key) {
+        this.key = key;
+    }
+
+    public record Key(RollupGranularity granularity, String city, long bucketStart) {}
+
+    /** Negative AQI values mean the reading had none. */
+    public void add(RollupReading reading) {
+        count++;
+        tempSum += reading.temp();
+        tempSumSq += reading.temp() * reading.temp();
+        tempMin = Math.min(tempMin, reading.temp());
+        tempMax = Math.max(tempMax, reading.temp());
+        humiditySum += reading.humidity();
+        if (reading.aqi() >= 0) {
+            aqiCount++;
+            aqiSum += reading.aqi();
+            aqiMin = Math.min(aqiMin, reading.aqi());
+            aqiMax = Math.max(aqiMax, reading.aqi());
+        }
+    }
+
+    public void absorb(RollupDelta other) {
+        count += other.count;
+        tempSum += other.tempSum;
+        tempSumSq += other.tempSumSq;
+        tempMin = Math.min(tempMin, other.tempMin);
+        tempMax = Math.max(tempMax, other.tempMax);
+        humiditySum += other.humiditySum;
+        aqiCount += other.aqiCount;
+        aqiSum += other.aqiSum;
+        aqiMin = Math.min(aqiMin, other.aqiMin);
+        aqiMax = Math.max(aqiMax, other.aqiMax);
+    }
+
+    public Key key() {
+        return key;
+    }
+
+    public long count() {
+        return count;
+    }
+
+    public double tempSum() {
+        return tempSum;
+    }
+
+    public double tempSumSq() {
+        return tempSumSq;
+    }
+
+    public double tempMin() {
+        return tempMin;
+    }
+
+    public double tempMax() {
+        return tempMax;
+    }
+
+    public long humiditySum() {
+        return humiditySum;
+    }
+
+    public long aqiCount() {
+        return aqiCount;
+    }
+
+    public long aqiSum() {
+        return aqiSum;
+    }
+
+    /** {@code null} if no reading in the delta had an AQI. */
+    public Integer aqiMin() {
+        return aqiCount > 0 ? aqiMin : null;
+    }
+
+    public Integer aqiMax() {
+        return aqiCount > 0 ? aqiMax : null;
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.weather_data.repository;
+
+import com.example.weather_data.entity.WeatherRollup;
+
+/**
+ * Aggregates of any number of rollup buckets. {@link #merge} is associative and {@link #EMPTY} is
+ * its identity, so totals over disjoint bucket sets can be combined in any order. The extremes
+ * are {@code null} when nothing was counted.
+ */
+public record RollupTotals(long readings,
+                           double tempSum,
+                           double tempSumSq,
+                           Double tempMin,
+                           Double tempMax,
+                           long humiditySum,
+                           long aqiReadings,
+                           long aqiSum,
+                           Integer aqiMin,
+                           Integer aqiMax) {
+
+    public static final RollupTotals EMPTY = new RollupTotals(0, 0, 0, null, null, 0, 0, 0, null, null);
+
+    // JPQL constructor expression: SUM over no rows is null
+    public RollupTotals(Long readings, Double tempSum, Double tempSumSq, Double tempMin, Double tempMax,
+                        Long humiditySum, Long aqiReadings, Long aqiSum, Integer aqiMin, Integer aqiMax) {
+        this(orZero(readings), tempSum != null ? tempSum : 0, tempSumSq != null ? tempSumSq : 0, tempMin, tempMax,
+                orZero(humiditySum), orZero(aqiReadings), orZero(aqiSum), aqiMin, aqiMax);
+    }
+
+    public static RollupTotals of(WeatherRollup bucket) {
+        return new RollupTotals(bucket.getReadingCount(), bucket.getTempSum(), bucket.getTempSumSq(),
+                Double.valueOf(bucket.getTempMin()), Double.valueOf(bucket.getTempMax()), bucket.getHumiditySum(),
+                bucket.getAqiCount(), bucket.getAqiSum(), bucket.getAqiMin(), bucket.getAqiMax());
+    }
+
+    public RollupTotals merge(RollupTotals other) {
+        return new RollupTotals(readings + other.readings, tempSum + other.tempSum, tempSumSq + other.tempSumSq,
+                min(tempMin, other.tempMin), max(tempMax, other.tempMax), humiditySum + other.humiditySum,
+                aqiReadings + other.aqiReadings, aqiSum + other.aqiSum,
+                min(aqiMin, other.aqiMin), max(aqiMax, other.aqiMax));
+    }
+
+    public Double averageTemp() {
+        return readings > 0 ? tempSum / readings : null;
+    }
+
+    /** Population standard deviation of the temperature. */
+    public Double stdDevTemp() {
+        if (readings == 0) {
+            return null;
+        }
+        double mean = tempSum / readings;
+        return Math.sqrt(Math.max(0, tempSumSq / readings - mean * mean));
+    }
+
+    public Double averageHumidity() {
+        return readings > 0 ? (double) humiditySum / readings : null;
+    }
+
+    public Double averageAqi() {
+        return aqiReadings > 0 ? (double) aqiSum / aqiReadings : null;
+    }
+
+    private static long orZero(Long value) {
+        return value != null ? value : 0;
+    }
+
+    private static <T extends Comparable<T>> T min(T a, T b) {
+        return a == null ? b : b == null ? a : a.compareTo(b) <= 0 ? a : b;
+    }
+
+    private static <T extends Comparable<T>> T max(T a, T b) {
+        return a == null ? b : b == null ? a : a.compareTo(b) >= 0 ? a : b;
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.weather_data.repository;
+
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.weather_data.entity.RollupGranularity;
+import com.example.weather_data.entity.WeatherRollup;
+
+@Repository
+public interface WeatherRollupRepository extends JpaRepository<WeatherRollup, Long>, WeatherRollupRepositoryCustom {
+
+    // Buckets starting in [from, to), oldest first
+    @Query("SELECT r FROM WeatherRollup r WHERE r.granularity = :granularity AND r.city = :city "
+            + "AND r.bucketStart >= :from AND r.bucketStart < :to ORDER BY r.bucketStart")
+    List<WeatherRollup> findBuckets(@Param("granularity") RollupGranularity granularity,
+                                    @Param("city") String city,
+                                    @Param("from") long from,
+                                    @Param("to") long to);
+
+    // One aggregate over the same buckets, computed in the database
+    @Query("SELECT new com.example.weather_data.repository.RollupTotals("
+            + "SUM(r.readingCount), SUM(r.tempSum), SUM(r.tempSumSq), MIN(r.tempMin), MAX(r.tempMax), "
+            + "SUM(r.humiditySum), SUM(r.aqiCount), SUM(r.aqiSum), MIN(r.aqiMin), MAX(r.aqiMax)) "
+            + "FROM WeatherRollup r WHERE r.granularity = :granularity AND r.city = :city "
+            + "AND r.bucketStart >= :from AND r.bucketStart < :to")
+    RollupTotals totals(@Param("granularity") RollupGranularity granularity,
+                        @Param("city") String city,
+                        @Param("from") long from,
+                        @Param("to") long to);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM WeatherRollup r WHERE r.granularity = :granularity AND r.bucketStart < :before")
+    int deleteOlderThan(@Param("granularity") RollupGranularity granularity, @Param("before") long before);
+}
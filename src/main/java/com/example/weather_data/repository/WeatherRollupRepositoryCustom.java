@@ -0,0 +1,15 @@
+package com.example.weather_data.repository;
+
+import java.util.Collection;
+
+public interface WeatherRollupRepositoryCustom {
+
+    /**
+     * Adds each delta into its (granularity, city, bucket) row with a single batched MERGE in one
+     * transaction, inserting the row on first sight.
+     */
+    void mergeDeltas(Collection<RollupDelta> deltas);
+
+    /** One reading as fed to the rollups; {@code aqi} is -1 when there was none. */
+    record RollupReading(String city, long epochSecond, double temp, int humidity, int aqi) {}
+}
@@ -0,0 +1,82 @@
+package com.example.weather_data.repository;
+
+import java.sql.Types;
+import java.util.Collection;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+class WeatherRollupRepositoryImpl implements WeatherRollupRepositoryCustom {
+
+    // AQI extremes are NULL until a reading with AQI arrives; COALESCE keeps whichever side has one
+    private static final String MERGE_SQL = """
+            MERGE INTO weather_rollups t
+            USING (VALUES (CAST(? AS VARCHAR(8)), CAST(? AS VARCHAR(255)), CAST(? AS BIGINT), CAST(? AS BIGINT),
+                           CAST(? AS DOUBLE PRECISION), CAST(? AS DOUBLE PRECISION), CAST(? AS DOUBLE PRECISION),
+                           CAST(? AS DOUBLE PRECISION), CAST(? AS BIGINT), CAST(? AS BIGINT), CAST(? AS BIGINT),
+                           CAST(? AS INTEGER), CAST(? AS INTEGER)))
+                AS s(granularity, city, bucket_start, n, temp_sum, temp_sum_sq, temp_min, temp_max,
+                     humidity_sum, aqi_n, aqi_sum, aqi_min, aqi_max)
+            ON t.granularity = s.granularity AND t.city = s.city AND t.bucket_start = s.bucket_start
+            WHEN MATCHED THEN UPDATE SET
+                reading_count = t.reading_count + s.n,
+                temp_sum = t.temp_sum + s.temp_sum,
+                temp_sum_sq = t.temp_sum_sq + s.temp_sum_sq,
+                temp_min = LEAST(t.temp_min, s.temp_min),
+                temp_max = GREATEST(t.temp_max, s.temp_max),
+                humidity_sum = t.humidity_sum + s.humidity_sum,
+                aqi_count = t.aqi_count + s.aqi_n,
+                aqi_sum = t.aqi_sum + s.aqi_sum,
+                aqi_min = LEAST(COALESCE(t.aqi_min, s.aqi_min), COALESCE(s.aqi_min, t.aqi_min)),
+                aqi_max = GREATEST(COALESCE(t.aqi_max, s.aqi_max), COALESCE(s.aqi_max, t.aqi_max))
+            WHEN NOT MATCHED THEN INSERT
+                (granularity, city, bucket_start, reading_count, temp_sum, temp_sum_sq, temp_min, temp_max,
+                 humidity_sum, aqi_count, aqi_sum, aqi_min, aqi_max)
+                VALUES (s.granularity, s.city, s.bucket_start, s.n, s.temp_sum, s.temp_sum_sq, s.temp_min, s.temp_max,
+                        s.humidity_sum, s.aqi_n, s.aqi_sum, s.aqi_min, s.aqi_max)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+
+    WeatherRollupRepositoryImpl(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                                @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:30}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public void mergeDeltas(Collection<RollupDelta> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        MergeRetry.inTransaction(transactionTemplate, () -> executeMerge(deltas));
+    }
+
+    private void executeMerge(Collection<RollupDelta> deltas) {
+        jdbcTemplate.batchUpdate(MERGE_SQL, deltas, batchSize, (ps, delta) -> {
+            ps.setString(1, delta.key().granularity().name());
+            ps.setString(2, delta.key().city());
+            ps.setLong(3, delta.key().bucketStart());
+            ps.setLong(4, delta.count());
+            ps.setDouble(5, delta.tempSum());
+            ps.setDouble(6, delta.tempSumSq());
+            ps.setDouble(7, delta.tempMin());
+            ps.setDouble(8, delta.tempMax());
+            ps.setLong(9, delta.humiditySum());
+            ps.setLong(10, delta.aqiCount());
+            ps.setLong(11, delta.aqiSum());
+            if (delta.aqiCount() > 0) {
+                ps.setInt(12, delta.aqiMin());
+                ps.setInt(13, delta.aqiMax());
+            } else {
+                ps.setNull(12, Types.INTEGER);
+                ps.setNull(13, Types.INTEGER);
+            }
+        });
+    }
+}
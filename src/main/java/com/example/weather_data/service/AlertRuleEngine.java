@@ -0,0 +1,193 @@
+package com.example.weather_data.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IllegalFormatException;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Evaluates the alert rules against each city's latest reading. Rules from
+ * {@link AlertRuleProperties} plus the two built-in threshold rules
+ * ({@code weather.alert.temp.threshold} and {@code weather.alert.humidity.threshold}, each
+ * requiring {@code weather.alert.consecutive.threshold} breaches in a row) are compiled once into
+ * parallel primitive arrays. Evaluating a reading is a loop of double comparisons over those
+ * arrays and a few writes into the city's own state; nothing is allocated unless a rule fires,
+ * and only then is its message formatted.
+ */
+@Component
+public class AlertRuleEngine {
+    private static final Logger logger = LoggerFactory.getLogger(AlertRuleEngine.class);
+
+    static final int TEMPERATURE = 0;
+    static final int HUMIDITY = 1;
+    static final int AQI = 2;
+    private static final int METRIC_COUNT = 3;
+
+    // Compiled rule table, one entry per rule
+    private final String[] names;
+    private final int[] metrics;
+    private final boolean[] deltas;
+    private final double[] above;
+    private final boolean[] aboveExclusive;
+    private final double[] below;
+    private final int[] consecutive;
+    private final boolean[] onEntry;
+    private final String[] messages;
+
+    private final Map<String, CityState> states = new ConcurrentHashMap<>();
+
+    public AlertRuleEngine(AlertRuleProperties properties,
+                           @Value("${weather.alert.temp.threshold:35.0}") double tempThreshold,
+                           @Value("${weather.alert.humidity.threshold:80}") int humidityThreshold,
+                           @Value("${weather.alert.consecutive.threshold:2}") int consecutiveThreshold) {
+        List<AlertRuleProperties.Rule> rules = new ArrayList<>(properties.rules());
+        rules.add(new AlertRuleProperties.Rule("high-temperature", "temperature", "absolute",
+                tempThreshold, null, null, consecutiveThreshold,
+                "Temperature has been at or above %4$.1f°C for %3$d readings. Current temperature: %2$.2f°C", false));
+        rules.add(new AlertRuleProperties.Rule("high-humidity", "humidity", "absolute",
+                (double) humidityThreshold, null, null, consecutiveThreshold,
+                "Humidity has been at or above %4$.0f%% for %3$d readings. Current humidity: %2$.0f%%", false));
+
+        int count = rules.size();
+        this.names = new String[count];
+        this.metrics = new int[count];
+        this.deltas = new boolean[count];
+        this.above = new double[count];
+        this.aboveExclusive = new boolean[count];
+        this.below = new double[count];
+        this.consecutive = new int[count];
+        this.onEntry = new boolean[count];
+        this.messages = new String[count];
+        for (int i = 0; i < count; i++) {
+            compile(i, rules.get(i));
+        }
+        logger.info("Compiled {} alert rules: {}", count, String.join(", ", names));
+    }
+
+    private void compile(int index, AlertRuleProperties.Rule rule) {
+        if (rule.name() == null || rule.name().isBlank()) {
+            throw new IllegalArgumentException("Alert rule #" + index + " has no name");
+        }
+        names[index] = rule.name();
+        metrics[index] = switch (lowerCase(rule.metric(), "")) {
+            case "temperature" -> TEMPERATURE;
+            case "humidity" -> HUMIDITY;
+            case "aqi" -> AQI;
+            default -> throw new IllegalArgumentException(
+                    "Alert rule " + rule.name() + " has unknown metric: " + rule.metric());
+        };
+        deltas[index] = switch (lowerCase(rule.mode(), "absolute")) {
+            case "absolute" -> false;
+            case "delta" -> true;
+            default -> throw new IllegalArgumentException(
+                    "Alert rule " + rule.name() + " has unknown mode: " + rule.mode());
+        };
+
+        Double upper = rule.above();
+        if (rule.band() != null) {
+            if (metrics[index] != AQI || deltas[index]) {
+                throw new IllegalArgumentException("Alert rule " + rule.name() + ": band only applies to absolute aqi rules");
+            }
+            upper = (double) AqiCategory.parse(rule.band()).getLowerBound();
+            // The AQI only changes every few refreshes, so staying in the band is not news
+            onEntry[index] = true;
+        }
+        if (upper == null && rule.below() == null) {
+            throw new IllegalArgumentException("Alert rule " + rule.name() + " needs above, below or band");
+        }
+        // A missing bound can never be crossed
+        above[index] = upper != null ? upper : Double.POSITIVE_INFINITY;
+        aboveExclusive[index] = Boolean.TRUE.equals(rule.aboveExclusive());
+        below[index] = rule.below() != null ? rule.below() : Double.NEGATIVE_INFINITY;
+        consecutive[index] = Math.max(1, rule.consecutive() != null ? rule.consecutive() : 1);
+
+        String message = rule.message() != null ? rule.message() : rule.name() + ": %1$.2f";
+        try {
+            String.format(message, 1.0, 1.0, 1, 1.0);
+        } catch (IllegalFormatException e) {
+            throw new IllegalArgumentException("Alert rule " + rule.name() + " has an invalid message: " + message, e);
+        }
+        messages[index] = message;
+    }
+
+    private static String lowerCase(String value, String fallback) {
+        return value != null ? value.trim().toLowerCase(Locale.ROOT) : fallback;
+    }
+
+    /**
+     * Runs every rule against one reading for {@code city}, calling {@code sink} for each rule that
+     * fires. Pass {@code Double.NaN} for a metric that is not known; rules on it are skipped and its
+     * previous value is kept for delta rules. Returns the number of rules that fired.
+     */
+    public int evaluate(String city, double temperature, double humidity, double aqi, AlertSink sink) {
+        CityState state = states.get(city);
+        if (state == null) {
+            state = states.computeIfAbsent(city, key -> new CityState(names.length));
+        }
+        int fired = 0;
+        synchronized (state) {
+            double[] previous = state.previous;
+            int[] streaks = state.streaks;
+            for (int rule = 0; rule < names.length; rule++) {
+                int metric = metrics[rule];
+                double reading = metric == TEMPERATURE ? temperature : metric == HUMIDITY ? humidity : aqi;
+                if (Double.isNaN(reading)) {
+                    continue;
+                }
+                double value = deltas[rule] ? reading - previous[metric] : reading;
+                if (Double.isNaN(value)) {
+                    // First reading for the city: nothing to compare a delta against yet
+                    continue;
+                }
+                boolean high = aboveExclusive[rule] ? value > above[rule] : value >= above[rule];
+                if (high || value <= below[rule]) {
+                    int streak = streaks[rule] < Integer.MAX_VALUE ? ++streaks[rule] : streaks[rule];
+                    if (onEntry[rule] ? streak == consecutive[rule] : streak >= consecutive[rule]) {
+                        double threshold = high ? above[rule] : below[rule];
+                        sink.fire(city, names[rule], String.format(messages[rule], value, reading, streak, threshold));
+                        fired++;
+                    }
+                } else {
+                    streaks[rule] = 0;
+                }
+            }
+            if (!Double.isNaN(temperature)) {
+                previous[TEMPERATURE] = temperature;
+            }
+            if (!Double.isNaN(humidity)) {
+                previous[HUMIDITY] = humidity;
+            }
+            if (!Double.isNaN(aqi)) {
+                previous[AQI] = aqi;
+            }
+        }
+        return fired;
+    }
+
+    public int ruleCount() {
+        return names.length;
+    }
+
+    @FunctionalInterface
+    public interface AlertSink {
+        void fire(String city, String kind, String message);
+    }
+
+    private static final class CityState {
+        final double[] previous = new double[METRIC_COUNT];
+        final int[] streaks;
+
+        CityState(int ruleCount) {
+            Arrays.fill(previous, Double.NaN);
+            this.streaks = new int[ruleCount];
+        }
+    }
+}
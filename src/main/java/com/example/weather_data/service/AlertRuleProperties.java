@@ -0,0 +1,37 @@
+package com.example.weather_data.service;
+
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Alert rules declared under {@code weather.alert.rules[n]} (properties or YAML), compiled by
+ * {@link AlertRuleEngine}. A rule watches one metric of each city's latest reading:
+ * <ul>
+ *   <li>{@code metric}: {@code temperature} (°C), {@code humidity} (%) or {@code aqi}</li>
+ *   <li>{@code mode}: {@code absolute} compares the reading itself, {@code delta} the change since
+ *       the previous reading for the same city</li>
+ *   <li>{@code above} / {@code below}: the rule is breached when the value is {@code >= above} or
+ *       {@code <= below}; either may be omitted</li>
+ *   <li>{@code above-exclusive}: {@code true} to require {@code > above} instead</li>
+ *   <li>{@code band}: for {@code aqi}, shorthand for {@code above} = lower bound of that
+ *       {@link AqiCategory} (e.g. {@code Unhealthy}). A band rule fires once when the AQI enters
+ *       the band, not on every reading inside it, and again only after the AQI has left it</li>
+ *   <li>{@code consecutive}: breaches in a row before the rule fires (default 1)</li>
+ *   <li>{@code message}: {@link String#format} pattern, formatted only when the rule fires, with
+ *       the compared value (reading or delta), the current reading, the consecutive breach count
+ *       and the crossed bound as arguments {@code %1$}..{@code %4$}</li>
+ * </ul>
+ * The {@code kind} of the published alert is the rule's {@code name}.
+ */
+@ConfigurationProperties(prefix = "weather.alert")
+public record AlertRuleProperties(List<Rule> rules) {
+
+    public AlertRuleProperties {
+        rules = rules != null ? List.copyOf(rules) : List.of();
+    }
+
+    public record Rule(String name, String metric, String mode, Double above, Double below,
+                       String band, Integer consecutive, String message, Boolean aboveExclusive) {
+    }
+}
@@ -0,0 +1,154 @@
+package com.example.weather_data.service;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Fixed-capacity ring buffer of active alerts. Writers (the scheduler) are serialized; readers never
+ * lock and never copy the buffer: a {@link Snapshot} pins the sequence range that was published when
+ * it was taken and walks the ring lazily, skipping slots that have since been overwritten.
+ * <p>
+ * Each (city, kind) has at most one visible alert: publishing a new one supersedes the previous one.
+ * Alerts also disappear once their TTL elapses, and memory is bounded by the capacity regardless of
+ * uptime.
+ */
+@Component
+public class AlertStore {
+
+    private final AtomicReferenceArray<WeatherAlert> slots;
+    // Sequence of the alert that superseded the one in the same slot, or 0 while it is still current
+    private final AtomicLongArray supersededBy;
+    private final int mask;
+    private final long ttlMillis;
+    private final Map<String, WeatherAlert> latestByKey = new ConcurrentHashMap<>();
+
+    private volatile long lastSequence;
+    private volatile long clearedThrough;
+
+    public AlertStore(@Value("${weather.alerts.capacity:256}") int capacity,
+                      @Value("${weather.alerts.ttl:PT6H}") Duration ttl) {
+        int size = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+        this.slots = new AtomicReferenceArray<>(size);
+        this.supersededBy = new AtomicLongArray(size);
+        this.mask = size - 1;
+        this.ttlMillis = ttl.toMillis();
+    }
+
+    public synchronized WeatherAlert publish(String city, String kind, String message) {
+        long now = System.currentTimeMillis();
+        long sequence = lastSequence + 1;
+        WeatherAlert alert = new WeatherAlert(sequence, city, kind, message, now, now + ttlMillis);
+
+        int slot = (int) (sequence & mask);
+        supersededBy.set(slot, 0);
+        slots.set(slot, alert);
+
+        WeatherAlert previous = latestByKey.put(city + '\u0000' + kind, alert);
+        if (previous != null && previous.sequence() > clearedThrough) {
+            int previousSlot = (int) (previous.sequence() & mask);
+            if (slots.get(previousSlot) == previous) {
+                supersededBy.set(previousSlot, sequence);
+            }
+        }
+        lastSequence = sequence;
+        return alert;
+    }
+
+    /** Hides every alert published so far; sequence numbers keep increasing. */
+    public synchronized void clear() {
+        clearedThrough = lastSequence;
+        latestByKey.clear();
+    }
+
+    public long lastSequence() {
+        return lastSequence;
+    }
+
+    public Snapshot snapshot() {
+        return snapshotAfter(0);
+    }
+
+    /** Snapshot of visible alerts with a sequence greater than {@code sequence}, e.g. for resuming clients. */
+    public Snapshot snapshotAfter(long sequence) {
+        long to = lastSequence;
+        long oldestRetained = to - mask;
+        long from = Math.max(Math.max(sequence, clearedThrough) + 1, Math.max(1, oldestRetained));
+        return new Snapshot(from, to, System.currentTimeMillis());
+    }
+
+    /**
+     * Alerts that were visible at the moment the snapshot was taken, oldest first. Iteration reads
+     * the live ring; an alert whose slot has been reused since is skipped rather than copied up front.
+     */
+    public final class Snapshot implements Iterable<WeatherAlert> {
+        private final long from;
+        private final long to;
+        private final long takenAtEpochMilli;
+
+        private Snapshot(long from, long to, long takenAtEpochMilli) {
+            this.from = from;
+            this.to = to;
+            this.takenAtEpochMilli = takenAtEpochMilli;
+        }
+
+        /** Sequence of the newest alert covered by this snapshot. */
+        public long getVersion() {
+            return to;
+        }
+
+        public boolean isEmpty() {
+            return !iterator().hasNext();
+        }
+
+        @Override
+        public Iterator<WeatherAlert> iterator() {
+            return new Iterator<>() {
+                private long next = from;
+                private WeatherAlert pending = advance();
+
+                private WeatherAlert advance() {
+                    while (next <= to) {
+                        long sequence = next++;
+                        int slot = (int) (sequence & mask);
+                        WeatherAlert alert = slots.get(slot);
+                        if (alert == null || alert.sequence() != sequence) {
+                            continue;
+                        }
+                        long superseder = supersededBy.get(slot);
+                        if (slots.get(slot) != alert) {
+                            continue;
+                        }
+                        boolean superseded = superseder != 0 && superseder <= to;
+                        if (!superseded && alert.expiresAtEpochMilli() > takenAtEpochMilli) {
+                            return alert;
+                        }
+                    }
+                    return null;
+                }
+
+                @Override
+                public boolean hasNext() {
+                    return pending != null;
+                }
+
+                @Override
+                public WeatherAlert next() {
+                    if (pending == null) {
+                        throw new NoSuchElementException();
+                    }
+                    WeatherAlert current = pending;
+                    pending = advance();
+                    return current;
+                }
+            };
+        }
+    }
+}
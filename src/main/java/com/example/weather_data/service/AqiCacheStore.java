@@ -0,0 +1,81 @@
+package com.example.weather_data.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.example.weather_data.entity.AQICache;
+import com.example.weather_data.repository.AQICacheRepository;
+
+/**
+ * Two-tier AQI cache: an in-process map answers every read, and the {@code aqi_cache}
+ * table (one row per city) is written through on refresh so values survive in the database.
+ * The table is read only once, to warm the map on first use.
+ */
+@Component
+public class AqiCacheStore {
+
+    private final AQICacheRepository repository;
+    private final long ttlMillis;
+    private final Map<String, CachedAqi> entries = new ConcurrentHashMap<>();
+    private volatile boolean warmed;
+
+    public AqiCacheStore(AQICacheRepository repository,
+                         @Value("${weather.aqi.cache-ttl:PT30M}") Duration ttl) {
+        this.repository = repository;
+        this.ttlMillis = ttl.toMillis();
+    }
+
+    /** Returns the last known AQI for {@code city}, valid or not, or {@code null} if none was ever stored. */
+    public CachedAqi get(String city) {
+        if (!warmed) {
+            warm();
+        }
+        return entries.get(city);
+    }
+
+    /** Every stored value, valid or not. */
+    public Map<String, CachedAqi> all() {
+        if (!warmed) {
+            warm();
+        }
+        return Map.copyOf(entries);
+    }
+
+    public CachedAqi put(String city, int aqiValue) {
+        LocalDateTime now = LocalDateTime.now();
+        long nowMillis = System.currentTimeMillis();
+        CachedAqi cached = new CachedAqi(aqiValue, nowMillis, nowMillis + ttlMillis);
+        repository.upsert(city, aqiValue, now, cached.validUntilEpochMilli());
+        entries.put(city, cached);
+        return cached;
+    }
+
+    private synchronized void warm() {
+        if (warmed) {
+            return;
+        }
+        for (AQICache row : repository.findAll()) {
+            long fetchedAt = row.getLastUpdated() != null
+                    ? row.getLastUpdated().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli()
+                    : row.getValidUntilEpochMilli() - ttlMillis;
+            entries.putIfAbsent(row.getCity(), new CachedAqi(row.getAqiValue(), fetchedAt, row.getValidUntilEpochMilli()));
+        }
+        warmed = true;
+    }
+
+    public record CachedAqi(int value, long fetchedAtEpochMilli, long validUntilEpochMilli) {
+        public boolean isValidAt(long epochMilli) {
+            return epochMilli < validUntilEpochMilli;
+        }
+
+        public long ageMillis(long epochMilli) {
+            return Math.max(0, epochMilli - fetchedAtEpochMilli);
+        }
+    }
+}
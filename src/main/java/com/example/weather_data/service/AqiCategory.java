@@ -0,0 +1,58 @@
+package com.example.weather_data.service;
+
+import java.util.Locale;
+
+/**
+ * US EPA AQI categories (the scale IQAir reports), in increasing order of severity.
+ */
+public enum AqiCategory {
+    GOOD("Good", 0),
+    MODERATE("Moderate", 51),
+    UNHEALTHY_FOR_SENSITIVE_GROUPS("Unhealthy for Sensitive Groups", 101),
+    UNHEALTHY("Unhealthy", 151),
+    VERY_UNHEALTHY("Very Unhealthy", 201),
+    HAZARDOUS("Hazardous", 301);
+
+    private static final AqiCategory[] VALUES = values();
+
+    private final String displayName;
+    private final int lowerBound;
+
+    AqiCategory(String displayName, int lowerBound) {
+        this.displayName = displayName;
+        this.lowerBound = lowerBound;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    /** Smallest AQI that falls in this category. */
+    public int getLowerBound() {
+        return lowerBound;
+    }
+
+    public static AqiCategory of(int aqi) {
+        for (int i = VALUES.length - 1; i > 0; i--) {
+            if (aqi >= VALUES[i].lowerBound) {
+                return VALUES[i];
+            }
+        }
+        return GOOD;
+    }
+
+    /** Resolves a category by enum name or display name, ignoring case, spaces, dashes and underscores. */
+    public static AqiCategory parse(String name) {
+        String wanted = normalize(name);
+        for (AqiCategory category : VALUES) {
+            if (normalize(category.name()).equals(wanted) || normalize(category.displayName).equals(wanted)) {
+                return category;
+            }
+        }
+        throw new IllegalArgumentException("Unknown AQI category: " + name);
+    }
+
+    private static String normalize(String name) {
+        return name.replaceAll("[\\s_-]", "").toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,190 @@
+package com.example.weather_data.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BooleanSupplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Keeps AQI for every registry city (and for outside cities someone has looked at) fresh in the
+ * background. Each run refreshes the cities whose value has expired, oldest first, for as long as
+ * the IQAir quota allows, writes them through {@link AqiCacheStore}, and then publishes a new
+ * immutable {@link Snapshot}. Request threads only ever read the current snapshot. A city whose
+ * lookup fails is skipped for {@code weather.aqi.failure-backoff}, doubling with every further
+ * failure up to {@code weather.aqi.failure-backoff-max}, so it cannot spend the quota every run.
+ */
+@Component
+public class AqiPipeline {
+    private static final Logger logger = LoggerFactory.getLogger(AqiPipeline.class);
+
+    private final CityRegistry cityRegistry;
+    private final IqAirClient iqAirClient;
+    private final AqiCacheStore aqiCacheStore;
+    private final ProviderQuota quota;
+    private final UpstreamGuard guard;
+    private final int maxOutsideCities;
+    private final long failureBackoffMillis;
+    private final long maxFailureBackoffMillis;
+    private final Map<String, double[]> outsideCities = new ConcurrentHashMap<>();
+    private final Map<String, Failure> failures = new ConcurrentHashMap<>();
+    private volatile Snapshot snapshot = new Snapshot(Map.of(), 0);
+
+    public AqiPipeline(CityRegistry cityRegistry, IqAirClient iqAirClient, AqiCacheStore aqiCacheStore,
+                       UpstreamQuotas upstreamQuotas,
+                       UpstreamGuards upstreamGuards,
+                       @Value("${weather.aqi.max-outside-cities:100}") int maxOutsideCities,
+                       @Value("${weather.aqi.failure-backoff:PT5M}") Duration failureBackoff,
+                       @Value("${weather.aqi.failure-backoff-max:PT6H}") Duration maxFailureBackoff,
+                       MeterRegistry meterRegistry) {
+        this.cityRegistry = cityRegistry;
+        this.iqAirClient = iqAirClient;
+        this.aqiCacheStore = aqiCacheStore;
+        this.quota = upstreamQuotas.iqAir();
+        this.guard = upstreamGuards.iqAir();
+        this.maxOutsideCities = maxOutsideCities;
+        this.failureBackoffMillis = failureBackoff.toMillis();
+        this.maxFailureBackoffMillis = maxFailureBackoff.toMillis();
+        Gauge.builder("weather.aqi.snapshot.age", this, pipeline -> pipeline.snapshot.ageSeconds(System.currentTimeMillis()))
+                .description("Seconds since the AQI snapshot was last published")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    public Snapshot snapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Asks the pipeline to keep AQI for a city outside the registry, looked up by its coordinates.
+     * Only the first {@code weather.aqi.max-outside-cities} such cities are tracked.
+     */
+    public void track(String city, double lat, double lon) {
+        if (outsideCities.containsKey(city) || outsideCities.size() >= maxOutsideCities) {
+            return;
+        }
+        // The size check and the insert must be atomic, or concurrent first views overshoot the cap
+        synchronized (outsideCities) {
+            if (outsideCities.size() < maxOutsideCities) {
+                outsideCities.putIfAbsent(city, new double[] {lat, lon});
+            }
+        }
+    }
+
+    @Scheduled(fixedRateString = "${weather.aqi.refresh-interval:60000}")
+    public void refresh() {
+        long now = System.currentTimeMillis();
+        Snapshot current = snapshot;
+        if (current.publishedAtEpochMilli() == 0) {
+            current = new Snapshot(aqiCacheStore.all(), now);
+        }
+
+        // Everything missing or expired and not backing off, never-fetched and least recently tried first
+        List<String> due = new ArrayList<>();
+        for (City city : cityRegistry.all()) {
+            if (city.iqAirState() != null && isDue(city.name(), current.get(city.name()), now)) {
+                due.add(city.name());
+            }
+        }
+        for (String city : outsideCities.keySet()) {
+            if (isDue(city, current.get(city), now)) {
+                due.add(city);
+            }
+        }
+        Snapshot seen = current;
+        due.sort(Comparator.comparingLong(city -> {
+            Failure failure = failures.get(city);
+            AqiCacheStore.CachedAqi cached = seen.get(city);
+            return failure != null ? failure.attemptedAtEpochMilli()
+                    : cached != null ? cached.fetchedAtEpochMilli() : Long.MIN_VALUE;
+        }));
+
+        // Every HTTP call takes its own token, so a city tried under several IQAir names pays for each
+        AtomicBoolean outOfQuota = new AtomicBoolean();
+        BooleanSupplier permit = () -> {
+            if (quota.tryAcquire(System.currentTimeMillis())) {
+                return true;
+            }
+            outOfQuota.set(true);
+            return false;
+        };
+        Map<String, AqiCacheStore.CachedAqi> updated = new HashMap<>(current.values());
+        int refreshed = 0;
+        for (String city : due) {
+            // An open circuit ends the run before any quota is spent; the snapshot keeps the last values
+            if (outOfQuota.get() || !guard.isCallPermitted()) {
+                break;
+            }
+            int aqiValue = fetch(city, permit);
+            if (aqiValue != -1) {
+                updated.put(city, aqiCacheStore.put(city, aqiValue));
+                failures.remove(city);
+                refreshed++;
+            } else if (!outOfQuota.get()) {
+                recordFailure(city, System.currentTimeMillis());
+            }
+        }
+        snapshot = new Snapshot(Map.copyOf(updated), now);
+        if (!due.isEmpty()) {
+            logger.info("AQI refresh updated {} of {} due cities", refreshed, due.size());
+        }
+    }
+
+    private boolean isDue(String city, AqiCacheStore.CachedAqi cached, long now) {
+        Failure failure = failures.get(city);
+        if (failure != null && now < failure.retryAtEpochMilli()) {
+            return false;
+        }
+        return cached == null || !cached.isValidAt(now);
+    }
+
+    private void recordFailure(String city, long now) {
+        failures.compute(city, (key, previous) -> {
+            int attempts = previous == null ? 1 : previous.attempts() + 1;
+            // Doubles per consecutive failure; the shift is bounded so it cannot overflow
+            long backoff = Math.min(maxFailureBackoffMillis, failureBackoffMillis << Math.min(attempts - 1, 20));
+            return new Failure(attempts, now, now + backoff);
+        });
+    }
+
+    private int fetch(String city, BooleanSupplier permit) {
+        City known = cityRegistry.find(city);
+        if (known != null) {
+            return iqAirClient.fetchCityAqi(known, permit);
+        }
+        double[] coordinates = outsideCities.get(city);
+        if (coordinates == null || !permit.getAsBoolean()) {
+            return -1;
+        }
+        return iqAirClient.fetchNearestAqi(city, coordinates[0], coordinates[1]);
+    }
+
+    /** Consecutive failed lookups of one city, and when it may be tried again. */
+    private record Failure(int attempts, long attemptedAtEpochMilli, long retryAtEpochMilli) {
+    }
+
+    /** Immutable AQI per city name as of {@code publishedAtEpochMilli}. */
+    public record Snapshot(Map<String, AqiCacheStore.CachedAqi> values, long publishedAtEpochMilli) {
+
+        public AqiCacheStore.CachedAqi get(String city) {
+            return values.get(city);
+        }
+
+        long ageSeconds(long nowEpochMilli) {
+            return publishedAtEpochMilli == 0 ? -1 : (nowEpochMilli - publishedAtEpochMilli) / 1000;
+        }
+    }
+}
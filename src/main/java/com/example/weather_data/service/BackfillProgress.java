@@ -0,0 +1,8 @@
+package com.example.weather_data.service;
+
+/**
+ * State of the historical backfill. Unit counts come from the checkpoint table; {@code fetched}
+ * and {@code failed} count the units of the current (or last) run only.
+ */
+public record BackfillProgress(boolean running, long pendingUnits, long completedUnits, long fetched, long failed) {
+}
@@ -0,0 +1,145 @@
+package com.example.weather_data.service;
+
+/**
+ * Count-based circuit breaker for one upstream provider. The outcome of the last
+ * {@code windowSize} calls is kept in a ring; once at least {@code minimumCalls} have been
+ * recorded and either the failure rate or the slow-call rate reaches its threshold, the circuit
+ * opens and calls are refused for {@code openMillis}. After that it half-opens and lets
+ * {@code halfOpenCalls} probes through: if they stay under both thresholds it closes again,
+ * otherwise it re-opens for another {@code openMillis}.
+ */
+public class CircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final String provider;
+    private final int minimumCalls;
+    private final double failureRateThreshold;
+    private final double slowCallRateThreshold;
+    private final long slowCallNanos;
+    private final long openMillis;
+    private final int halfOpenCalls;
+
+    // Outcome ring: bit 0 = failed, bit 1 = slow
+    private final byte[] outcomes;
+    private int next;
+    private int recorded;
+    private int failures;
+    private int slowCalls;
+
+    private State state = State.CLOSED;
+    private long openUntilMillis;
+    private int probesStarted;
+    private long notPermitted;
+
+    public CircuitBreaker(String provider, int windowSize, int minimumCalls, double failureRateThreshold,
+                          double slowCallRateThreshold, long slowCallNanos, long openMillis, int halfOpenCalls) {
+        if (windowSize <= 0 || minimumCalls <= 0 || minimumCalls > windowSize || halfOpenCalls <= 0
+                || halfOpenCalls > windowSize) {
+            throw new IllegalArgumentException("Invalid circuit breaker window for " + provider);
+        }
+        this.provider = provider;
+        this.outcomes = new byte[windowSize];
+        this.minimumCalls = minimumCalls;
+        this.failureRateThreshold = failureRateThreshold;
+        this.slowCallRateThreshold = slowCallRateThreshold;
+        this.slowCallNanos = slowCallNanos;
+        this.openMillis = openMillis;
+        this.halfOpenCalls = halfOpenCalls;
+    }
+
+    /**
+     * Whether a call may start now; a permitted call must be followed by {@link #onResult}.
+     * Refused calls are counted as not permitted.
+     */
+    public synchronized boolean tryAcquirePermission(long nowMillis) {
+        if (state == State.OPEN && nowMillis >= openUntilMillis) {
+            transition(State.HALF_OPEN);
+        }
+        switch (state) {
+            case CLOSED:
+                return true;
+            case HALF_OPEN:
+                if (probesStarted < halfOpenCalls) {
+                    probesStarted++;
+                    return true;
+                }
+                break;
+            default:
+                break;
+        }
+        notPermitted++;
+        return false;
+    }
+
+    /** Same decision as {@link #tryAcquirePermission} without taking a permit or counting a refusal. */
+    public synchronized boolean isCallPermitted(long nowMillis) {
+        return switch (state) {
+            case CLOSED -> true;
+            case OPEN -> nowMillis >= openUntilMillis;
+            case HALF_OPEN -> probesStarted < halfOpenCalls;
+        };
+    }
+
+    public synchronized void onResult(boolean failed, long durationNanos, long nowMillis) {
+        if (state == State.OPEN) {
+            // A call that started before the circuit opened; its outcome is already reflected
+            return;
+        }
+        byte outcome = (byte) ((failed ? 1 : 0) | (durationNanos >= slowCallNanos ? 2 : 0));
+        if (recorded == outcomes.length) {
+            byte evicted = outcomes[next];
+            failures -= evicted & 1;
+            slowCalls -= (evicted >> 1) & 1;
+        } else {
+            recorded++;
+        }
+        outcomes[next] = outcome;
+        next = (next + 1) % outcomes.length;
+        failures += outcome & 1;
+        slowCalls += (outcome >> 1) & 1;
+
+        if (state == State.HALF_OPEN) {
+            if (recorded >= halfOpenCalls) {
+                if (overThreshold()) {
+                    open(nowMillis);
+                } else {
+                    transition(State.CLOSED);
+                }
+            }
+        } else if (recorded >= minimumCalls && overThreshold()) {
+            open(nowMillis);
+        }
+    }
+
+    private boolean overThreshold() {
+        return failures >= failureRateThreshold * recorded || slowCalls >= slowCallRateThreshold * recorded;
+    }
+
+    private void open(long nowMillis) {
+        transition(State.OPEN);
+        openUntilMillis = nowMillis + openMillis;
+    }
+
+    // Every transition starts a fresh window, so the half-open verdict only looks at the probes
+    private void transition(State target) {
+        state = target;
+        next = 0;
+        recorded = 0;
+        failures = 0;
+        slowCalls = 0;
+        probesStarted = 0;
+    }
+
+    public synchronized State state() {
+        return state;
+    }
+
+    public synchronized long notPermitted() {
+        return notPermitted;
+    }
+
+    public String provider() {
+        return provider;
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.weather_data.service;
+
+import java.util.List;
+
+/**
+ * A city tracked by the scheduler, as listed in the {@link CityRegistry} file. {@code iqAirNames}
+ * are the names IQAir may list the city under, tried in order; it defaults to the city's name.
+ */
+public record City(String name, long owmId, double lat, double lon, String iqAirState, List<String> aliases,
+                   List<String> iqAirNames) {
+}
@@ -0,0 +1,10 @@
+package com.example.weather_data.service;
+
+import java.time.Instant;
+
+/**
+ * Latest AQI (US EPA scale) published by the AQI pipeline for one city; {@code aqi} and
+ * {@code category} are {@code null} when there is no value younger than {@code weather.aqi.max-age}.
+ */
+public record CityAqi(String city, Integer aqi, String category, Instant fetchedAt) {
+}
@@ -0,0 +1,84 @@
+package com.example.weather_data.service;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Fixed-size pool used to fan the scheduled fetch out across cities.
+ * Deliberately not exposed as an {@code Executor} bean so Spring Boot's
+ * default application task executor stays in place for MVC async work.
+ */
+@Component
+public class CityFetchExecutor implements DisposableBean {
+
+    private final ThreadPoolExecutor pool;
+
+    public CityFetchExecutor(@Value("${weather.fetch.parallelism:8}") int parallelism) {
+        AtomicInteger threadCount = new AtomicInteger();
+        this.pool = new ThreadPoolExecutor(parallelism, parallelism, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+                    Thread thread = new Thread(runnable, "weather-fetch-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.pool.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Runs {@code task} on the pool. The returned future times out {@code timeout} after the task
+     * actually starts, so time spent queued behind other cities does not count against it.
+     * A task whose future is already done (cancelled by the caller) when it is dequeued is skipped.
+     * <p>
+     * When the future times out or is cancelled while the task runs, the worker thread is
+     * interrupted. That ends a task still waiting for a pooled connection or a bulkhead permit at
+     * once; a request already blocked reading the response is not interruptible and holds its
+     * thread until {@code weather.http.response-timeout}, which should stay below
+     * {@code weather.fetch.city-timeout}.
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> task, Duration timeout) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        pool.execute(() -> {
+            if (future.isDone()) {
+                return;
+            }
+            // Guarded by itself; cleared before the worker moves on so a late interrupt cannot leak
+            // into the next task
+            Thread[] runner = {Thread.currentThread()};
+            future.whenComplete((result, error) -> {
+                if (error != null) {
+                    synchronized (runner) {
+                        if (runner[0] != null) {
+                            runner[0].interrupt();
+                        }
+                    }
+                }
+            });
+            future.orTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS);
+            try {
+                future.complete(task.get());
+            } catch (RuntimeException e) {
+                future.completeExceptionally(e);
+            } finally {
+                synchronized (runner) {
+                    runner[0] = null;
+                }
+                Thread.interrupted();
+            }
+        });
+        return future;
+    }
+
+    @Override
+    public void destroy() {
+        pool.shutdownNow();
+    }
+}
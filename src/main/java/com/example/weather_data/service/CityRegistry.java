@@ -0,0 +1,124 @@
+package com.example.weather_data.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+/**
+ * The cities refreshed on every tick, loaded once from a CSV file ({@code weather.cities.file},
+ * the bundled {@code cities.csv} by default) with the columns
+ * {@code name,owm_id,lat,lon,iqair_state,aliases,iqair_names}. Lines starting with {@code #} are
+ * comments, fields are not quoted, and aliases and IQAir names are separated by {@code |}.
+ * <p>
+ * Lookups by name or alias are case-insensitive.
+ */
+@Component
+public class CityRegistry {
+    private static final Logger logger = LoggerFactory.getLogger(CityRegistry.class);
+
+    private final List<City> cities;
+    private final List<String> names;
+    private final Map<String, City> byName = new HashMap<>();
+    private final Map<Long, City> byOwmId = new HashMap<>();
+
+    public CityRegistry(@Value("${weather.cities.file:classpath:cities.csv}") Resource file) {
+        List<City> loaded = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(file.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            int lineNumber = 0;
+            boolean header = true;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank() || line.startsWith("#")) {
+                    continue;
+                }
+                if (header) {
+                    header = false;
+                    continue;
+                }
+                loaded.add(parse(line, lineNumber, file));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read city registry " + file, e);
+        }
+
+        for (City city : loaded) {
+            register(city.name(), city);
+            city.aliases().forEach(alias -> register(alias, city));
+            if (byOwmId.put(city.owmId(), city) != null) {
+                throw new IllegalStateException("Duplicate OpenWeatherMap id " + city.owmId() + " in " + file);
+            }
+        }
+        this.cities = Collections.unmodifiableList(loaded);
+        this.names = loaded.stream().map(City::name).toList();
+        logger.info("Loaded {} cities from {}", cities.size(), file);
+    }
+
+    private static City parse(String line, int lineNumber, Resource file) {
+        String[] fields = line.split(",", -1);
+        if (fields.length < 5) {
+            throw new IllegalStateException("Expected name,owm_id,lat,lon,iqair_state[,aliases[,iqair_names]] at "
+                    + file + ":" + lineNumber);
+        }
+        try {
+            String name = fields[0].trim();
+            String state = fields[4].trim();
+            List<String> iqAirNames = list(fields, 6);
+            return new City(name, Long.parseLong(fields[1].trim()),
+                    Double.parseDouble(fields[2].trim()), Double.parseDouble(fields[3].trim()),
+                    state.isEmpty() ? null : state, list(fields, 5), iqAirNames.isEmpty() ? List.of(name) : iqAirNames);
+        } catch (NumberFormatException e) {
+            throw new IllegalStateException("Invalid number at " + file + ":" + lineNumber, e);
+        }
+    }
+
+    private static List<String> list(String[] fields, int index) {
+        return fields.length > index && !fields[index].isBlank()
+                ? Arrays.stream(fields[index].split("\\|")).map(String::trim).toList()
+                : List.of();
+    }
+
+    private void register(String name, City city) {
+        City previous = byName.putIfAbsent(name.toLowerCase(Locale.ROOT), city);
+        if (previous != null && previous != city) {
+            throw new IllegalStateException("City name " + name + " is used by both " + previous.name() + " and " + city.name());
+        }
+    }
+
+    public List<City> all() {
+        return cities;
+    }
+
+    /** Canonical names of every city, in file order. */
+    public List<String> names() {
+        return names;
+    }
+
+    /** Returns the city with this name or alias, or {@code null} if it is not in the registry. */
+    public City find(String name) {
+        return byName.get(name.trim().toLowerCase(Locale.ROOT));
+    }
+
+    public City findByOwmId(long owmId) {
+        return byOwmId.get(owmId);
+    }
+
+    public int size() {
+        return cities.size();
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.weather_data.service;
+
+import java.time.Instant;
+
+/**
+ * Current conditions for one city as served by the JSON API. Temperatures are Celsius and wind
+ * speeds km/h; optional values are {@code null} when OpenWeatherMap or the AQI pipeline has none.
+ *
+ * @param observedAt when the station reported the reading
+ * @param fetchedAt  when it was fetched from OpenWeatherMap
+ */
+public record CurrentConditions(String city,
+                                double temperature,
+                                double feelsLike,
+                                int humidity,
+                                String condition,
+                                String icon,
+                                Double windSpeed,
+                                String windDirection,
+                                Double windGust,
+                                Integer aqi,
+                                String aqiCategory,
+                                Instant observedAt,
+                                Instant fetchedAt) {
+}
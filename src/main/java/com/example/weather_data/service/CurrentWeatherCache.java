@@ -0,0 +1,170 @@
+package com.example.weather_data.service;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Bounded cache of current conditions keyed by normalized city name, served stale-while-revalidate.
+ * The scheduler fills it on every tick. A reading younger than {@code stale-after} is served as is;
+ * an older one is still served immediately while a single background refresh runs for that city.
+ * Readings older than the hard max age ({@code ttl}) are evicted, so the next request loads
+ * synchronously on its own thread, and concurrent misses for the same city share that one call.
+ * If that load comes back empty (upstream down, circuit open, quota spent) the last reading ever
+ * seen for the city is served instead, however old.
+ */
+@Component
+public class CurrentWeatherCache {
+
+    private final AsyncCache<String, Reading> cache;
+    private final Cache<String, Reading> lastKnown;
+    private final long staleAfterMillis;
+    private final CityFetchExecutor refreshExecutor;
+    private final Duration refreshTimeout;
+    private final Map<String, Boolean> refreshing = new ConcurrentHashMap<>();
+
+    public CurrentWeatherCache(@Value("${weather.cache.current.ttl:PT45M}") Duration ttl,
+                               @Value("${weather.cache.current.stale-after:PT10M}") Duration staleAfter,
+                               @Value("${weather.cache.current.max-size:5000}") long maxSize,
+                               @Value("${weather.fetch.city-timeout:PT15S}") Duration refreshTimeout,
+                               CityFetchExecutor refreshExecutor,
+                               MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .buildAsync();
+        this.lastKnown = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .build();
+        this.staleAfterMillis = staleAfter.toMillis();
+        this.refreshExecutor = refreshExecutor;
+        this.refreshTimeout = refreshTimeout;
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "weather.current");
+    }
+
+    /**
+     * Returns the cached reading for {@code key}, loading it on the calling thread on a miss.
+     * Callers racing on the same key wait for the first caller's load instead of issuing their own.
+     * A stale hit is returned right away and refreshed in the background with the same loader.
+     * A {@code null} result or exception from the loader is not cached; the last known reading,
+     * if any, is returned in its place.
+     */
+    public Reading get(String key, Function<String, WeatherResponse> loader) {
+        CompletableFuture<Reading> pending = new CompletableFuture<>();
+        CompletableFuture<Reading> future = cache.get(key, (k, executor) -> pending);
+        if (future == pending) {
+            try {
+                WeatherResponse response = loader.apply(key);
+                Reading loaded = response != null ? new Reading(response, System.currentTimeMillis()) : null;
+                if (loaded != null) {
+                    lastKnown.put(key, loaded);
+                }
+                pending.complete(loaded);
+            } catch (RuntimeException e) {
+                pending.completeExceptionally(e);
+            }
+        }
+        Reading reading;
+        try {
+            reading = future.join();
+        } catch (CompletionException e) {
+            reading = null;
+        }
+        if (reading == null) {
+            // Failed loads are dropped by Caffeine, so the next request tries upstream again
+            return lastKnown.getIfPresent(key);
+        }
+        if (reading.ageMillis(System.currentTimeMillis()) > staleAfterMillis) {
+            refreshInBackground(key, loader);
+        }
+        return reading;
+    }
+
+    private void refreshInBackground(String key, Function<String, WeatherResponse> loader) {
+        if (refreshing.putIfAbsent(key, Boolean.TRUE) != null) {
+            return;
+        }
+        refreshExecutor.submit(() -> loader.apply(key), refreshTimeout)
+                .whenComplete((response, error) -> {
+                    put(key, response);
+                    refreshing.remove(key);
+                });
+    }
+
+    /**
+     * Returns the cached reading for {@code key} without loading or refreshing it, or {@code null}
+     * if there is none (or its load is still in flight).
+     */
+    public Reading peek(String key) {
+        CompletableFuture<Reading> future = cache.getIfPresent(key);
+        return future != null && future.isDone() && !future.isCompletedExceptionally() ? future.join() : null;
+    }
+
+    public void put(String key, WeatherResponse response) {
+        if (response != null) {
+            Reading reading = new Reading(response, System.currentTimeMillis());
+            cache.put(key, CompletableFuture.completedFuture(reading));
+            lastKnown.put(key, reading);
+        }
+    }
+
+    public void invalidate(String key) {
+        cache.synchronous().invalidate(key);
+        lastKnown.invalidate(key);
+    }
+
+    public CacheStats stats() {
+        return cache.synchronous().stats();
+    }
+
+    /**
+     * A cached response and when it was fetched from OpenWeatherMap. The page view of the reading is
+     * computed on first use and kept with it, so every request for the same reading shares it.
+     */
+    public static final class Reading {
+        private final WeatherResponse response;
+        private final long fetchedAtEpochMilli;
+        private volatile CurrentWeatherView view;
+
+        public Reading(WeatherResponse response, long fetchedAtEpochMilli) {
+            this.response = response;
+            this.fetchedAtEpochMilli = fetchedAtEpochMilli;
+        }
+
+        public WeatherResponse response() {
+            return response;
+        }
+
+        public long fetchedAtEpochMilli() {
+            return fetchedAtEpochMilli;
+        }
+
+        public long ageMillis(long nowEpochMilli) {
+            return Math.max(0, nowEpochMilli - fetchedAtEpochMilli);
+        }
+
+        // Racing first requests may each build a view; they are equal, and the last one wins
+        CurrentWeatherView view() {
+            return view;
+        }
+
+        void setView(CurrentWeatherView view) {
+            this.view = view;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.weather_data.service;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * What the current-weather page shows for one reading, with every number already formatted.
+ * Built once per cached reading and shared by every request for it; only the AQI, which the
+ * pipeline refreshes on its own schedule, is swapped in with {@link #withAqi}.
+ *
+ * @param lastUpdated         when the station reported the reading, or {@code null} without one
+ * @param fetchedAtEpochMilli when the reading was fetched from OpenWeatherMap, or -1 without one
+ */
+public record CurrentWeatherView(String temperature,
+                                 String feelsLike,
+                                 String weatherCondition,
+                                 String weatherIcon,
+                                 String windSpeed,
+                                 String windDirection,
+                                 String windGusts,
+                                 int aqi,
+                                 String aqiCategory,
+                                 LocalDateTime lastUpdated,
+                                 long fetchedAtEpochMilli) {
+
+    /** Shown when there is no reading for the city. */
+    public static final CurrentWeatherView UNAVAILABLE = new CurrentWeatherView(
+            "N/A", "N/A", "N/A", null, "N/A", "N/A", null, -1, "N/A", null, -1);
+
+    public boolean isAvailable() {
+        return fetchedAtEpochMilli >= 0;
+    }
+
+    CurrentWeatherView withAqi(int aqi, String aqiCategory) {
+        if (aqi == this.aqi) {
+            return this;
+        }
+        return new CurrentWeatherView(temperature, feelsLike, weatherCondition, weatherIcon, windSpeed, windDirection,
+                windGusts, aqi, aqiCategory, lastUpdated, fetchedAtEpochMilli);
+    }
+
+    /** How long ago the reading was fetched, e.g. "12 min"; computed per call since it changes. */
+    public String getDataAge() {
+        if (!isAvailable()) {
+            return "N/A";
+        }
+        long minutes = TimeUnit.MILLISECONDS.toMinutes(Math.max(0, System.currentTimeMillis() - fetchedAtEpochMilli));
+        if (minutes < 1) return "less than a minute";
+        if (minutes < 60) return minutes + " min";
+        return (minutes / 60) + " h " + (minutes % 60) + " min";
+    }
+}
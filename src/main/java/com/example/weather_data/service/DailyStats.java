@@ -0,0 +1,24 @@
+package com.example.weather_data.service;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Summary of one day across all cities, with the per-city summaries it was computed from.
+ * Temperatures are Celsius; the aggregates are {@code null} for a day without data.
+ *
+ * @param averageTemp mean of the per-city daily averages
+ */
+public record DailyStats(LocalDate date,
+                         Double averageTemp,
+                         Double maxTemp,
+                         Double minTemp,
+                         String dominantCondition,
+                         int dominantConditionReadings,
+                         int readings,
+                         List<CitySummary> cities) {
+
+    public record CitySummary(String city, double averageTemp, double maxTemp, double minTemp,
+                              int humidity, String dominantCondition, int readings) {
+    }
+}
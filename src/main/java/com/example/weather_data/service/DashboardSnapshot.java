@@ -0,0 +1,43 @@
+package com.example.weather_data.service;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Everything the dashboard pages render, built once per scheduler tick from data already in memory
+ * (cached readings, the AQI snapshot and the active alerts). Instances are immutable;
+ * {@code version} only increases when the content differs from the previous snapshot, so it
+ * doubles as the pages' {@code ETag}.
+ *
+ * @param stats  per-city current conditions, as shown on {@code /weather/stats}
+ * @param today  per-city temperature, humidity and AQI, as charted on {@code /weather/trends}
+ * @param alerts alerts that were active when the snapshot was built, oldest first
+ */
+public record DashboardSnapshot(long version,
+                                long builtAtEpochMilli,
+                                LocalDate date,
+                                Map<String, Map<String, Object>> stats,
+                                Map<String, Map<String, Double>> today,
+                                List<WeatherAlert> alerts) {
+
+    public DashboardSnapshot {
+        stats = Map.copyOf(stats);
+        today = Map.copyOf(today);
+        alerts = List.copyOf(alerts);
+    }
+
+    public String etag() {
+        return "\"" + version + "\"";
+    }
+
+    /** Whether {@code other} would render the same pages, ignoring version and build time. */
+    public boolean sameContentAs(DashboardSnapshot other) {
+        return other != null
+                && Objects.equals(date, other.date)
+                && stats.equals(other.stats)
+                && today.equals(other.today)
+                && alerts.equals(other.alerts);
+    }
+}
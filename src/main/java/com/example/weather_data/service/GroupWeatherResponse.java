@@ -0,0 +1,18 @@
+package com.example.weather_data.service;
+
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+/** Body of OpenWeatherMap's {@code /data/2.5/group?id=...}: current conditions for several city ids. */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class GroupWeatherResponse {
+    private int cnt;
+    private List<WeatherResponse> list;
+
+    public int getCnt() { return cnt; }
+    public void setCnt(int cnt) { this.cnt = cnt; }
+
+    public List<WeatherResponse> getList() { return list; }
+    public void setList(List<WeatherResponse> list) { this.list = list; }
+}
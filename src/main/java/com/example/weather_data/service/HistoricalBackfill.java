@@ -0,0 +1,357 @@
+package com.example.weather_data.service;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.client.RequestCallback;
+import org.springframework.web.client.RestTemplate;
+
+import com.example.weather_data.entity.BackfillUnit;
+import com.example.weather_data.entity.RollupGranularity;
+import com.example.weather_data.entity.WeatherCondition;
+import com.example.weather_data.repository.BackfillUnitRepository;
+import com.example.weather_data.repository.DailySummaryDelta;
+import com.example.weather_data.repository.DailyWeatherSummaryRepository;
+import com.example.weather_data.repository.DailyWeatherSummaryRepositoryCustom.DailyReading;
+import com.example.weather_data.repository.MergeRetry;
+import com.example.weather_data.repository.RollupDelta;
+import com.example.weather_data.repository.WeatherRollupRepository;
+import com.example.weather_data.repository.WeatherRollupRepositoryCustom.RollupReading;
+
+/**
+ * Fills past days into the daily summaries and rollups from OpenWeatherMap's
+ * {@code onecall/timemachine} endpoint. A request is split into one {@link BackfillUnit} per city
+ * and day, persisted as pending; a coordinator thread then hands the pending units to
+ * {@code weather.backfill.concurrency} workers, taking a token from the {@code owm-history} quota
+ * before each call and waiting while the budget is spent. Fetched days are written in JDBC
+ * batches of {@code weather.backfill.batch-size} units, and each batch marks its units completed
+ * in the same transaction, so a restart resumes with exactly the units that were not stored.
+ * <p>
+ * The 2.5 endpoint answers with the hourly readings of the UTC day that contains {@code dt}, so a
+ * local day outside UTC takes one call for each UTC day it overlaps. A unit is only completed once
+ * every hour of its local day came back; a partial day is counted as failed and stored nothing.
+ * <p>
+ * Days that already have a summary are completed without a call, so live readings are never
+ * mixed with history. Units that fail stay pending for the next run; an open circuit ends the
+ * run early.
+ */
+@Component
+public class HistoricalBackfill implements DisposableBean {
+    private static final Logger logger = LoggerFactory.getLogger(HistoricalBackfill.class);
+
+    private static final String TIMEMACHINE_URL = "/data/2.5/onecall/timemachine?lat={lat}&lon={lon}&dt={timestamp}&appid={apiKey}";
+    private static final RequestCallback ACCEPT_JSON = request -> request.getHeaders().setAccept(List.of(MediaType.APPLICATION_JSON));
+
+    private static final int PAGE_SIZE = 500;
+    private static final long BUDGET_POLL_MILLIS = 200;
+
+    private final RestTemplate restTemplate;
+    private final CityRegistry cityRegistry;
+    private final BackfillUnitRepository units;
+    private final DailyWeatherSummaryRepository summaries;
+    private final WeatherRollupRepository rollups;
+    private final ProviderQuota quota;
+    private final UpstreamGuard guard;
+    private final TransactionTemplate transactionTemplate;
+    private final String apiKey;
+    private final String owmBaseUrl;
+    private final int concurrency;
+    private final int batchSize;
+    private final boolean resumeOnStartup;
+    private final ZoneId zone = ZoneId.systemDefault();
+
+    private final ExecutorService coordinator;
+    private final ExecutorService workers;
+    private final AtomicBoolean stopping = new AtomicBoolean();
+    private final AtomicLong fetched = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private CompletableFuture<BackfillProgress> run;
+
+    public HistoricalBackfill(RestTemplate restTemplate, CityRegistry cityRegistry, BackfillUnitRepository units,
+                              DailyWeatherSummaryRepository summaries, WeatherRollupRepository rollups,
+                              UpstreamQuotas upstreamQuotas, UpstreamGuards upstreamGuards,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${OPENWEATHERMAP_API_KEY:API_KEY_NOT_SET}") String apiKey,
+                              @Value("${weather.owm.base-url:https://api.openweathermap.org}") String owmBaseUrl,
+                              @Value("${weather.backfill.concurrency:4}") int concurrency,
+                              @Value("${weather.backfill.batch-size:50}") int batchSize,
+                              @Value("${weather.backfill.resume-on-startup:true}") boolean resumeOnStartup) {
+        // A worker the bulkhead turns away counts as upstream trouble and would end the run
+        if (concurrency > upstreamGuards.owmHistory().maxConcurrent()) {
+            throw new IllegalArgumentException("weather.backfill.concurrency (" + concurrency
+                    + ") must not exceed weather.bulkhead.owm-history.max-concurrent ("
+                    + upstreamGuards.owmHistory().maxConcurrent() + ")");
+        }
+        this.restTemplate = restTemplate;
+        this.cityRegistry = cityRegistry;
+        this.units = units;
+        this.summaries = summaries;
+        this.rollups = rollups;
+        this.quota = upstreamQuotas.owmHistory();
+        this.guard = upstreamGuards.owmHistory();
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.apiKey = apiKey;
+        this.owmBaseUrl = owmBaseUrl;
+        this.concurrency = concurrency;
+        this.batchSize = batchSize;
+        this.resumeOnStartup = resumeOnStartup;
+        this.coordinator = Executors.newSingleThreadExecutor(daemon("weather-backfill"));
+        AtomicInteger threadCount = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(concurrency,
+                runnable -> daemon("weather-backfill-" + threadCount.incrementAndGet()).newThread(runnable));
+    }
+
+    /**
+     * Queues every day from {@code start} to {@code end} for {@code cities} (all tracked cities when
+     * empty) and starts a run unless one is already going, which then picks the new units up.
+     */
+    public CompletableFuture<BackfillProgress> start(Collection<String> cities, LocalDate start, LocalDate end) {
+        if (end.isBefore(start)) {
+            throw new IllegalArgumentException("endDate must not be before startDate");
+        }
+        if (!end.isBefore(LocalDate.now(zone))) {
+            throw new IllegalArgumentException("Backfill covers past days only; endDate must be before today");
+        }
+        List<String> names = new ArrayList<>();
+        for (String name : cities.isEmpty() ? cityRegistry.names() : cities) {
+            City city = cityRegistry.find(name);
+            if (city == null) {
+                throw new IllegalArgumentException("Unknown city: " + name);
+            }
+            names.add(city.name());
+        }
+        int created = units.enqueue(names, start, end);
+        logger.info("Queued {} backfill units for {} cities from {} to {}", created, names.size(), start, end);
+        return resume();
+    }
+
+    /**
+     * Starts a run over the pending units. While a run is going, another pass is chained after it
+     * instead, so units queued after the run read its last page are not left behind.
+     */
+    public synchronized CompletableFuture<BackfillProgress> resume() {
+        if (run == null || run.isDone()) {
+            fetched.set(0);
+            failed.set(0);
+            run = CompletableFuture.supplyAsync(this::runPending, coordinator);
+        } else {
+            run = run.handleAsync((previous, error) -> runPending(), coordinator);
+        }
+        return run;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeOnStartup() {
+        if (resumeOnStartup && units.countByCompleted(false) > 0) {
+            logger.info("Resuming historical backfill");
+            resume();
+        }
+    }
+
+    public BackfillProgress progress() {
+        boolean running;
+        synchronized (this) {
+            running = run != null && !run.isDone();
+        }
+        return new BackfillProgress(running, units.countByCompleted(false), units.countByCompleted(true),
+                fetched.get(), failed.get());
+    }
+
+    private BackfillProgress runPending() {
+        Semaphore slots = new Semaphore(concurrency);
+        BlockingQueue<FetchedDay> fetchedDays = new LinkedBlockingQueue<>();
+        AtomicBoolean upstreamDown = new AtomicBoolean();
+        List<FetchedDay> batch = new ArrayList<>(batchSize);
+        long afterId = 0;
+        try {
+            pages:
+            while (!stopping.get()) {
+                List<BackfillUnit> page = units.findPendingAfter(afterId, PageRequest.of(0, PAGE_SIZE));
+                if (page.isEmpty()) {
+                    break;
+                }
+                for (BackfillUnit unit : page) {
+                    afterId = unit.getId();
+                    City city = cityRegistry.find(unit.getCity());
+                    if (city == null || summaries.findByCityAndDate(unit.getCity(), unit.getDate()).isPresent()) {
+                        fetchedDays.add(new FetchedDay(unit, null, List.of()));
+                    } else {
+                        List<Long> timestamps = requestTimestamps(unit.getDate());
+                        for (int call = 0; call < timestamps.size(); call++) {
+                            if (!awaitBudget(fetchedDays, batch) || upstreamDown.get()) {
+                                break pages;
+                            }
+                        }
+                        slots.acquire();
+                        workers.execute(() -> {
+                            try {
+                                fetchedDays.add(fetch(unit, city, timestamps));
+                                fetched.incrementAndGet();
+                            } catch (UpstreamUnavailableException e) {
+                                upstreamDown.set(true);
+                                failed.incrementAndGet();
+                            } catch (RuntimeException e) {
+                                logger.warn("Backfill of {} on {} failed: {}", unit.getCity(), unit.getDate(), e.getMessage());
+                                failed.incrementAndGet();
+                            } finally {
+                                slots.release();
+                            }
+                        });
+                    }
+                    store(fetchedDays, batch, false);
+                }
+            }
+            slots.acquire(concurrency);
+            slots.release(concurrency);
+            store(fetchedDays, batch, true);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (upstreamDown.get()) {
+            logger.warn("OpenWeatherMap is unavailable; backfill paused with units pending");
+        }
+        BackfillProgress progress = progress();
+        logger.info("Backfill run finished: {} days fetched, {} failed, {} units pending",
+                progress.fetched(), progress.failed(), progress.pendingUnits());
+        return progress;
+    }
+
+    // Waits for a history token, storing finished days meanwhile; false once shutting down
+    private boolean awaitBudget(BlockingQueue<FetchedDay> fetchedDays, List<FetchedDay> batch) throws InterruptedException {
+        while (quota.headroom(System.currentTimeMillis()) < 1 || !quota.tryAcquire(System.currentTimeMillis())) {
+            if (stopping.get()) {
+                return false;
+            }
+            store(fetchedDays, batch, false);
+            Thread.sleep(BUDGET_POLL_MILLIS);
+        }
+        return !stopping.get();
+    }
+
+    // Noon UTC of every UTC day the unit's local day overlaps; one timemachine call each
+    private List<Long> requestTimestamps(LocalDate date) {
+        LocalDate first = LocalDate.ofInstant(date.atStartOfDay(zone).toInstant(), ZoneOffset.UTC);
+        LocalDate last = LocalDate.ofInstant(date.plusDays(1).atStartOfDay(zone).toInstant().minusSeconds(1), ZoneOffset.UTC);
+        List<Long> timestamps = new ArrayList<>(2);
+        for (LocalDate utcDay = first; !utcDay.isAfter(last); utcDay = utcDay.plusDays(1)) {
+            timestamps.add(utcDay.atTime(12, 0).toEpochSecond(ZoneOffset.UTC));
+        }
+        return timestamps;
+    }
+
+    private FetchedDay fetch(BackfillUnit unit, City city, List<Long> timestamps) {
+        long dayStart = unit.getDate().atStartOfDay(zone).toEpochSecond();
+        long dayEnd = unit.getDate().plusDays(1).atStartOfDay(zone).toEpochSecond();
+        Map<Long, WeatherResponse> hours = new TreeMap<>();
+        for (long timestamp : timestamps) {
+            List<WeatherResponse> response = guard.call(() -> restTemplate.execute(owmBaseUrl + TIMEMACHINE_URL,
+                    HttpMethod.GET, ACCEPT_JSON, body -> OwmResponseParser.parseTimemachine(body.getBody()),
+                    Map.of("lat", city.lat(), "lon", city.lon(), "timestamp", timestamp, "apiKey", apiKey)));
+            for (WeatherResponse hour : response != null ? response : List.<WeatherResponse>of()) {
+                if (hour.getDt() >= dayStart && hour.getDt() < dayEnd && hour.getMain() != null) {
+                    hours.putIfAbsent(hour.getDt(), hour);
+                }
+            }
+        }
+        // Readings are on the UTC hour: 24 of them in most local days, 23 or 25 across a DST change
+        long expected = Math.floorDiv(dayEnd - 1, 3600) - Math.floorDiv(dayStart - 1, 3600);
+        if (hours.size() < expected) {
+            throw new IllegalStateException("only " + hours.size() + " of " + expected + " hours returned");
+        }
+
+        DailySummaryDelta summary = new DailySummaryDelta(new DailySummaryDelta.Key(city.name(), unit.getDate()));
+        List<RollupReading> readings = new ArrayList<>(hours.size());
+        for (WeatherResponse hour : hours.values()) {
+            double temp = hour.getMain().getTemp() - 273.15;
+            int humidity = hour.getMain().getHumidity();
+            String condition = hour.getWeather() != null && !hour.getWeather().isEmpty()
+                    ? hour.getWeather().get(0).getMain() : null;
+            summary.add(new DailyReading(city.name(), unit.getDate(), temp, humidity, WeatherCondition.fromOwm(condition)));
+            readings.add(new RollupReading(city.name(), hour.getDt(), temp, humidity, -1));
+        }
+        return new FetchedDay(unit, summary, readings);
+    }
+
+    // Writes the queued days once a batch is full (or on force), checkpointing their units in the same transaction
+    private void store(BlockingQueue<FetchedDay> fetchedDays, List<FetchedDay> batch, boolean force) {
+        fetchedDays.drainTo(batch);
+        if (batch.isEmpty() || (!force && batch.size() < batchSize)) {
+            return;
+        }
+        List<DailySummaryDelta> summaryDeltas = new ArrayList<>(batch.size());
+        Map<RollupDelta.Key, RollupDelta> rollupDeltas = new LinkedHashMap<>();
+        Map<Long, Integer> completed = new LinkedHashMap<>();
+        for (FetchedDay day : batch) {
+            completed.put(day.unit().getId(), day.readings().size());
+            if (day.summary() != null) {
+                summaryDeltas.add(day.summary());
+            }
+            for (RollupReading reading : day.readings()) {
+                for (RollupGranularity granularity : RollupGranularity.values()) {
+                    RollupDelta.Key key = new RollupDelta.Key(granularity, reading.city(),
+                            granularity.bucketStart(reading.epochSecond(), zone));
+                    rollupDeltas.computeIfAbsent(key, RollupDelta::new).add(reading);
+                }
+            }
+        }
+        try {
+            // A lost insert race fails the whole batch transaction, so the batch is what gets retried
+            MergeRetry.inTransaction(transactionTemplate, () -> {
+                summaries.mergeDeltas(summaryDeltas);
+                rollups.mergeDeltas(rollupDeltas.values());
+                units.markCompleted(completed);
+            });
+        } catch (RuntimeException e) {
+            // The units stay pending and are fetched again by the next run
+            logger.warn("Could not store {} backfilled days: {}", batch.size(), e.getMessage());
+            failed.addAndGet(batch.size());
+        }
+        batch.clear();
+    }
+
+    private static ThreadFactory daemon(String name) {
+        return runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    @Override
+    public void destroy() {
+        stopping.set(true);
+        coordinator.shutdownNow();
+        workers.shutdownNow();
+    }
+
+    private record FetchedDay(BackfillUnit unit, DailySummaryDelta summary, List<RollupReading> readings) {}
+}
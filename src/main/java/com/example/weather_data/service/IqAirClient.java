@@ -0,0 +1,91 @@
+package com.example.weather_data.service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * Reads the current US AQI from IQAir. Only {@link AqiPipeline} calls it, so every request here is
+ * made off the request threads and within the IQAir quota.
+ */
+@Component
+public class IqAirClient {
+    private static final Logger logger = LoggerFactory.getLogger(IqAirClient.class);
+
+    private final String cityUrl = "/v2/city?city={city}&state={state}&country=India&key={apiKey}";
+    private final String nearestCityUrl = "/v2/nearest_city?lat={lat}&lon={lon}&key={apiKey}";
+
+    private final RestTemplate restTemplate;
+    private final UpstreamGuard guard;
+    private final String iqAirKey;
+    private final String baseUrl;
+
+    public IqAirClient(RestTemplate restTemplate,
+                       UpstreamGuards upstreamGuards,
+                       @Value("${IQAIR_API_KEY}") String iqAirKey,
+                       @Value("${weather.iqair.base-url:http://api.airvisual.com}") String baseUrl) {
+        this.restTemplate = restTemplate;
+        this.guard = upstreamGuards.iqAir();
+        this.iqAirKey = iqAirKey;
+        this.baseUrl = baseUrl;
+    }
+
+    /**
+     * AQI for a registry city, trying each of its IQAir names in turn (IQAir lists some cities under
+     * another name, e.g. "Hyderabad City"). Each request first takes a {@code permit}; without one
+     * the lookup stops. Returns -1 if none of the names answered.
+     */
+    public int fetchCityAqi(City city, BooleanSupplier permit) {
+        for (String name : city.iqAirNames()) {
+            if (!permit.getAsBoolean()) {
+                return -1;
+            }
+            logger.debug("Fetching AQI data for {}, {}", name, city.iqAirState());
+            try {
+                IqAirResponseParser.Result result = fetch(cityUrl,
+                        Map.of("city", name, "state", city.iqAirState(), "apiKey", iqAirKey));
+                if (result != null && result.isSuccess()) {
+                    logger.debug("Retrieved AQI value {} for {}", result.aqi(), name);
+                    return result.aqi();
+                }
+                logger.error("Failed to get AQI data for {}: status {}, message {}", name,
+                        result != null ? result.status() : null, result != null ? result.message() : null);
+            } catch (Exception e) {
+                logger.error("Error fetching AQI data for {}: {}", name, e.getMessage());
+            }
+        }
+        return -1;
+    }
+
+    /** AQI of the IQAir station nearest to the given coordinates, for cities outside the registry. */
+    public int fetchNearestAqi(String city, double lat, double lon) {
+        try {
+            IqAirResponseParser.Result result = fetch(nearestCityUrl,
+                    Map.of("lat", String.format("%.4f", lat), "lon", String.format("%.4f", lon), "apiKey", iqAirKey));
+            if (result == null || !result.isSuccess()) {
+                return -1;
+            }
+            logger.debug("Retrieved AQI value {} for custom city {} using coordinates", result.aqi(), city);
+            return result.aqi();
+        } catch (Exception e) {
+            logger.error("Error fetching AQI data for custom city {} using coordinates: {}", city, e.getMessage());
+            return -1;
+        }
+    }
+
+    // The body is streamed straight into the parser; nothing but status, AQI and message is decoded
+    private IqAirResponseParser.Result fetch(String path, Map<String, ?> uriVariables) {
+        return guard.call(() -> restTemplate.execute(baseUrl + path, HttpMethod.GET,
+                request -> request.getHeaders().setAccept(List.of(MediaType.APPLICATION_JSON)),
+                response -> IqAirResponseParser.parse(response.getBody()),
+                uriVariables));
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.weather_data.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+/**
+ * Pulls {@code status} and {@code data.current.pollution.aqius} (or the failure
+ * {@code data.message}) out of an IQAir city response with a streaming {@link JsonParser}.
+ * Every other subtree is skipped without being materialised, and parsing stops as soon as
+ * both values are known.
+ */
+public final class IqAirResponseParser {
+
+    private static final JsonFactory JSON = new JsonFactory();
+
+    private IqAirResponseParser() {
+    }
+
+    /** {@code aqi} is -1 unless the status is {@code success} and an {@code aqius} was present. */
+    public record Result(String status, int aqi, String message) {
+        public boolean isSuccess() {
+            return "success".equals(status) && aqi >= 0;
+        }
+    }
+
+    public static Result parse(InputStream body) throws IOException {
+        try (JsonParser parser = JSON.createParser(body)) {
+            return parse(parser);
+        }
+    }
+
+    public static Result parse(byte[] body) throws IOException {
+        try (JsonParser parser = JSON.createParser(body)) {
+            return parse(parser);
+        }
+    }
+
+    private static Result parse(JsonParser parser) throws IOException {
+        String status = null;
+        int aqi = -1;
+        String message = null;
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            return new Result(null, -1, null);
+        }
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if ("status".equals(field)) {
+                status = parser.getValueAsString();
+            } else if ("data".equals(field) && value == JsonToken.START_OBJECT) {
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String dataField = parser.currentName();
+                    JsonToken dataValue = parser.nextToken();
+                    if ("current".equals(dataField) && dataValue == JsonToken.START_OBJECT) {
+                        aqi = readCurrentAqi(parser);
+                    } else if ("message".equals(dataField)) {
+                        message = parser.getValueAsString();
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+            } else {
+                parser.skipChildren();
+            }
+            if (status != null && (aqi >= 0 || message != null)) {
+                break;
+            }
+        }
+        return new Result(status, aqi, message);
+    }
+
+    // Positioned on the START_OBJECT of "current"; returns with the parser on its END_OBJECT
+    private static int readCurrentAqi(JsonParser parser) throws IOException {
+        int aqi = -1;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if ("pollution".equals(field) && value == JsonToken.START_OBJECT) {
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String pollutionField = parser.currentName();
+                    JsonToken pollutionValue = parser.nextToken();
+                    if ("aqius".equals(pollutionField) && pollutionValue.isNumeric()) {
+                        aqi = parser.getValueAsInt();
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return aqi;
+    }
+}
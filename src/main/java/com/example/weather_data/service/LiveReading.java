@@ -0,0 +1,8 @@
+package com.example.weather_data.service;
+
+/**
+ * A fresh reading as pushed to stream subscribers. Temperatures are Celsius, wind speed m/s.
+ */
+public record LiveReading(String city, long epochSecond, double temperature, double feelsLike,
+                          int humidity, double windSpeed) {
+}
@@ -0,0 +1,66 @@
+package com.example.weather_data.service;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.example.weather_data.storage.ObservationArchive;
+import com.example.weather_data.storage.ObservationLog;
+import com.example.weather_data.storage.ObservationSeries;
+
+/**
+ * Seals every completed local day of each city's observation log into one
+ * {@link ObservationArchive} block, picking up after the last day already sealed for the city,
+ * then drops the log segments the archive now fully covers.
+ */
+@Component
+public class ObservationArchiver {
+    private static final Logger logger = LoggerFactory.getLogger(ObservationArchiver.class);
+
+    private final ObservationLog observationLog;
+    private final ObservationArchive archive;
+    private final ZoneId zone = ZoneId.systemDefault();
+
+    public ObservationArchiver(ObservationLog observationLog, ObservationArchive archive) {
+        this.observationLog = observationLog;
+        this.archive = archive;
+    }
+
+    /** Returns the number of blocks sealed. */
+    @Scheduled(fixedDelayString = "${weather.archive.seal-interval:3600000}")
+    public int sealCompletedDays() {
+        long today = LocalDate.now(zone).atStartOfDay(zone).toEpochSecond();
+        int sealed = 0;
+        for (String city : observationLog.cities()) {
+            long after = archive.lastSealedEpochSecond(city);
+            if (after >= today - 1) {
+                continue;
+            }
+            ObservationSeries pending = observationLog.range(city, after + 1, today - 1);
+            long[] epochSeconds = pending.epochSeconds();
+            int dayStart = 0;
+            while (dayStart < epochSeconds.length) {
+                long nextDay = LocalDate.ofInstant(Instant.ofEpochSecond(epochSeconds[dayStart]), zone)
+                        .plusDays(1).atStartOfDay(zone).toEpochSecond();
+                int dayEnd = dayStart;
+                while (dayEnd < epochSeconds.length && epochSeconds[dayEnd] < nextDay) {
+                    dayEnd++;
+                }
+                if (archive.seal(city, pending.slice(dayStart, dayEnd))) {
+                    sealed++;
+                }
+                dayStart = dayEnd;
+            }
+        }
+        if (sealed > 0) {
+            logger.info("Sealed {} city-days into the observation archive", sealed);
+        }
+        observationLog.dropSealedSegments(archive::lastSealedEpochSecond);
+        return sealed;
+    }
+}
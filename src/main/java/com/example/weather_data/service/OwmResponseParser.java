@@ -0,0 +1,221 @@
+package com.example.weather_data.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+/**
+ * Streams OpenWeatherMap current-weather bodies (single and {@code /group}) and
+ * {@code onecall/timemachine} history into {@link WeatherResponse} without going through data
+ * binding. Only the fields the application reads are decoded; {@code sys}, {@code clouds}, the
+ * pressure fields and anything OpenWeatherMap adds later are skipped token by token.
+ */
+public final class OwmResponseParser {
+
+    private static final JsonFactory JSON = new JsonFactory();
+
+    private OwmResponseParser() {
+    }
+
+    public static WeatherResponse parseCurrent(InputStream body) throws IOException {
+        try (JsonParser parser = JSON.createParser(body)) {
+            return parser.nextToken() == JsonToken.START_OBJECT ? readResponse(parser) : null;
+        }
+    }
+
+    public static WeatherResponse parseCurrent(byte[] body) throws IOException {
+        try (JsonParser parser = JSON.createParser(body)) {
+            return parser.nextToken() == JsonToken.START_OBJECT ? readResponse(parser) : null;
+        }
+    }
+
+    public static GroupWeatherResponse parseGroup(InputStream body) throws IOException {
+        try (JsonParser parser = JSON.createParser(body)) {
+            return parser.nextToken() == JsonToken.START_OBJECT ? readGroup(parser) : null;
+        }
+    }
+
+    public static GroupWeatherResponse parseGroup(byte[] body) throws IOException {
+        try (JsonParser parser = JSON.createParser(body)) {
+            return parser.nextToken() == JsonToken.START_OBJECT ? readGroup(parser) : null;
+        }
+    }
+
+    /**
+     * Reads the {@code hourly} array of a 2.5 {@code onecall/timemachine} body. Each entry becomes a
+     * response with {@code dt}, {@code main}, {@code wind} and {@code weather} filled in;
+     * {@code name} is left unset. The 3.0 API's {@code data} array holds only the single reading
+     * at {@code dt} and is not read.
+     */
+    public static List<WeatherResponse> parseTimemachine(InputStream body) throws IOException {
+        List<WeatherResponse> hours = new ArrayList<>(24);
+        try (JsonParser parser = JSON.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return hours;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if ("hourly".equals(field) && value == JsonToken.START_ARRAY) {
+                    while (parser.nextToken() == JsonToken.START_OBJECT) {
+                        hours.add(readHour(parser));
+                    }
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+        return hours;
+    }
+
+    // One Call entries are flat: temperatures, humidity and wind sit beside dt instead of in main/wind
+    private static WeatherResponse readHour(JsonParser parser) throws IOException {
+        WeatherResponse response = new WeatherResponse();
+        WeatherResponse.Main main = new WeatherResponse.Main();
+        WeatherResponse.Wind wind = new WeatherResponse.Wind();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if (value == JsonToken.START_ARRAY && "weather".equals(field)) {
+                List<WeatherResponse.WeatherData> weather = new ArrayList<>(1);
+                while (parser.nextToken() == JsonToken.START_OBJECT) {
+                    weather.add(readWeatherData(parser));
+                }
+                response.setWeather(weather);
+                continue;
+            }
+            switch (field) {
+                case "dt" -> response.setDt(parser.getValueAsLong());
+                case "temp" -> main.setTemp(parser.getValueAsDouble());
+                case "feels_like" -> main.setFeels_like(parser.getValueAsDouble());
+                case "humidity" -> main.setHumidity(parser.getValueAsInt());
+                case "wind_speed" -> wind.setSpeed(parser.getValueAsDouble());
+                case "wind_deg" -> wind.setDeg(parser.getValueAsDouble());
+                case "wind_gust" -> wind.setGust(value == JsonToken.VALUE_NULL ? null : parser.getValueAsDouble());
+                default -> parser.skipChildren();
+            }
+        }
+        response.setMain(main);
+        response.setWind(wind);
+        return response;
+    }
+
+    private static GroupWeatherResponse readGroup(JsonParser parser) throws IOException {
+        GroupWeatherResponse group = new GroupWeatherResponse();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if ("cnt".equals(field)) {
+                group.setCnt(parser.getValueAsInt());
+            } else if ("list".equals(field) && value == JsonToken.START_ARRAY) {
+                List<WeatherResponse> list = new ArrayList<>(Math.max(group.getCnt(), 1));
+                while (parser.nextToken() == JsonToken.START_OBJECT) {
+                    list.add(readResponse(parser));
+                }
+                group.setList(list);
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return group;
+    }
+
+    // Positioned on the response's START_OBJECT; returns with the parser on its END_OBJECT
+    private static WeatherResponse readResponse(JsonParser parser) throws IOException {
+        WeatherResponse response = new WeatherResponse();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if (value == JsonToken.START_OBJECT) {
+                switch (field) {
+                    case "main" -> response.setMain(readMain(parser));
+                    case "wind" -> response.setWind(readWind(parser));
+                    case "coord" -> response.setCoord(readCoord(parser));
+                    default -> parser.skipChildren();
+                }
+            } else if (value == JsonToken.START_ARRAY) {
+                if ("weather".equals(field)) {
+                    List<WeatherResponse.WeatherData> weather = new ArrayList<>(1);
+                    while (parser.nextToken() == JsonToken.START_OBJECT) {
+                        weather.add(readWeatherData(parser));
+                    }
+                    response.setWeather(weather);
+                } else {
+                    parser.skipChildren();
+                }
+            } else {
+                switch (field) {
+                    case "id" -> response.setId(parser.getValueAsLong());
+                    case "name" -> response.setName(parser.getValueAsString());
+                    case "dt" -> response.setDt(parser.getValueAsLong());
+                    default -> { }
+                }
+            }
+        }
+        return response;
+    }
+
+    private static WeatherResponse.Main readMain(JsonParser parser) throws IOException {
+        WeatherResponse.Main main = new WeatherResponse.Main();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            switch (field) {
+                case "temp" -> main.setTemp(parser.getValueAsDouble());
+                case "feels_like" -> main.setFeels_like(parser.getValueAsDouble());
+                case "humidity" -> main.setHumidity(parser.getValueAsInt());
+                default -> parser.skipChildren();
+            }
+        }
+        return main;
+    }
+
+    private static WeatherResponse.Wind readWind(JsonParser parser) throws IOException {
+        WeatherResponse.Wind wind = new WeatherResponse.Wind();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            switch (field) {
+                case "speed" -> wind.setSpeed(parser.getValueAsDouble());
+                case "deg" -> wind.setDeg(parser.getValueAsDouble());
+                case "gust" -> wind.setGust(value == JsonToken.VALUE_NULL ? null : parser.getValueAsDouble());
+                default -> parser.skipChildren();
+            }
+        }
+        return wind;
+    }
+
+    private static WeatherResponse.Coord readCoord(JsonParser parser) throws IOException {
+        WeatherResponse.Coord coord = new WeatherResponse.Coord();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            switch (field) {
+                case "lat" -> coord.setLat(parser.getValueAsDouble());
+                case "lon" -> coord.setLon(parser.getValueAsDouble());
+                default -> parser.skipChildren();
+            }
+        }
+        return coord;
+    }
+
+    private static WeatherResponse.WeatherData readWeatherData(JsonParser parser) throws IOException {
+        WeatherResponse.WeatherData data = new WeatherResponse.WeatherData();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            switch (field) {
+                case "main" -> data.setMain(parser.getValueAsString());
+                case "description" -> data.setDescription(parser.getValueAsString());
+                case "icon" -> data.setIcon(parser.getValueAsString());
+                default -> parser.skipChildren();
+            }
+        }
+        return data;
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.weather_data.service;
+
+/**
+ * Request budget for one upstream provider: a token bucket holding up to {@code perMinute} tokens
+ * and refilled continuously at that rate, combined with a second bucket that spreads
+ * {@code perDay} evenly over the day. A request needs a token from both.
+ */
+public class ProviderQuota {
+
+    private static final double MILLIS_PER_MINUTE = 60_000.0;
+    private static final double MILLIS_PER_DAY = 86_400_000.0;
+
+    private final String provider;
+    private final double minuteCapacity;
+    private final double dayCapacity;
+    private double minuteTokens;
+    private double dayTokens;
+    private long lastRefillMillis;
+    private long rejected;
+
+    public ProviderQuota(String provider, int perMinute, int perDay, long nowMillis) {
+        if (perMinute <= 0 || perDay <= 0) {
+            throw new IllegalArgumentException("Quota for " + provider + " must be positive");
+        }
+        this.provider = provider;
+        this.minuteCapacity = perMinute;
+        this.dayCapacity = perDay;
+        this.minuteTokens = perMinute;
+        // Start the daily bucket with a minute's worth so a restart cannot replay a full day
+        this.dayTokens = Math.min(perDay, perMinute);
+        this.lastRefillMillis = nowMillis;
+    }
+
+    public synchronized boolean tryAcquire(long nowMillis) {
+        refill(nowMillis);
+        if (minuteTokens < 1 || dayTokens < 1) {
+            rejected++;
+            return false;
+        }
+        minuteTokens--;
+        dayTokens--;
+        return true;
+    }
+
+    /** Whole requests that could be made right now. */
+    public synchronized int headroom(long nowMillis) {
+        refill(nowMillis);
+        return (int) Math.min(minuteTokens, dayTokens);
+    }
+
+    public synchronized long rejected() {
+        return rejected;
+    }
+
+    public String provider() {
+        return provider;
+    }
+
+    private void refill(long nowMillis) {
+        long elapsed = nowMillis - lastRefillMillis;
+        if (elapsed <= 0) {
+            return;
+        }
+        minuteTokens = Math.min(minuteCapacity, minuteTokens + elapsed * minuteCapacity / MILLIS_PER_MINUTE);
+        dayTokens = Math.min(dayCapacity, dayTokens + elapsed * dayCapacity / MILLIS_PER_DAY);
+        lastRefillMillis = nowMillis;
+    }
+}
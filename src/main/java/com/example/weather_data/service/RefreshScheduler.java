@@ -0,0 +1,143 @@
+package com.example.weather_data.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Decides which registry cities each scheduler tick refreshes. Every city has a target refresh
+ * interval that shrinks with recent demand (page views, exponentially decayed with
+ * {@code weather.refresh.demand-half-life}): {@code cold-interval / (1 + demand)}, but never below
+ * {@code hot-interval}. A city is due once its data is older than its interval; due cities are
+ * taken most-overdue first and packed into group requests for as long as the OpenWeatherMap quota
+ * has tokens. Whatever is still due waits for the next tick and is exported as
+ * {@code weather.refresh.queue.depth}.
+ */
+@Component
+public class RefreshScheduler {
+
+    private final Map<String, CityState> states = new HashMap<>();
+    private final ProviderQuota owmQuota;
+    private final long hotIntervalMillis;
+    private final long coldIntervalMillis;
+    private final double demandHalfLifeMillis;
+    private volatile int queueDepth;
+
+    public RefreshScheduler(CityRegistry cityRegistry, UpstreamQuotas upstreamQuotas,
+                            @Value("${weather.refresh.hot-interval:PT5M}") Duration hotInterval,
+                            @Value("${weather.refresh.cold-interval:PT30M}") Duration coldInterval,
+                            @Value("${weather.refresh.demand-half-life:PT30M}") Duration demandHalfLife,
+                            MeterRegistry meterRegistry) {
+        for (City city : cityRegistry.all()) {
+            states.put(city.name(), new CityState(city));
+        }
+        this.owmQuota = upstreamQuotas.owm();
+        this.hotIntervalMillis = hotInterval.toMillis();
+        this.coldIntervalMillis = Math.max(hotIntervalMillis, coldInterval.toMillis());
+        this.demandHalfLifeMillis = demandHalfLife.toMillis();
+        Gauge.builder("weather.refresh.queue.depth", this, RefreshScheduler::queueDepth)
+                .description("Cities due for a refresh that the last tick had to defer")
+                .register(meterRegistry);
+    }
+
+    /** Counts a request for {@code city} (a registry name) towards its demand; other names are ignored. */
+    public void recordDemand(String city, long nowMillis) {
+        CityState state = states.get(city);
+        if (state != null) {
+            state.recordDemand(nowMillis, demandHalfLifeMillis);
+        }
+    }
+
+    public void markRefreshed(String city, long nowMillis) {
+        CityState state = states.get(city);
+        if (state != null) {
+            state.markRefreshed(nowMillis);
+        }
+    }
+
+    /**
+     * Returns this tick's group requests, most overdue cities first, at most {@code groupSize}
+     * cities each. Each returned batch has already taken an OpenWeatherMap token.
+     */
+    public List<List<City>> plan(long nowMillis, int groupSize) {
+        PriorityQueue<Candidate> due = new PriorityQueue<>();
+        for (CityState state : states.values()) {
+            double overdue = state.overdue(nowMillis, this);
+            if (overdue >= 1) {
+                due.add(new Candidate(state.city, overdue));
+            }
+        }
+
+        List<List<City>> batches = new ArrayList<>();
+        while (!due.isEmpty() && owmQuota.tryAcquire(nowMillis)) {
+            List<City> batch = new ArrayList<>(Math.min(groupSize, due.size()));
+            while (batch.size() < groupSize && !due.isEmpty()) {
+                batch.add(due.poll().city());
+            }
+            batches.add(batch);
+        }
+        queueDepth = due.size();
+        return batches;
+    }
+
+    public int queueDepth() {
+        return queueDepth;
+    }
+
+    long intervalFor(double demand) {
+        return Math.max(hotIntervalMillis, (long) (coldIntervalMillis / (1 + demand)));
+    }
+
+    // Higher overdue ratio first
+    private record Candidate(City city, double overdue) implements Comparable<Candidate> {
+        @Override
+        public int compareTo(Candidate other) {
+            return Double.compare(other.overdue, overdue);
+        }
+    }
+
+    private static final class CityState {
+        final City city;
+        private long refreshedAtMillis = Long.MIN_VALUE;
+        private double demand;
+        private long demandUpdatedMillis;
+
+        CityState(City city) {
+            this.city = city;
+        }
+
+        synchronized void recordDemand(long nowMillis, double halfLifeMillis) {
+            demand = decayed(nowMillis, halfLifeMillis) + 1;
+            demandUpdatedMillis = nowMillis;
+        }
+
+        synchronized void markRefreshed(long nowMillis) {
+            refreshedAtMillis = nowMillis;
+        }
+
+        // Age of the data in units of this city's target interval; >= 1 means due
+        synchronized double overdue(long nowMillis, RefreshScheduler scheduler) {
+            if (refreshedAtMillis == Long.MIN_VALUE) {
+                return Double.MAX_VALUE;
+            }
+            long interval = scheduler.intervalFor(decayed(nowMillis, scheduler.demandHalfLifeMillis));
+            return (double) (nowMillis - refreshedAtMillis) / interval;
+        }
+
+        private double decayed(long nowMillis, double halfLifeMillis) {
+            if (demand == 0) {
+                return 0;
+            }
+            return demand * Math.pow(0.5, (nowMillis - demandUpdatedMillis) / halfLifeMillis);
+        }
+    }
+}
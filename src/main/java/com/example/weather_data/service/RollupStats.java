@@ -0,0 +1,30 @@
+package com.example.weather_data.service;
+
+import java.time.Instant;
+
+import com.example.weather_data.repository.RollupTotals;
+
+/**
+ * Weather for one city over {@code [from, to)}, computed from rollup buckets. Temperatures are
+ * Celsius; every aggregate is {@code null} when there were no readings (AQI ones also when no
+ * reading had an AQI).
+ *
+ * @param stdDevTemp population standard deviation of the readings
+ */
+public record RollupStats(Instant from,
+                          Instant to,
+                          long readings,
+                          Double averageTemp,
+                          Double minTemp,
+                          Double maxTemp,
+                          Double stdDevTemp,
+                          Double averageHumidity,
+                          Double averageAqi,
+                          Integer minAqi,
+                          Integer maxAqi) {
+
+    static RollupStats of(Instant from, Instant to, RollupTotals totals) {
+        return new RollupStats(from, to, totals.readings(), totals.averageTemp(), totals.tempMin(), totals.tempMax(),
+                totals.stdDevTemp(), totals.averageHumidity(), totals.averageAqi(), totals.aqiMin(), totals.aqiMax());
+    }
+}
@@ -0,0 +1,192 @@
+package com.example.weather_data.service;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.example.weather_data.repository.DailySummaryDelta;
+import com.example.weather_data.repository.DailyWeatherSummaryRepository;
+import com.example.weather_data.repository.DailyWeatherSummaryRepositoryCustom.DailyReading;
+import com.example.weather_data.repository.RollupDelta;
+import com.example.weather_data.repository.WeatherRollupRepository;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Write-behind queue in front of the daily summaries and the rollups. Readings are folded into
+ * one pending {@link DailySummaryDelta} per (city, date) and one {@link RollupDelta} per rollup
+ * bucket, and each table is written with a single batched MERGE once
+ * {@code weather.persistence.flush-size} keys are pending, every
+ * {@code weather.persistence.flush-interval} ms, and on shutdown. A failed write puts its
+ * deltas back so the next flush retries them. Exported as {@code weather.persistence.pending}
+ * and {@code weather.persistence.flushed}.
+ */
+@Component
+public class SummaryWriteBehind {
+    private static final Logger logger = LoggerFactory.getLogger(SummaryWriteBehind.class);
+
+    private final DailyWeatherSummaryRepository repository;
+    private final WeatherRollupRepository rollupRepository;
+    private final int flushSize;
+    private final Object flushLock = new Object();
+    private Map<DailySummaryDelta.Key, DailySummaryDelta> pending = new LinkedHashMap<>();
+    private Map<RollupDelta.Key, RollupDelta> pendingRollups = new LinkedHashMap<>();
+    private volatile Runnable flushListener = () -> { };
+    private long flushedReadings;
+
+    public SummaryWriteBehind(DailyWeatherSummaryRepository repository,
+                              WeatherRollupRepository rollupRepository,
+                              @Value("${weather.persistence.flush-size:500}") int flushSize,
+                              MeterRegistry meterRegistry) {
+        this.repository = repository;
+        this.rollupRepository = rollupRepository;
+        this.flushSize = flushSize;
+        Gauge.builder("weather.persistence.pending", this, SummaryWriteBehind::pendingKeys)
+                .description("Summary and rollup rows with readings not yet written")
+                .register(meterRegistry);
+        FunctionCounter.builder("weather.persistence.flushed", this, SummaryWriteBehind::flushedReadings)
+                .description("Readings written to the daily summaries")
+                .register(meterRegistry);
+    }
+
+    /** Queues {@code readings}; flushes on the calling thread if that fills the queue. */
+    public void submit(List<DailyReading> readings) {
+        if (readings.isEmpty()) {
+            return;
+        }
+        boolean full;
+        synchronized (this) {
+            for (DailyReading reading : readings) {
+                pending.computeIfAbsent(DailySummaryDelta.Key.of(reading), DailySummaryDelta::new).add(reading);
+            }
+            full = pendingKeys() >= flushSize;
+        }
+        if (full) {
+            flush();
+        }
+    }
+
+    /** Queues rollup deltas, folding them into pending deltas for the same bucket. */
+    public void submitRollups(Iterable<RollupDelta> deltas) {
+        boolean full;
+        synchronized (this) {
+            for (RollupDelta delta : deltas) {
+                pendingRollups.merge(delta.key(), delta, SummaryWriteBehind::absorb);
+            }
+            full = pendingKeys() >= flushSize;
+        }
+        if (full) {
+            flush();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${weather.persistence.flush-interval:10000}")
+    public void flush() {
+        if (drain()) {
+            flushListener.run();
+        }
+    }
+
+    // Writes everything pending; returns whether anything was written
+    private boolean drain() {
+        synchronized (flushLock) {
+            Map<DailySummaryDelta.Key, DailySummaryDelta> summaries;
+            Map<RollupDelta.Key, RollupDelta> rollups;
+            synchronized (this) {
+                if (pending.isEmpty() && pendingRollups.isEmpty()) {
+                    return false;
+                }
+                summaries = pending;
+                rollups = pendingRollups;
+                pending = new LinkedHashMap<>();
+                pendingRollups = new LinkedHashMap<>();
+            }
+            boolean written = false;
+            try {
+                repository.mergeDeltas(summaries.values());
+                int readings = summaries.values().stream().mapToInt(DailySummaryDelta::count).sum();
+                synchronized (this) {
+                    flushedReadings += readings;
+                }
+                written = !summaries.isEmpty();
+                logger.debug("Flushed {} readings into {} daily summaries", readings, summaries.size());
+            } catch (RuntimeException e) {
+                requeueSummaries(summaries);
+                logger.warn("Writing {} daily summaries failed, keeping them for the next flush: {}",
+                        summaries.size(), e.getMessage());
+            }
+            try {
+                rollupRepository.mergeDeltas(rollups.values());
+                written |= !rollups.isEmpty();
+                logger.debug("Flushed {} rollup buckets", rollups.size());
+            } catch (RuntimeException e) {
+                requeueRollups(rollups);
+                logger.warn("Writing {} rollup buckets failed, keeping them for the next flush: {}",
+                        rollups.size(), e.getMessage());
+            }
+            return written;
+        }
+    }
+
+    // The failed deltas are older than anything queued since, so they go first
+    private synchronized void requeueSummaries(Map<DailySummaryDelta.Key, DailySummaryDelta> failed) {
+        for (Map.Entry<DailySummaryDelta.Key, DailySummaryDelta> entry : pending.entrySet()) {
+            failed.merge(entry.getKey(), entry.getValue(), (older, later) -> {
+                older.absorb(later);
+                return older;
+            });
+        }
+        pending = failed;
+    }
+
+    private synchronized void requeueRollups(Map<RollupDelta.Key, RollupDelta> failed) {
+        for (Map.Entry<RollupDelta.Key, RollupDelta> entry : pendingRollups.entrySet()) {
+            failed.merge(entry.getKey(), entry.getValue(), SummaryWriteBehind::absorb);
+        }
+        pendingRollups = failed;
+    }
+
+    private static RollupDelta absorb(RollupDelta into, RollupDelta other) {
+        into.absorb(other);
+        return into;
+    }
+
+    // Runs before any bean is destroyed, while the lazily created repository can still be initialized
+    @EventListener(ContextClosedEvent.class)
+    public void flushOnClose() {
+        flush();
+    }
+
+    // Catches readings a last scheduler tick queued after the close event; listeners are not told
+    @PreDestroy
+    public void flushOnDestroy() {
+        drain();
+        if (pendingKeys() > 0) {
+            logger.error("{} summary and rollup rows could not be written before shutdown", pendingKeys());
+        }
+    }
+
+    /** Called after every successful flush, e.g. to rebuild views over the summaries. */
+    public void setFlushListener(Runnable flushListener) {
+        this.flushListener = flushListener;
+    }
+
+    public synchronized int pendingKeys() {
+        return pending.size() + pendingRollups.size();
+    }
+
+    public synchronized long flushedReadings() {
+        return flushedReadings;
+    }
+}
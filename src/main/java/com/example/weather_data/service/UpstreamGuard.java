@@ -0,0 +1,95 @@
+package com.example.weather_data.service;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+
+/**
+ * Isolation for one upstream provider: a bulkhead that caps the calls in flight at
+ * {@code maxConcurrent}, in front of a {@link CircuitBreaker}. A call that is refused by either
+ * throws {@link UpstreamUnavailableException} without touching the network, so callers fall back
+ * to whatever they last had.
+ */
+public class UpstreamGuard {
+
+    private final CircuitBreaker breaker;
+    private final int maxConcurrent;
+    private final Semaphore bulkhead;
+    private final AtomicLong bulkheadRejected = new AtomicLong();
+
+    public UpstreamGuard(CircuitBreaker breaker, int maxConcurrent) {
+        if (maxConcurrent <= 0) {
+            throw new IllegalArgumentException("Bulkhead for " + breaker.provider() + " must allow at least one call");
+        }
+        this.breaker = breaker;
+        this.maxConcurrent = maxConcurrent;
+        this.bulkhead = new Semaphore(maxConcurrent);
+    }
+
+    /**
+     * Runs {@code call} if both the bulkhead and the circuit let it through, and records its outcome.
+     * Exceptions from the call are rethrown as is.
+     */
+    public <T> T call(Supplier<T> call) {
+        if (!bulkhead.tryAcquire()) {
+            bulkheadRejected.incrementAndGet();
+            throw new UpstreamUnavailableException(breaker.provider(), "too many calls in flight");
+        }
+        try {
+            // The bulkhead goes first so a rejected call never takes a half-open probe
+            if (!breaker.tryAcquirePermission(System.currentTimeMillis())) {
+                throw new UpstreamUnavailableException(breaker.provider(), "circuit is " + breaker.state());
+            }
+            long start = System.nanoTime();
+            boolean failed = true;
+            try {
+                T result = call.get();
+                failed = false;
+                return result;
+            } catch (RuntimeException e) {
+                failed = isFailure(e);
+                throw e;
+            } finally {
+                breaker.onResult(failed, System.nanoTime() - start, System.currentTimeMillis());
+            }
+        } finally {
+            bulkhead.release();
+        }
+    }
+
+    /** Whether a call made now would be let through by the circuit; nothing is taken or counted. */
+    public boolean isCallPermitted() {
+        return breaker.isCallPermitted(System.currentTimeMillis());
+    }
+
+    // Our own mistakes (bad key, unknown city) say nothing about the provider's health; throttling does
+    private static boolean isFailure(RuntimeException e) {
+        if (e instanceof HttpClientErrorException clientError) {
+            return clientError.getStatusCode().isSameCodeAs(HttpStatus.TOO_MANY_REQUESTS);
+        }
+        return true;
+    }
+
+    public CircuitBreaker breaker() {
+        return breaker;
+    }
+
+    public int maxConcurrent() {
+        return maxConcurrent;
+    }
+
+    public int inFlight() {
+        return maxConcurrent - bulkhead.availablePermits();
+    }
+
+    public long bulkheadRejected() {
+        return bulkheadRejected.get();
+    }
+
+    public String provider() {
+        return breaker.provider();
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.weather_data.service;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Circuit breakers and bulkheads for OpenWeatherMap, its One Call history API and IQAir
+ * ({@code weather.circuit.*}, {@code weather.bulkhead.*}). Every upstream call goes through its
+ * provider's guard; the backfill has its own, so a failing or saturated history API never trips
+ * or fills the one live readings depend on. Exported, tagged by provider:
+ * {@code weather.circuit.state} (0 closed, 1 half-open, 2 open),
+ * {@code weather.circuit.not-permitted}, {@code weather.bulkhead.in-flight} and
+ * {@code weather.bulkhead.rejected}.
+ */
+@Component
+public class UpstreamGuards {
+
+    private final UpstreamGuard owm;
+    private final UpstreamGuard owmHistory;
+    private final UpstreamGuard iqAir;
+
+    public UpstreamGuards(@Value("${weather.circuit.window-size:20}") int windowSize,
+                          @Value("${weather.circuit.minimum-calls:10}") int minimumCalls,
+                          @Value("${weather.circuit.failure-rate-threshold:0.5}") double failureRateThreshold,
+                          @Value("${weather.circuit.slow-call-rate-threshold:0.8}") double slowCallRateThreshold,
+                          @Value("${weather.circuit.slow-call-duration:PT5S}") Duration slowCallDuration,
+                          @Value("${weather.circuit.open-duration:PT60S}") Duration openDuration,
+                          @Value("${weather.circuit.half-open-calls:3}") int halfOpenCalls,
+                          @Value("${weather.bulkhead.owm.max-concurrent:12}") int owmMaxConcurrent,
+                          @Value("${weather.bulkhead.owm-history.max-concurrent:4}") int owmHistoryMaxConcurrent,
+                          @Value("${weather.bulkhead.iqair.max-concurrent:2}") int iqAirMaxConcurrent,
+                          MeterRegistry meterRegistry) {
+        this.owm = register(new UpstreamGuard(new CircuitBreaker("owm", windowSize, minimumCalls, failureRateThreshold,
+                slowCallRateThreshold, slowCallDuration.toNanos(), openDuration.toMillis(), halfOpenCalls),
+                owmMaxConcurrent), meterRegistry);
+        this.owmHistory = register(new UpstreamGuard(new CircuitBreaker("owm-history", windowSize, minimumCalls,
+                failureRateThreshold, slowCallRateThreshold, slowCallDuration.toNanos(), openDuration.toMillis(),
+                halfOpenCalls), owmHistoryMaxConcurrent), meterRegistry);
+        this.iqAir = register(new UpstreamGuard(new CircuitBreaker("iqair", windowSize, minimumCalls, failureRateThreshold,
+                slowCallRateThreshold, slowCallDuration.toNanos(), openDuration.toMillis(), halfOpenCalls),
+                iqAirMaxConcurrent), meterRegistry);
+    }
+
+    private static UpstreamGuard register(UpstreamGuard guard, MeterRegistry meterRegistry) {
+        Gauge.builder("weather.circuit.state", guard, g -> switch (g.breaker().state()) {
+                    case CLOSED -> 0;
+                    case HALF_OPEN -> 1;
+                    case OPEN -> 2;
+                })
+                .tag("provider", guard.provider())
+                .description("Circuit state: 0 closed, 1 half-open, 2 open")
+                .register(meterRegistry);
+        FunctionCounter.builder("weather.circuit.not-permitted", guard, g -> g.breaker().notPermitted())
+                .tag("provider", guard.provider())
+                .description("Upstream calls refused because the circuit was open")
+                .register(meterRegistry);
+        Gauge.builder("weather.bulkhead.in-flight", guard, UpstreamGuard::inFlight)
+                .tag("provider", guard.provider())
+                .description("Upstream calls currently in flight")
+                .register(meterRegistry);
+        FunctionCounter.builder("weather.bulkhead.rejected", guard, UpstreamGuard::bulkheadRejected)
+                .tag("provider", guard.provider())
+                .description("Upstream calls refused because the bulkhead was full")
+                .register(meterRegistry);
+        return guard;
+    }
+
+    public UpstreamGuard owm() {
+        return owm;
+    }
+
+    public UpstreamGuard owmHistory() {
+        return owmHistory;
+    }
+
+    public UpstreamGuard iqAir() {
+        return iqAir;
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.weather_data.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Request budgets for OpenWeatherMap, its One Call history API (billed separately) and IQAir, sized
+ * from the plans' published limits ({@code weather.quota.*}). Every upstream call, scheduled or on
+ * demand, must take a token first. Headroom and rejections are exported as
+ * {@code weather.quota.headroom} and {@code weather.quota.rejected}, tagged by provider.
+ */
+@Component
+public class UpstreamQuotas {
+
+    private final ProviderQuota owm;
+    private final ProviderQuota owmHistory;
+    private final ProviderQuota iqAir;
+
+    public UpstreamQuotas(@Value("${weather.quota.owm.per-minute:60}") int owmPerMinute,
+                          @Value("${weather.quota.owm.per-day:30000}") int owmPerDay,
+                          @Value("${weather.quota.owm-history.per-minute:60}") int owmHistoryPerMinute,
+                          @Value("${weather.quota.owm-history.per-day:1000}") int owmHistoryPerDay,
+                          @Value("${weather.quota.iqair.per-minute:5}") int iqAirPerMinute,
+                          @Value("${weather.quota.iqair.per-day:500}") int iqAirPerDay,
+                          MeterRegistry meterRegistry) {
+        long now = System.currentTimeMillis();
+        this.owm = register(new ProviderQuota("owm", owmPerMinute, owmPerDay, now), meterRegistry);
+        this.owmHistory = register(new ProviderQuota("owm-history", owmHistoryPerMinute, owmHistoryPerDay, now), meterRegistry);
+        this.iqAir = register(new ProviderQuota("iqair", iqAirPerMinute, iqAirPerDay, now), meterRegistry);
+    }
+
+    private static ProviderQuota register(ProviderQuota quota, MeterRegistry meterRegistry) {
+        Gauge.builder("weather.quota.headroom", quota, q -> q.headroom(System.currentTimeMillis()))
+                .tag("provider", quota.provider())
+                .description("Upstream requests that can be made right now")
+                .register(meterRegistry);
+        FunctionCounter.builder("weather.quota.rejected", quota, ProviderQuota::rejected)
+                .tag("provider", quota.provider())
+                .description("Upstream requests skipped because the quota was exhausted")
+                .register(meterRegistry);
+        return quota;
+    }
+
+    public ProviderQuota owm() {
+        return owm;
+    }
+
+    public ProviderQuota owmHistory() {
+        return owmHistory;
+    }
+
+    public ProviderQuota iqAir() {
+        return iqAir;
+    }
+}
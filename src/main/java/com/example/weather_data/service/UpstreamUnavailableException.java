@@ -0,0 +1,19 @@
+package com.example.weather_data.service;
+
+/**
+ * Thrown by {@link UpstreamGuard} when a call is refused before reaching the provider, either
+ * because its circuit is open or because its bulkhead is full.
+ */
+public class UpstreamUnavailableException extends RuntimeException {
+
+    private final String provider;
+
+    public UpstreamUnavailableException(String provider, String reason) {
+        super(provider + " unavailable: " + reason, null, false, false);
+        this.provider = provider;
+    }
+
+    public String getProvider() {
+        return provider;
+    }
+}
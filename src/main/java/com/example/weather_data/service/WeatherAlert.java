@@ -0,0 +1,14 @@
+package com.example.weather_data.service;
+
+/**
+ * An alert raised for one city. {@code sequence} is assigned by {@link AlertStore} and increases
+ * monotonically across all alerts, so it doubles as an event id for clients that resume.
+ */
+public record WeatherAlert(long sequence, String city, String kind, String message,
+                           long createdAtEpochMilli, long expiresAtEpochMilli) {
+
+    @Override
+    public String toString() {
+        return city + ": " + message;
+    }
+}
@@ -0,0 +1,184 @@
+package com.example.weather_data.service;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Fans alerts and fresh readings out to Server-Sent Events subscribers as the scheduler produces them.
+ * <p>
+ * Every event gets an id from one increasing sequence, and the most recent events are kept in a small
+ * history ring so a client reconnecting with {@code Last-Event-ID} is replayed what it missed. Each
+ * subscriber has its own bounded buffer drained by a shared dispatcher pool; when a slow client falls
+ * behind, its oldest undelivered events are dropped so the publisher never blocks.
+ */
+@Component
+public class WeatherEventStream implements DisposableBean {
+
+    public static final String ALERT = "alert";
+    public static final String READING = "reading";
+
+    public record WeatherEvent(long id, String name, String cityKey, Object data) {}
+
+    private final WeatherEvent[] history;
+    private final int historyMask;
+    private final int bufferCapacity;
+    private final long timeoutMillis;
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final AtomicLong droppedEvents = new AtomicLong();
+    private final ThreadPoolExecutor dispatcher;
+    private long lastId;
+
+    public WeatherEventStream(@Value("${weather.stream.history-size:1024}") int historySize,
+                              @Value("${weather.stream.subscriber-buffer:64}") int bufferCapacity,
+                              @Value("${weather.stream.timeout:PT30M}") Duration timeout,
+                              @Value("${weather.stream.dispatch-threads:4}") int dispatchThreads,
+                              MeterRegistry meterRegistry) {
+        int size = Integer.highestOneBit(Math.max(2, historySize) - 1) << 1;
+        this.history = new WeatherEvent[size];
+        this.historyMask = size - 1;
+        this.bufferCapacity = bufferCapacity;
+        this.timeoutMillis = timeout.toMillis();
+        AtomicInteger threadCount = new AtomicInteger();
+        this.dispatcher = new ThreadPoolExecutor(dispatchThreads, dispatchThreads, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+                    Thread thread = new Thread(runnable, "weather-stream-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.dispatcher.allowCoreThreadTimeOut(true);
+        Gauge.builder("weather.stream.subscribers", subscribers, Set::size).register(meterRegistry);
+        Gauge.builder("weather.stream.dropped", droppedEvents, AtomicLong::get).register(meterRegistry);
+    }
+
+    /**
+     * Opens a stream of events for {@code cityKey} (or every city when {@code null}); readings are only
+     * included when {@code includeReadings} is set. Events newer than {@code lastEventId} that are
+     * still in the history ring are replayed first.
+     */
+    public SseEmitter subscribe(String cityKey, boolean includeReadings, Long lastEventId) {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Subscriber subscriber = new Subscriber(emitter, cityKey, includeReadings);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(error -> subscribers.remove(subscriber));
+
+        // Registering and replaying under the publish lock means no event is both replayed and
+        // delivered live, and none falls between the two.
+        synchronized (this) {
+            if (lastEventId != null) {
+                long from = Math.max(lastEventId + 1, lastId - historyMask);
+                for (long id = Math.max(1, from); id <= lastId; id++) {
+                    WeatherEvent event = history[(int) (id & historyMask)];
+                    if (event != null && event.id() == id && subscriber.accepts(event)) {
+                        subscriber.offer(event);
+                    }
+                }
+            }
+            subscribers.add(subscriber);
+        }
+        return emitter;
+    }
+
+    public void publishAlert(String cityKey, WeatherAlert alert) {
+        publish(ALERT, cityKey, alert);
+    }
+
+    public void publishReading(String cityKey, LiveReading reading) {
+        publish(READING, cityKey, reading);
+    }
+
+    public int subscriberCount() {
+        return subscribers.size();
+    }
+
+    private void publish(String name, String cityKey, Object data) {
+        synchronized (this) {
+            WeatherEvent event = new WeatherEvent(++lastId, name, cityKey, data);
+            history[(int) (event.id() & historyMask)] = event;
+            for (Subscriber subscriber : subscribers) {
+                if (subscriber.accepts(event)) {
+                    subscriber.offer(event);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void destroy() {
+        dispatcher.shutdownNow();
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+    }
+
+    private final class Subscriber {
+        private final SseEmitter emitter;
+        private final String cityKey;
+        private final boolean includeReadings;
+        private final ArrayDeque<WeatherEvent> buffer = new ArrayDeque<>();
+        private final AtomicBoolean draining = new AtomicBoolean();
+
+        Subscriber(SseEmitter emitter, String cityKey, boolean includeReadings) {
+            this.emitter = emitter;
+            this.cityKey = cityKey;
+            this.includeReadings = includeReadings;
+        }
+
+        boolean accepts(WeatherEvent event) {
+            return (includeReadings || ALERT.equals(event.name()))
+                    && (cityKey == null || cityKey.equals(event.cityKey()));
+        }
+
+        void offer(WeatherEvent event) {
+            synchronized (buffer) {
+                if (buffer.size() == bufferCapacity) {
+                    buffer.pollFirst();
+                    droppedEvents.incrementAndGet();
+                }
+                buffer.addLast(event);
+            }
+            if (draining.compareAndSet(false, true)) {
+                dispatcher.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            try {
+                while (true) {
+                    WeatherEvent event;
+                    synchronized (buffer) {
+                        event = buffer.pollFirst();
+                        if (event == null) {
+                            draining.set(false);
+                            return;
+                        }
+                    }
+                    emitter.send(SseEmitter.event()
+                            .id(Long.toString(event.id()))
+                            .name(event.name())
+                            .data(event.data(), MediaType.APPLICATION_JSON));
+                }
+            } catch (IOException | IllegalStateException e) {
+                // Client went away; the container completes the request, but the emitter
+                // callbacks may not fire for a failed send
+                subscribers.remove(this);
+            }
+        }
+    }
+}
@@ -6,6 +6,7 @@ import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 public class WeatherResponse {
     private Main main;
     private java.util.List<WeatherData> weather;
+    private long id;
     private String name;
     private long dt;
     private Wind wind;
@@ -18,6 +19,9 @@ public class WeatherResponse {
     public java.util.List<WeatherData> getWeather() { return weather; }
     public void setWeather(java.util.List<WeatherData> weather) { this.weather = weather; }
     
+    public long getId() { return id; }
+    public void setId(long id) { this.id = id; }
+
     public String getName() { return name; }
     public void setName(String name) { this.name = name; }
     
@@ -0,0 +1,136 @@
+package com.example.weather_data.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.example.weather_data.entity.RollupGranularity;
+import com.example.weather_data.entity.WeatherRollup;
+import com.example.weather_data.repository.RollupDelta;
+import com.example.weather_data.repository.RollupTotals;
+import com.example.weather_data.repository.WeatherRollupRepository;
+import com.example.weather_data.repository.WeatherRollupRepositoryCustom.RollupReading;
+
+/**
+ * Hourly, daily and monthly rollups per city, maintained incrementally: every ingested reading is
+ * added to its three buckets through {@link SummaryWriteBehind}. Ranges are answered from the
+ * coarsest buckets that tile them, whole months from MONTH buckets and the partial months at
+ * either end from DAY buckets, so a multi-year query reads a few dozen rows. Buckets older than
+ * {@code weather.rollup.retention.*} are purged every {@code weather.rollup.purge-interval} ms;
+ * a zero retention keeps them forever.
+ */
+@Component
+public class WeatherRollups {
+    private static final Logger logger = LoggerFactory.getLogger(WeatherRollups.class);
+
+    private final WeatherRollupRepository repository;
+    private final SummaryWriteBehind writeBehind;
+    private final Map<RollupGranularity, Duration> retention = new EnumMap<>(RollupGranularity.class);
+    private final ZoneId zone = ZoneId.systemDefault();
+
+    public WeatherRollups(WeatherRollupRepository repository, SummaryWriteBehind writeBehind,
+                          @Value("${weather.rollup.retention.hour:P14D}") Duration hourRetention,
+                          @Value("${weather.rollup.retention.day:P1095D}") Duration dayRetention,
+                          @Value("${weather.rollup.retention.month:P0D}") Duration monthRetention) {
+        this.repository = repository;
+        this.writeBehind = writeBehind;
+        retention.put(RollupGranularity.HOUR, hourRetention);
+        retention.put(RollupGranularity.DAY, dayRetention);
+        retention.put(RollupGranularity.MONTH, monthRetention);
+    }
+
+    /** Queues {@code readings} for their hour, day and month buckets. */
+    public void record(List<RollupReading> readings) {
+        if (readings.isEmpty()) {
+            return;
+        }
+        Map<RollupDelta.Key, RollupDelta> deltas = new LinkedHashMap<>();
+        for (RollupReading reading : readings) {
+            for (RollupGranularity granularity : RollupGranularity.values()) {
+                RollupDelta.Key key = new RollupDelta.Key(granularity, reading.city(),
+                        granularity.bucketStart(reading.epochSecond(), zone));
+                deltas.computeIfAbsent(key, RollupDelta::new).add(reading);
+            }
+        }
+        writeBehind.submitRollups(deltas.values());
+    }
+
+    /**
+     * Aggregates for {@code city} over the local days {@code start} to {@code end} inclusive, read
+     * from at most one MONTH range and two DAY ranges.
+     */
+    public RollupStats summarize(String city, LocalDate start, LocalDate end) {
+        if (end.isBefore(start)) {
+            throw new IllegalArgumentException("endDate must not be before startDate");
+        }
+        LocalDate endExclusive = end.plusDays(1);
+        LocalDate firstWholeMonth = start.getDayOfMonth() == 1 ? start : start.withDayOfMonth(1).plusMonths(1);
+        LocalDate wholeMonthsEnd = endExclusive.withDayOfMonth(1);
+
+        RollupTotals totals;
+        if (firstWholeMonth.isBefore(wholeMonthsEnd)) {
+            totals = totals(RollupGranularity.DAY, city, start, firstWholeMonth)
+                    .merge(totals(RollupGranularity.MONTH, city, firstWholeMonth, wholeMonthsEnd))
+                    .merge(totals(RollupGranularity.DAY, city, wholeMonthsEnd, endExclusive));
+        } else {
+            totals = totals(RollupGranularity.DAY, city, start, endExclusive);
+        }
+        return RollupStats.of(startOf(start), startOf(endExclusive), totals);
+    }
+
+    /** One entry per stored {@code granularity} bucket of {@code city} starting in {@code [from, to)}. */
+    public List<RollupStats> series(String city, RollupGranularity granularity, Instant from, Instant to) {
+        List<WeatherRollup> buckets = repository.findBuckets(granularity, city, from.getEpochSecond(), to.getEpochSecond());
+        List<RollupStats> series = new ArrayList<>(buckets.size());
+        for (WeatherRollup bucket : buckets) {
+            Instant bucketFrom = Instant.ofEpochSecond(bucket.getBucketStart());
+            series.add(RollupStats.of(bucketFrom, bucketEnd(granularity, bucketFrom), RollupTotals.of(bucket)));
+        }
+        return series;
+    }
+
+    @Scheduled(fixedRateString = "${weather.rollup.purge-interval:3600000}")
+    public void purgeExpired() {
+        long now = System.currentTimeMillis() / 1000;
+        for (Map.Entry<RollupGranularity, Duration> entry : retention.entrySet()) {
+            if (entry.getValue().isZero()) {
+                continue;
+            }
+            int purged = repository.deleteOlderThan(entry.getKey(), now - entry.getValue().toSeconds());
+            if (purged > 0) {
+                logger.info("Purged {} {} rollup buckets older than {}", purged, entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    private RollupTotals totals(RollupGranularity granularity, String city, LocalDate from, LocalDate to) {
+        if (!from.isBefore(to)) {
+            return RollupTotals.EMPTY;
+        }
+        return repository.totals(granularity, city, startOf(from).getEpochSecond(), startOf(to).getEpochSecond());
+    }
+
+    private Instant startOf(LocalDate date) {
+        return date.atStartOfDay(zone).toInstant();
+    }
+
+    private Instant bucketEnd(RollupGranularity granularity, Instant bucketStart) {
+        return switch (granularity) {
+            case HOUR -> bucketStart.plus(Duration.ofHours(1));
+            case DAY -> bucketStart.atZone(zone).plusDays(1).toInstant();
+            case MONTH -> bucketStart.atZone(zone).plusMonths(1).toInstant();
+        };
+    }
+}
@@ -1,35 +1,56 @@
 package com.example.weather_data.service;
 
+import java.time.Duration;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Collections;
 import java.util.DoubleSummaryStatistics;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.env.Environment;
-import org.springframework.http.ResponseEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.client.RequestCallback;
+import org.springframework.web.client.ResponseExtractor;
 import org.springframework.web.client.RestTemplate;
 
-import com.example.weather_data.entity.AQICache;
+import com.example.weather_data.entity.ConditionTally;
 import com.example.weather_data.entity.DailyWeatherSummary;
-import com.example.weather_data.repository.AQICacheRepository;
+import com.example.weather_data.entity.WeatherCondition;
+import com.example.weather_data.repository.DailyTemperatureAggregate;
 import com.example.weather_data.repository.DailyWeatherSummaryRepository;
+import com.example.weather_data.repository.DailyWeatherSummaryRepositoryCustom.DailyReading;
+import com.example.weather_data.repository.WeatherRollupRepositoryCustom.RollupReading;
+import com.example.weather_data.storage.Observation;
+import com.example.weather_data.storage.ObservationArchive;
+import com.example.weather_data.storage.ObservationLog;
+import com.example.weather_data.storage.ObservationSeries;
+
+import jakarta.annotation.PostConstruct;
 
 @Service
 public class WeatherService {
@@ -51,69 +72,303 @@ public class WeatherService {
         this.apiKey = tempApiKey;
     }
 
-    private final String url = "https://api.openweathermap.org/data/2.5/weather?q={city}&appid={apiKey}";
-    private final List<String> indianMetros = Arrays.asList("Delhi", "Mumbai", "Chennai", "Bengaluru", "Kolkata", "Hyderabad");
-    private final Map<String, String> cityMapping = Map.of("Bangalore", "Bengaluru");
-    private final String iqAirUrl = "http://api.airvisual.com/v2/city?city={city}&state={state}&country=India&key={apiKey}";
+    // OpenWeatherMap bodies are streamed through OwmResponseParser rather than bound by Jackson databind
+    private static final RequestCallback ACCEPT_JSON = request -> request.getHeaders().setAccept(List.of(MediaType.APPLICATION_JSON));
+    private static final ResponseExtractor<WeatherResponse> CURRENT_WEATHER = response -> OwmResponseParser.parseCurrent(response.getBody());
+
+    private final String url = "/data/2.5/weather?q={city}&appid={apiKey}";
+    private final String byIdUrl = "/data/2.5/weather?id={id}&appid={apiKey}";
+    private final String groupUrl = "/data/2.5/group?id={ids}&appid={apiKey}";
 
-    @Value("${IQAIR_API_KEY}")
-    private String iqAirKey;
+    @Value("${weather.owm.base-url:https://api.openweathermap.org}")
+    private String owmBaseUrl;
 
-    // City state mappings for IQAir API
-    private final Map<String, String> cityStateMapping = Map.of(
-        "Delhi", "Delhi",
-        "Mumbai", "Maharashtra",
-        "Chennai", "Tamil Nadu",
-        "Bengaluru", "Karnataka",
-        "Kolkata", "West Bengal",
-        "Hyderabad", "Telangana"
-    );
+    // OpenWeatherMap accepts at most 20 ids per group request
+    @Value("${weather.owm.group-size:20}")
+    private int groupSize;
+
+    @Autowired
+    private CityRegistry cityRegistry;
+
+    @Autowired
+    private RefreshScheduler refreshScheduler;
+
+    @Autowired
+    private UpstreamQuotas upstreamQuotas;
+
+    @Autowired
+    private UpstreamGuards upstreamGuards;
+
+    // AQI values older than this are not shown, even if the pipeline could not refresh them
+    @Value("${weather.aqi.max-age:PT6H}")
+    private Duration aqiMaxAge;
 
     @Autowired
     private DailyWeatherSummaryRepository repository;
 
     @Autowired
-    private AQICacheRepository aqiCacheRepository;
+    private SummaryWriteBehind summaryWriteBehind;
 
-    @Value("${weather.alert.temp.threshold:35.0}")
-    private double tempThreshold;
+    @Autowired
+    private WeatherRollups weatherRollups;
 
-    @Value("${weather.alert.humidity.threshold:80}")
-    private int humidityThreshold;
+    @Autowired
+    private AqiPipeline aqiPipeline;
+
+    @Autowired
+    private CurrentWeatherCache currentWeatherCache;
+
+    @Autowired
+    private CityFetchExecutor cityFetchExecutor;
+
+    @Autowired
+    private ObservationLog observationLog;
+
+    @Autowired
+    private ObservationArchive observationArchive;
+
+    @Value("${weather.fetch.city-timeout:PT15S}")
+    private Duration cityTimeout;
+
+    @Value("${weather.fetch.tick-timeout:PT60S}")
+    private Duration tickTimeout;
+
+    @Autowired
+    private AlertStore alertStore;
 
-    @Value("${weather.alert.consecutive.threshold:2}")
-    private int consecutiveThreshold;
+    @Autowired
+    private AlertRuleEngine alertRuleEngine;
 
-    private Map<String, Integer> consecutiveBreaches = new HashMap<>();
+    private final AlertRuleEngine.AlertSink alertSink = this::publishAlert;
 
-    private List<String> activeAlerts = new ArrayList<>();
+    @Autowired
+    private WeatherEventStream weatherEventStream;
 
-    private Map<String, Double> lastTemperature = new HashMap<>();
-    private Map<String, Integer> lastHumidity = new HashMap<>();
+    private volatile DashboardSnapshot dashboard;
 
-    private final String historicalUrl = "https://api.openweathermap.org/data/2.5/onecall/timemachine?lat={lat}&lon={lon}&dt={timestamp}&appid={apiKey}";
+    // Dashboard stats come from the summaries, so rebuild it whenever queued readings land
+    @PostConstruct
+    void refreshDashboardOnFlush() {
+        summaryWriteBehind.setFlushListener(this::refreshDashboard);
+    }
 
     @Scheduled(fixedRateString = "${weather.fetch.interval}")
     public void fetchWeatherDataForIndianMetros() {
         System.out.println("Fetching weather data at: " + LocalDateTime.now());
-        for (String city : indianMetros) {
-            WeatherResponse response = getWeather(city);
-            if (response != null) {
-                processWeatherData(response);
-                checkAlertThresholds(response);
-            } else {
-                System.out.println("Failed to fetch weather data for " + city);
+        long tickStart = System.nanoTime();
+        long deadline = tickStart + tickTimeout.toNanos();
+
+        // While the OpenWeatherMap circuit is open the due cities stay queued and no quota is spent;
+        // pages keep serving the last readings
+        if (!upstreamGuards.owm().isCallPermitted()) {
+            logger.warn("OpenWeatherMap circuit is {}, skipping this tick", upstreamGuards.owm().breaker().state());
+            return;
+        }
+
+        // Only the cities that are due, as many group requests as the quota allows, fanned out across
+        // the pool; results are handed back to this thread as they complete so alert checks keep
+        // running on a single thread. Summaries are written once per tick.
+        List<List<City>> batches = refreshScheduler.plan(System.currentTimeMillis(), groupSize);
+        int planned = batches.stream().mapToInt(List::size).sum();
+        BlockingQueue<GroupFetchResult> completed = new LinkedBlockingQueue<>();
+        List<CompletableFuture<List<WeatherResponse>>> inFlight = new ArrayList<>(batches.size());
+        for (List<City> batch : batches) {
+            CompletableFuture<List<WeatherResponse>> future = cityFetchExecutor.submit(() -> fetchGroup(batch), cityTimeout);
+            future.whenComplete((responses, error) -> completed.add(new GroupFetchResult(batch, responses, error)));
+            inFlight.add(future);
+        }
+
+        List<WeatherResponse> tickReadings = new ArrayList<>(planned);
+        int received = 0;
+        int receivedCities = 0;
+        int timedOut = 0;
+        try {
+            while (received < batches.size()) {
+                long remaining = deadline - System.nanoTime();
+                GroupFetchResult result = remaining > 0 ? completed.poll(remaining, TimeUnit.NANOSECONDS) : null;
+                if (result == null) {
+                    break;
+                }
+                received++;
+                receivedCities += result.batch().size();
+                if (result.responses() != null) {
+                    long receivedAt = System.currentTimeMillis();
+                    for (WeatherResponse response : result.responses()) {
+                        refreshScheduler.markRefreshed(response.getName(), receivedAt);
+                        currentWeatherCache.put(normalizeCity(response.getName()), response);
+                        recordObservation(response.getName(), response);
+                        publishReading(response.getName(), response);
+                        tickReadings.add(response);
+                        checkAlertThresholds(response);
+                    }
+                } else if (result.error() instanceof TimeoutException) {
+                    timedOut += result.batch().size();
+                    logger.warn("Group fetch for {} cities starting at {} exceeded the per-request deadline of {}",
+                            result.batch().size(), result.batch().get(0).name(), cityTimeout);
+                } else {
+                    logger.warn("Failed to fetch weather data for {} cities starting at {}",
+                            result.batch().size(), result.batch().get(0).name());
+                }
             }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        processWeatherBatch(tickReadings);
+        refreshDashboard();
+
+        int abandoned = planned - receivedCities;
+        if (abandoned > 0) {
+            // Interrupts the requests still running; see CityFetchExecutor.submit for what that stops
+            inFlight.forEach(future -> future.cancel(true));
+            logger.warn("Weather tick deadline of {} reached with {} cities still pending", tickTimeout, abandoned);
         }
+        logger.info("Weather tick finished in {} ms with {} requests: {} ok, {} failed, {} timed out, {} abandoned, {} deferred",
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - tickStart), batches.size(),
+                tickReadings.size(), receivedCities - tickReadings.size() - timedOut, timedOut, abandoned,
+                refreshScheduler.queueDepth());
     }
 
+    /**
+     * Fetches current conditions for up to {@code weather.owm.group-size} registry cities in one
+     * request. Readings are renamed to the registry's canonical names; ids OpenWeatherMap did not
+     * return are simply missing from the result. Returns {@code null} if the request failed.
+     */
+    private List<WeatherResponse> fetchGroup(List<City> batch) {
+        StringBuilder ids = new StringBuilder();
+        for (City city : batch) {
+            if (ids.length() > 0) {
+                ids.append(',');
+            }
+            ids.append(city.owmId());
+        }
+        try {
+            GroupWeatherResponse group = upstreamGuards.owm().call(() -> restTemplate.execute(owmBaseUrl + groupUrl,
+                    HttpMethod.GET, ACCEPT_JSON, response -> OwmResponseParser.parseGroup(response.getBody()),
+                    Map.of("ids", ids.toString(), "apiKey", apiKey)));
+            if (group == null || group.getList() == null) {
+                return List.of();
+            }
+            List<WeatherResponse> responses = new ArrayList<>(group.getList().size());
+            for (WeatherResponse response : group.getList()) {
+                City city = cityRegistry.findByOwmId(response.getId());
+                if (city != null) {
+                    response.setName(city.name());
+                    responses.add(response);
+                }
+            }
+            return responses;
+        } catch (Exception e) {
+            logger.warn("Error fetching weather data for {} cities starting at {}: {}",
+                    batch.size(), batch.get(0).name(), e.getMessage());
+            return null;
+        }
+    }
+
+    private void recordObservation(String city, WeatherResponse response) {
+        if (response.getMain() == null) {
+            return;
+        }
+        WeatherResponse.Wind wind = response.getWind();
+        observationLog.append(new Observation(
+                normalizeCity(city),
+                response.getDt(),
+                (float) convertKelvinToCelsius(response.getMain().getTemp()),
+                (float) convertKelvinToCelsius(response.getMain().getFeels_like()),
+                response.getMain().getHumidity(),
+                wind != null ? (float) wind.getSpeed() : Float.NaN,
+                wind != null ? (float) wind.getDeg() : Float.NaN,
+                wind != null && wind.getGust() != null ? wind.getGust().floatValue() : Float.NaN,
+                freshAqi(aqiPipeline.snapshot().get(city), System.currentTimeMillis())));
+    }
+
+    private void publishReading(String city, WeatherResponse response) {
+        if (response.getMain() == null) {
+            return;
+        }
+        weatherEventStream.publishReading(normalizeCity(city), new LiveReading(
+                response.getName(),
+                response.getDt(),
+                convertKelvinToCelsius(response.getMain().getTemp()),
+                convertKelvinToCelsius(response.getMain().getFeels_like()),
+                response.getMain().getHumidity(),
+                response.getWind() != null ? response.getWind().getSpeed() : 0.0));
+    }
+
+    /**
+     * Raw readings for {@code city} on {@code date} (server time zone). Days already sealed into the
+     * compressed archive are decoded from it; the current day comes from the observation log.
+     */
+    public ObservationSeries getIntradayObservations(String city, LocalDate date) {
+        ZoneId zone = ZoneId.systemDefault();
+        long from = date.atStartOfDay(zone).toEpochSecond();
+        long to = date.plusDays(1).atStartOfDay(zone).toEpochSecond() - 1;
+        String key = normalizeCity(city);
+        if (observationArchive.lastSealedEpochSecond(key) >= from) {
+            return observationArchive.range(key, from, to);
+        }
+        return observationLog.range(key, from, to);
+    }
+
+    private record GroupFetchResult(List<City> batch, List<WeatherResponse> responses, Throwable error) {}
+
+    /**
+     * Returns current conditions for {@code city}, served from {@link CurrentWeatherCache}
+     * and only fetched from OpenWeatherMap when the scheduler has not refreshed it recently
+     * and the quota allows. Every call counts as demand, so viewed cities are refreshed more often.
+     */
     public WeatherResponse getWeather(String city) {
+        CurrentWeatherCache.Reading reading = getWeatherReading(city);
+        return reading != null ? reading.response() : null;
+    }
+
+    /** Like {@link #getWeather}, but also tells when the reading was fetched. */
+    public CurrentWeatherCache.Reading getWeatherReading(String city) {
+        refreshScheduler.recordDemand(canonicalName(city), System.currentTimeMillis());
+        return currentWeatherCache.get(normalizeCity(city), this::fetchWeatherOnDemand);
+    }
+
+    private WeatherResponse fetchWeatherOnDemand(String city) {
+        if (!upstreamGuards.owm().isCallPermitted()) {
+            logger.debug("OpenWeatherMap circuit is open, not fetching {} on demand", city);
+            return null;
+        }
+        if (!upstreamQuotas.owm().tryAcquire(System.currentTimeMillis())) {
+            logger.debug("OpenWeatherMap quota exhausted, not fetching {} on demand", city);
+            return null;
+        }
+        return fetchWeather(city);
+    }
+
+    // Cache and stream key for a city: registry aliases resolve to the same entry, case-insensitively
+    public String normalizeCity(String city) {
+        return canonicalName(city).toLowerCase(Locale.ROOT);
+    }
+
+    // Registry name for a city or one of its aliases; unknown cities are returned trimmed
+    private String canonicalName(String city) {
+        City known = cityRegistry.find(city);
+        return known != null ? known.name() : city.trim();
+    }
+
+    private WeatherResponse fetchWeather(String city) {
+        City known = cityRegistry.find(city);
         Map<String, String> params = new HashMap<>();
-        params.put("city", cityMapping.getOrDefault(city, city));
         params.put("apiKey", apiKey);
 
         try {
-            return restTemplate.getForObject(url, WeatherResponse.class, params);
+            if (known == null) {
+                params.put("city", city);
+                return upstreamGuards.owm().call(() ->
+                        restTemplate.execute(owmBaseUrl + url, HttpMethod.GET, ACCEPT_JSON, CURRENT_WEATHER, params));
+            }
+            params.put("id", Long.toString(known.owmId()));
+            WeatherResponse response = upstreamGuards.owm().call(() ->
+                    restTemplate.execute(owmBaseUrl + byIdUrl, HttpMethod.GET, ACCEPT_JSON, CURRENT_WEATHER, params));
+            if (response != null) {
+                response.setName(known.name());
+            }
+            return response;
         } catch (Exception e) {
             System.out.println("Error fetching weather data for " + city + ": " + e.getMessage());
             return null;
@@ -124,90 +379,108 @@ public class WeatherService {
         return kelvin - 273.15;
     }
 
-    @Transactional
     public void processWeatherData(WeatherResponse response) {
-        if (response != null && response.getMain() != null && !response.getWeather().isEmpty()) {
-            LocalDate today = LocalDate.now();
-            String city = response.getName();
-            double temp = convertKelvinToCelsius(response.getMain().getTemp());
-            String condition = response.getWeather().get(0).getMain();
-
-            DailyWeatherSummary summary = repository.findByCityAndDate(city, today)
-                    .orElse(new DailyWeatherSummary());
-
-            if (summary.getId() == null) {
-                summary.setCity(city);
-                summary.setDate(today);
-                summary.setMaxTemp(temp);
-                summary.setMinTemp(temp);
-                summary.setAverageTemp(temp);
-                summary.setDominantCondition(condition);
-                summary.setDataPointCount(1);
-            } else {
-                int newCount = summary.getDataPointCount() + 1;
-                double newAvg = (summary.getAverageTemp() * summary.getDataPointCount() + temp) / newCount;
-                summary.setAverageTemp(newAvg);
-                summary.setMaxTemp(Math.max(summary.getMaxTemp(), temp));
-                summary.setMinTemp(Math.min(summary.getMinTemp(), temp));
-                summary.setDataPointCount(newCount);
-
-                // Update dominant condition
-                Map<String, Integer> conditionCounts = new HashMap<>();
-                conditionCounts.put(summary.getDominantCondition(), summary.getDataPointCount() - 1);
-                conditionCounts.put(condition, conditionCounts.getOrDefault(condition, 0) + 1);
-                summary.setDominantCondition(Collections.max(conditionCounts.entrySet(), Map.Entry.comparingByValue()).getKey());
-            }
+        processWeatherBatch(Collections.singletonList(response));
+    }
 
-            summary.setHumidity(response.getMain().getHumidity());
-            repository.save(summary);
-            System.out.println("Saved daily summary: " + summary);
+    /**
+     * Queues a batch of readings (normally one scheduler tick) for today's per-city summaries and
+     * for the hourly/daily/monthly rollups of the hour they were observed in.
+     * {@link SummaryWriteBehind} coalesces them per city and writes them later with one batched
+     * upsert per table; running avg/min/max/count are recomputed in SQL.
+     */
+    public void processWeatherBatch(List<WeatherResponse> responses) {
+        LocalDate today = LocalDate.now();
+        List<DailyReading> readings = new ArrayList<>(responses.size());
+        List<RollupReading> rollupReadings = new ArrayList<>(responses.size());
+        AqiPipeline.Snapshot aqiSnapshot = aqiPipeline.snapshot();
+        long now = System.currentTimeMillis();
+        for (WeatherResponse response : responses) {
+            if (response != null && response.getMain() != null
+                    && response.getWeather() != null && !response.getWeather().isEmpty()) {
+                double temp = convertKelvinToCelsius(response.getMain().getTemp());
+                readings.add(new DailyReading(
+                        response.getName(),
+                        today,
+                        temp,
+                        response.getMain().getHumidity(),
+                        WeatherCondition.fromOwm(response.getWeather().get(0).getMain())));
+                rollupReadings.add(new RollupReading(
+                        response.getName(),
+                        response.getDt() > 0 ? response.getDt() : now / 1000,
+                        temp,
+                        response.getMain().getHumidity(),
+                        freshAqi(aqiSnapshot.get(response.getName()), now)));
+            }
         }
+        summaryWriteBehind.submit(readings);
+        weatherRollups.record(rollupReadings);
+        logger.debug("Queued {} daily summary readings for {}", readings.size(), today);
     }
 
+    /**
+     * Runs the compiled alert rules against one reading; fired alerts go to the alert store and
+     * the city's event stream. Returns whether any rule fired.
+     */
     public boolean checkAlertThresholds(WeatherResponse response) {
-        double currentTemp = convertKelvinToCelsius(response.getMain().getTemp());
-        int currentHumidity = response.getMain().getHumidity();
         String city = response.getName();
-        
-        boolean alertTriggered = false;
-        
-        // Check temperature change
-        if (lastTemperature.containsKey(city)) {
-            double tempDiff = currentTemp - lastTemperature.get(city);
-            if (Math.abs(tempDiff) >= 5 || tempDiff > 1) { // Alert if temperature changes by 5°C or more, or increases by more than 1°C
-                String alert = String.format("%s: Temperature has changed by %.2f°C. Current temperature: %.2f°C", 
-                                             city, tempDiff, currentTemp);
-                System.out.println(alert);
-                activeAlerts.add(alert);
-                alertTriggered = true;
-            }
-        }
-        
-        // Check humidity change
-        if (lastHumidity.containsKey(city)) {
-            int humidityDiff = currentHumidity - lastHumidity.get(city);
-            if (Math.abs(humidityDiff) >= 20 || humidityDiff > 2) { // Alert if humidity changes by 20% or more, or increases by more than 2%
-                String alert = String.format("%s: Humidity has changed by %d%%. Current humidity: %d%%", 
-                                             city, humidityDiff, currentHumidity);
-                System.out.println(alert);
-                activeAlerts.add(alert);
-                alertTriggered = true;
-            }
-        }
-        
-        // Update last known values
-        lastTemperature.put(city, currentTemp);
-        lastHumidity.put(city, currentHumidity);
-        
-        return alertTriggered;
+        int aqi = freshAqi(aqiPipeline.snapshot().get(city), System.currentTimeMillis());
+        return alertRuleEngine.evaluate(city,
+                convertKelvinToCelsius(response.getMain().getTemp()),
+                response.getMain().getHumidity(),
+                aqi != -1 ? aqi : Double.NaN,
+                alertSink) > 0;
+    }
+
+    private void publishAlert(String city, String kind, String message) {
+        WeatherAlert alert = alertStore.publish(city, kind, message);
+        weatherEventStream.publishAlert(normalizeCity(city), alert);
+        System.out.println(alert);
     }
 
-    public List<String> getActiveAlerts() {
-        return new ArrayList<>(activeAlerts);
+    public AlertStore.Snapshot getActiveAlerts() {
+        return alertStore.snapshot();
     }
 
     public void clearAlerts() {
-        activeAlerts.clear();
+        alertStore.clear();
+        refreshDashboard();
+    }
+
+    /** The dashboard as of the last scheduler tick or alert change; built on first use if no tick has finished yet. */
+    public DashboardSnapshot getDashboard() {
+        DashboardSnapshot current = dashboard;
+        return current != null ? current : refreshDashboard();
+    }
+
+    /**
+     * Rebuilds the dashboard from cached readings, the AQI snapshot and the alert store. Nothing
+     * here calls an upstream API or counts as demand. If the content is unchanged the previous
+     * snapshot is kept, so its version (and every client's ETag) stays valid.
+     */
+    public synchronized DashboardSnapshot refreshDashboard() {
+        LocalDate today = LocalDate.now();
+        Map<String, Map<String, Object>> stats = new HashMap<>();
+        Map<String, Map<String, Double>> todayData = new HashMap<>();
+        for (String city : cityRegistry.names()) {
+            CurrentWeatherCache.Reading reading = currentWeatherCache.peek(normalizeCity(city));
+            WeatherResponse response = reading != null ? reading.response() : null;
+            stats.put(city, currentStatsEntry(response));
+            todayData.put(city, todayDataEntry(city, response));
+        }
+        List<WeatherAlert> alerts = new ArrayList<>();
+        alertStore.snapshot().forEach(alerts::add);
+
+        DashboardSnapshot previous = dashboard;
+        long now = System.currentTimeMillis();
+        // Versions start at the build time so an ETag from before a restart never matches by accident
+        DashboardSnapshot next = new DashboardSnapshot(previous != null ? previous.version() + 1 : now, now,
+                today, stats, todayData, alerts);
+        if (next.sameContentAs(previous)) {
+            return previous;
+        }
+        dashboard = next;
+        return next;
     }
 
     public Map<String, Object> getWeatherStats(LocalDate date) {
@@ -217,16 +490,17 @@ public class WeatherService {
                 .mapToDouble(DailyWeatherSummary::getAverageTemp)
                 .summaryStatistics();
 
-        Map<String, Long> conditionCounts = summaries.stream()
-                .collect(Collectors.groupingBy(DailyWeatherSummary::getDominantCondition, Collectors.counting()));
-
-        Map.Entry<String, Long> dominantConditionEntry = conditionCounts.entrySet().stream()
-                .max(Map.Entry.comparingByValue())
-                .orElse(null);
+        // Sum the exact per-city histograms so the dominant condition reflects every reading of the day;
+        // a tally rather than ConditionCounts.add, whose 16-bit lanes only fit one city-day
+        ConditionTally conditions = new ConditionTally();
+        for (DailyWeatherSummary summary : summaries) {
+            conditions.add(summary.getConditionCounts());
+        }
+        WeatherCondition dominant = conditions.dominant();
 
-        String dominantCondition = dominantConditionEntry != null ? dominantConditionEntry.getKey() : "Unknown";
-        String dominantConditionReason = dominantConditionEntry != null 
-            ? String.format("Occurred %d out of %d times", dominantConditionEntry.getValue(), summaries.size())
+        String dominantCondition = dominant != null ? dominant.getDisplayName() : "Unknown";
+        String dominantConditionReason = dominant != null 
+            ? String.format("Occurred %d out of %d readings", conditions.count(dominant), conditions.total())
             : "No data available";
 
         Map<String, Object> stats = new HashMap<>();
@@ -240,6 +514,30 @@ public class WeatherService {
         return stats;
     }
 
+    /** Typed counterpart of {@link #getWeatherStats}, with the per-city summaries included. */
+    public DailyStats getDailyStats(LocalDate date) {
+        List<DailyWeatherSummary> summaries = repository.findByDate(date);
+        DoubleSummaryStatistics tempStats = new DoubleSummaryStatistics();
+        ConditionTally conditions = new ConditionTally();
+        List<DailyStats.CitySummary> cities = new ArrayList<>(summaries.size());
+        for (DailyWeatherSummary summary : summaries) {
+            tempStats.accept(summary.getAverageTemp());
+            conditions.add(summary.getConditionCounts());
+            cities.add(new DailyStats.CitySummary(summary.getCity(), summary.getAverageTemp(), summary.getMaxTemp(),
+                    summary.getMinTemp(), summary.getHumidity(), summary.getDominantCondition(), summary.getDataPointCount()));
+        }
+        WeatherCondition dominant = conditions.dominant();
+        boolean empty = summaries.isEmpty();
+        return new DailyStats(date,
+                empty ? null : tempStats.getAverage(),
+                empty ? null : tempStats.getMax(),
+                empty ? null : tempStats.getMin(),
+                dominant != null ? dominant.getDisplayName() : null,
+                dominant != null ? conditions.count(dominant) : 0,
+                conditions.total(),
+                cities);
+    }
+
     public void printDailyWeatherSummary(LocalDate date) {
         Map<String, Object> stats = getWeatherStats(date);
         System.out.println("Weather Summary for " + date);
@@ -254,99 +552,96 @@ public class WeatherService {
             .collect(Collectors.toMap(
                 city -> city,
                 city -> {
-                    Optional<DailyWeatherSummary> summaryOpt = repository.findByCityAndDate(cityMapping.getOrDefault(city, city), date);
+                    Optional<DailyWeatherSummary> summaryOpt = repository.findByCityAndDate(canonicalName(city), date);
                     if (summaryOpt.isEmpty()) {
                         return Map.of("hasError", true, "errorMessage", "No data available");
                     }
-                    DailyWeatherSummary summary = summaryOpt.get();
-                    return new HashMap<String, Object>() {{
-                        put("hasError", false);
-                        put("averageTemp", String.format("%.2f", summary.getAverageTemp()));
-                        put("maxTemp", String.format("%.2f", summary.getMaxTemp()));
-                        put("minTemp", String.format("%.2f", summary.getMinTemp()));
-                        put("dominantCondition", summary.getDominantCondition());
-                        put("humidity", summary.getHumidity());
-                    }};
+                    return summaryEntry(summaryOpt.get());
                 }
             ));
     }
 
-    public Map<String, Map<String, Object>> getAllWeatherStats() {
-        return indianMetros.stream()
-            .collect(Collectors.toMap(
-                city -> city,
-                city -> {
-                    WeatherResponse response = getWeather(city);
-                    if (response == null || response.getMain() == null || response.getWeather().isEmpty()) {
-                        return Map.of("hasError", true, "errorMessage", "No data available");
-                    }
-                    return Map.of(
-                        "hasError", false,
-                        "main", response.getWeather().get(0).getMain(),
-                        "temp", String.format("%.2f", convertKelvinToCelsius(response.getMain().getTemp())),
-                        "feels_like", String.format("%.2f", convertKelvinToCelsius(response.getMain().getFeels_like())),
-                        "dt", LocalDateTime.ofInstant(Instant.ofEpochSecond(response.getDt()), ZoneId.systemDefault()).toString()
-                    );
-                }
-            ));
+    private Map<String, Object> summaryEntry(DailyWeatherSummary summary) {
+        Map<String, Object> entry = new HashMap<>();
+        entry.put("hasError", false);
+        entry.put("averageTemp", String.format("%.2f", summary.getAverageTemp()));
+        entry.put("maxTemp", String.format("%.2f", summary.getMaxTemp()));
+        entry.put("minTemp", String.format("%.2f", summary.getMinTemp()));
+        entry.put("dominantCondition", summary.getDominantCondition());
+        entry.put("humidity", summary.getHumidity());
+        return Collections.unmodifiableMap(entry);
+    }
+
+    private Map<String, Object> currentStatsEntry(WeatherResponse response) {
+        if (response == null || response.getMain() == null || response.getWeather().isEmpty()) {
+            return Map.of("hasError", true, "errorMessage", "No data available");
+        }
+        return Map.of(
+            "hasError", false,
+            "main", response.getWeather().get(0).getMain(),
+            "temp", String.format("%.2f", convertKelvinToCelsius(response.getMain().getTemp())),
+            "feels_like", String.format("%.2f", convertKelvinToCelsius(response.getMain().getFeels_like())),
+            "dt", LocalDateTime.ofInstant(Instant.ofEpochSecond(response.getDt()), ZoneId.systemDefault()).toString()
+        );
     }
 
     public List<DailyWeatherSummary> getDailySummaries(LocalDate date) {
         return repository.findByDate(date);
     }
 
+    @Transactional(readOnly = true)
     public Map<LocalDate, Map<String, Object>> getWeatherTrends(LocalDate startDate, LocalDate endDate) {
         Map<LocalDate, Map<String, Object>> trends = new LinkedHashMap<>();
         
-        // Get all data from the earliest date in the database up to the end date
-        LocalDate earliestDate = repository.findEarliestDate();
-        if (earliestDate == null || earliestDate.isAfter(startDate)) {
-            earliestDate = startDate;
-        }
-        
-        LocalDate currentDate = earliestDate;
-        while (!currentDate.isAfter(endDate)) {
-            List<DailyWeatherSummary> summaries = getDailySummaries(currentDate);
-            DoubleSummaryStatistics tempStats = summaries.stream()
-                    .mapToDouble(DailyWeatherSummary::getAverageTemp)
-                    .summaryStatistics();
-            
-            Map<String, Object> dailyStats = new HashMap<>();
-            dailyStats.put("averageTemp", tempStats.getAverage());
-            dailyStats.put("maxTemp", tempStats.getMax());
-            dailyStats.put("minTemp", tempStats.getMin());
-            
-            trends.put(currentDate, dailyStats);
-            currentDate = currentDate.plusDays(1);
+        // One aggregate row per day that has data; gaps keep the empty-day values so the map stays contiguous
+        LocalDate nextDate = startDate;
+        try (Stream<DailyTemperatureAggregate> rows = repository.streamDailyTemperatureAggregates(startDate, endDate)) {
+            Iterator<DailyTemperatureAggregate> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                DailyTemperatureAggregate row = iterator.next();
+                nextDate = putEmptyDays(trends, nextDate, row.date());
+                putDailyStats(trends, row.date(), row.averageTemp(), row.maxTemp(), row.minTemp());
+                nextDate = row.date().plusDays(1);
+            }
         }
+        putEmptyDays(trends, nextDate, endDate.plusDays(1));
         return trends;
     }
 
-    public Map<LocalDate, Map<String, Object>> getWeatherTrendsWithHistorical(LocalDate startDate, LocalDate endDate) {
-        Map<LocalDate, Map<String, Object>> trends = new LinkedHashMap<>();
-        
-        LocalDate currentDate = startDate;
-        while (!currentDate.isAfter(endDate)) {
-            Map<String, Object> dailyData = new HashMap<>();
-            for (String city : indianMetros) {
-                WeatherResponse currentWeather = getWeather(city);
-                if (currentWeather != null && currentWeather.getMain() != null) {
-                    double temp = convertKelvinToCelsius(currentWeather.getMain().getTemp());
-                    dailyData.put(city, temp);
-                }
-            }
-            trends.put(currentDate, dailyData);
-            currentDate = currentDate.plusDays(1);
+    /**
+     * Hands each per-day aggregate in the range to {@code action} as the database returns it, oldest
+     * first; days without data are skipped. Used to stream long ranges without building a map.
+     */
+    @Transactional(readOnly = true)
+    public void forEachDailyAggregate(LocalDate startDate, LocalDate endDate, Consumer<DailyTemperatureAggregate> action) {
+        try (Stream<DailyTemperatureAggregate> rows = repository.streamDailyTemperatureAggregates(startDate, endDate)) {
+            rows.forEach(action);
         }
-        
-        return trends;
+    }
+
+    private LocalDate putEmptyDays(Map<LocalDate, Map<String, Object>> trends, LocalDate from, LocalDate until) {
+        LocalDate date = from;
+        while (date.isBefore(until)) {
+            putDailyStats(trends, date, 0.0, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY);
+            date = date.plusDays(1);
+        }
+        return date;
+    }
+
+    private void putDailyStats(Map<LocalDate, Map<String, Object>> trends, LocalDate date,
+                               double averageTemp, double maxTemp, double minTemp) {
+        Map<String, Object> dailyStats = new HashMap<>();
+        dailyStats.put("averageTemp", averageTemp);
+        dailyStats.put("maxTemp", maxTemp);
+        dailyStats.put("minTemp", minTemp);
+        trends.put(date, dailyStats);
     }
 
     public Map<String, Double> getWeatherTrendsForToday() {
         Map<String, Double> trends = new HashMap<>();
         LocalDate today = LocalDate.now();
         
-        for (String city : indianMetros) {
+        for (String city : cityRegistry.names()) {
             Optional<DailyWeatherSummary> summary = repository.findByCityAndDate(city, today);
             if (summary.isPresent()) {
                 trends.put(city, summary.get().getAverageTemp());
@@ -362,29 +657,16 @@ public class WeatherService {
         return trends;
     }
 
-    public Map<String, Map<String, Double>> getWeatherDataForToday() {
-        Map<String, Map<String, Double>> data = new HashMap<>();
-        LocalDate today = LocalDate.now();
-        
-        for (String city : indianMetros) {
-            Map<String, Double> cityData = new HashMap<>();
-            WeatherResponse weatherResponse = getWeather(city);
-            if (weatherResponse != null && weatherResponse.getMain() != null) {
-                cityData.put("temperature", convertKelvinToCelsius(weatherResponse.getMain().getTemp()));
-                cityData.put("humidity", (double) weatherResponse.getMain().getHumidity());
-                
-                // Fetch AQI data from IQAir
-                int aqi = getAQIForCity(city);
-                if (aqi != -1) {
-                    cityData.put("aqi", (double) aqi);
-                } else {
-                    cityData.put("aqi", 0.0);
-                }
-            }
-            data.put(city, cityData);
+    private Map<String, Double> todayDataEntry(String city, WeatherResponse weatherResponse) {
+        if (weatherResponse == null || weatherResponse.getMain() == null) {
+            return Map.of();
         }
-        
-        return data;
+        // AQI comes from the pipeline snapshot; -1 when there is no recent value
+        return Map.of(
+            "temperature", convertKelvinToCelsius(weatherResponse.getMain().getTemp()),
+            "humidity", (double) weatherResponse.getMain().getHumidity(),
+            "aqi", (double) getAQIForCity(city, weatherResponse)
+        );
     }
 
     public int getAQI(double lat, double lon) {
@@ -393,127 +675,49 @@ public class WeatherService {
         return -1;
     }
 
-    private int getAQIForCity(String city) {
-        // First check cache
-        Optional<AQICache> cachedAQI = aqiCacheRepository.findFirstByCityOrderByLastUpdatedDesc(city);
-        if (cachedAQI.isPresent() && cachedAQI.get().isValid()) {
-            logger.info("Using cached AQI value {} for {}", cachedAQI.get().getAqiValue(), city);
-            return cachedAQI.get().getAqiValue();
-        }
-
-        // If not in cache or expired, fetch from API
-        int aqiValue = fetchAQIFromAPI(city);
-        
-        // If API call successful, cache the result
-        if (aqiValue != -1) {
-            AQICache aqiCache = new AQICache(city, aqiValue);
-            aqiCacheRepository.save(aqiCache);
-            logger.info("Cached new AQI value {} for {}", aqiValue, city);
-        } else if (cachedAQI.isPresent()) {
-            // If API call failed but we have cached data (even if expired), use it
-            logger.info("API call failed, using expired cache value {} for {}", cachedAQI.get().getAqiValue(), city);
-            return cachedAQI.get().getAqiValue();
-        }
-        
-        return aqiValue;
-    }
-
-    private int fetchAQIFromAPI(String city) {
-        // First, get the city's location details from OpenWeatherMap if it's not a mapped city
-        String state = cityStateMapping.get(city);
-        if (state == null) {
-            WeatherResponse weatherResponse = getWeather(city);
-            if (weatherResponse != null && weatherResponse.getCoord() != null) {
-                // Use the coordinates to get the nearest city data from IQAir
-                try {
-                    String nearestCityUrl = String.format(
-                        "http://api.airvisual.com/v2/nearest_city?lat=%.4f&lon=%.4f&key=%s",
-                        weatherResponse.getCoord().getLat(),
-                        weatherResponse.getCoord().getLon(),
-                        iqAirKey
-                    );
-                    ResponseEntity<Map> response = restTemplate.getForEntity(nearestCityUrl, Map.class);
-                    Map<String, Object> responseBody = response.getBody();
-                    
-                    if (responseBody != null && responseBody.get("status").equals("success")) {
-                        Map<String, Object> data = (Map<String, Object>) responseBody.get("data");
-                        Map<String, Object> current = (Map<String, Object>) data.get("current");
-                        Map<String, Object> pollution = (Map<String, Object>) current.get("pollution");
-                        
-                        int aqiValue = ((Number) pollution.get("aqius")).intValue();
-                        logger.info("Successfully retrieved AQI value {} for custom city {} using coordinates", aqiValue, city);
-                        return aqiValue;
-                    }
-                } catch (Exception e) {
-                    logger.error("Error fetching AQI data for custom city {} using coordinates: {}", city, e.getMessage());
-                }
+    /**
+     * AQI for {@code city} from the latest {@link AqiPipeline} snapshot, or -1 if there is none yet or
+     * it is older than {@code weather.aqi.max-age}. Never calls IQAir; a city outside the registry is
+     * handed to the pipeline (by the coordinates in {@code weather}) so later views have a value.
+     */
+    private int getAQIForCity(String city, WeatherResponse weather) {
+        City known = cityRegistry.find(city);
+        // Outside cities are keyed case-insensitively, so every spelling shares one tracked entry
+        String key = known != null ? known.name() : normalizeCity(city);
+        AqiCacheStore.CachedAqi cachedAQI = aqiPipeline.snapshot().get(key);
+        if (cachedAQI == null) {
+            if (known == null && weather != null && weather.getCoord() != null) {
+                aqiPipeline.track(key, weather.getCoord().getLat(), weather.getCoord().getLon());
             }
             return -1;
         }
+        return freshAqi(cachedAQI, System.currentTimeMillis());
+    }
 
-        // For mapped cities, use the existing logic
-        Map<String, String> params = new HashMap<>();
-        params.put("city", city);
-        params.put("state", state);
-        params.put("country", "India");
-        params.put("apiKey", iqAirKey);
+    // The cached value, or -1 if there is none or it is older than weather.aqi.max-age
+    private int freshAqi(AqiCacheStore.CachedAqi cached, long now) {
+        return cached != null && cached.ageMillis(now) <= aqiMaxAge.toMillis() ? cached.value() : -1;
+    }
 
-        try {
-            logger.info("Fetching AQI data for {}, {}", params.get("city"), params.get("state"));
-            String apiUrl = String.format("http://api.airvisual.com/v2/city?city=%s&state=%s&country=%s&key=%s",
-                params.get("city"), params.get("state"), "India", iqAirKey);
-            ResponseEntity<Map> response = restTemplate.getForEntity(apiUrl, Map.class);
-            
-            Map<String, Object> responseBody = response.getBody();
-            logger.info("Response from IQAir API for {}: {}", city, responseBody);
-            
-            if (responseBody != null && responseBody.get("status").equals("success")) {
-                Map<String, Object> data = (Map<String, Object>) responseBody.get("data");
-                Map<String, Object> current = (Map<String, Object>) data.get("current");
-                Map<String, Object> pollution = (Map<String, Object>) current.get("pollution");
-                
-                int aqiValue = ((Number) pollution.get("aqius")).intValue();
-                logger.info("Successfully retrieved AQI value {} for {}", aqiValue, city);
-                return aqiValue;
-            } else {
-                logger.error("Failed to get AQI data for {}. Response: {}", city, responseBody);
-                // For Hyderabad, try alternative name if first attempt fails
-                if (city.equals("Hyderabad")) {
-                    apiUrl = String.format("http://api.airvisual.com/v2/city?city=%s&state=%s&country=%s&key=%s",
-                        "Hyderabad City", "Telangana", "India", iqAirKey);
-                    response = restTemplate.getForEntity(apiUrl, Map.class);
-                    responseBody = response.getBody();
-                    
-                    if (responseBody != null && responseBody.get("status").equals("success")) {
-                        Map<String, Object> data = (Map<String, Object>) responseBody.get("data");
-                        Map<String, Object> current = (Map<String, Object>) data.get("current");
-                        Map<String, Object> pollution = (Map<String, Object>) current.get("pollution");
-                        
-                        int aqiValue = ((Number) pollution.get("aqius")).intValue();
-                        logger.info("Successfully retrieved AQI value {} for Hyderabad City", aqiValue);
-                        return aqiValue;
-                    }
-                    // If both attempts fail for Hyderabad, return default value
-                    return 150;
-                }
-            }
-        } catch (Exception e) {
-            logger.error("Error fetching AQI data for {}: {}", city, e.getMessage());
-            if (city.equals("Hyderabad")) {
-                return 150; // Default value for Hyderabad if API fails
-            }
+    /** Latest AQI of every registry city from the pipeline snapshot; never calls IQAir. */
+    public List<CityAqi> getAqiReadings() {
+        AqiPipeline.Snapshot snapshot = aqiPipeline.snapshot();
+        long now = System.currentTimeMillis();
+        List<CityAqi> readings = new ArrayList<>(cityRegistry.size());
+        for (City city : cityRegistry.all()) {
+            AqiCacheStore.CachedAqi cached = snapshot.get(city.name());
+            boolean fresh = cached != null && cached.ageMillis(now) <= aqiMaxAge.toMillis();
+            readings.add(new CityAqi(city.name(),
+                    fresh ? cached.value() : null,
+                    fresh ? getAQICategory(cached.value()) : null,
+                    cached != null ? Instant.ofEpochMilli(cached.fetchedAtEpochMilli()) : null));
         }
-        return -1;
+        return readings;
     }
 
     public String getAQICategory(int aqi) {
         // Using US EPA AQI categories (which IQAir uses)
-        if (aqi <= 50) return "Good";
-        if (aqi <= 100) return "Moderate";
-        if (aqi <= 150) return "Unhealthy for Sensitive Groups";
-        if (aqi <= 200) return "Unhealthy";
-        if (aqi <= 300) return "Very Unhealthy";
-        return "Hazardous";
+        return AqiCategory.of(aqi).getDisplayName();
     }
 
     // Add the missing method for AQI conversion
@@ -524,13 +728,8 @@ public class WeatherService {
 
     public Map<String, Double> getCityWeatherData(String city) {
         Map<String, Double> cityData = new HashMap<>();
-        WeatherResponse weatherResponse;
-
-        if (indianMetros.contains(city) || cityMapping.containsKey(city)) {
-            weatherResponse = getWeather(city);
-        } else {
-            weatherResponse = getWeatherForNonMetroCity(city);
-        }
+        // Cities outside the registry are cached (and quota-limited) like registry cities
+        WeatherResponse weatherResponse = getWeather(city);
 
         if (weatherResponse != null && weatherResponse.getMain() != null) {
             cityData.put("temperature", convertKelvinToCelsius(weatherResponse.getMain().getTemp()));
@@ -548,91 +747,79 @@ public class WeatherService {
         return cityData;
     }
 
-    private WeatherResponse getWeatherForNonMetroCity(String city) {
-        Map<String, String> params = new HashMap<>();
-        params.put("city", city);
-        params.put("apiKey", apiKey);
-
-        try {
-            return restTemplate.getForObject(url, WeatherResponse.class, params);
-        } catch (Exception e) {
-            System.out.println("Error fetching weather data for " + city + ": " + e.getMessage());
-            return null;
-        }
-    }
-
     public boolean isValidCity(String city) {
         // We'll consider any non-empty string as a potentially valid city name
         return city != null && !city.trim().isEmpty();
     }
 
-    public Map<String, Object> getCurrentWeatherData(String city) {
-        Map<String, Object> weatherData = new HashMap<>();
-        WeatherResponse response = getWeather(city);
-        
-        if (response != null && response.getMain() != null) {
-            // Temperature data
-            double tempCelsius = convertKelvinToCelsius(response.getMain().getTemp());
-            double feelsLikeCelsius = convertKelvinToCelsius(response.getMain().getFeels_like());
-            weatherData.put("temperature", String.format("%.1f", tempCelsius));
-            weatherData.put("feelsLike", String.format("%.1f", feelsLikeCelsius));
-
-            // Weather condition and icon
-            if (response.getWeather() != null && !response.getWeather().isEmpty()) {
-                WeatherResponse.WeatherData weatherInfo = response.getWeather().get(0);
-                weatherData.put("weatherCondition", weatherInfo.getMain());
-                weatherData.put("weatherIcon", weatherInfo.getIcon());
-                logger.info("Weather icon code: {}", weatherInfo.getIcon());
-            } else {
-                weatherData.put("weatherCondition", "N/A");
-                weatherData.put("weatherIcon", null);
-            }
+    /**
+     * Typed current conditions for {@code city}, or {@code null} if there is no reading.
+     * Served from the cache like {@link #getWeather}, so it counts as demand.
+     */
+    public CurrentConditions getCurrentConditions(String city) {
+        CurrentWeatherCache.Reading reading = getWeatherReading(city);
+        WeatherResponse response = reading != null ? reading.response() : null;
+        if (response == null || response.getMain() == null) {
+            return null;
+        }
+        WeatherResponse.WeatherData weatherInfo = response.getWeather() != null && !response.getWeather().isEmpty()
+                ? response.getWeather().get(0) : null;
+        WeatherResponse.Wind wind = response.getWind();
+        int aqi = getAQIForCity(city, response);
+        return new CurrentConditions(
+                response.getName() != null ? response.getName() : canonicalName(city),
+                convertKelvinToCelsius(response.getMain().getTemp()),
+                convertKelvinToCelsius(response.getMain().getFeels_like()),
+                response.getMain().getHumidity(),
+                weatherInfo != null ? weatherInfo.getMain() : null,
+                weatherInfo != null ? weatherInfo.getIcon() : null,
+                wind != null ? wind.getSpeed() * 3.6 : null, // m/s to km/h
+                wind != null ? getWindDirection(wind.getDeg()) : null,
+                wind != null && wind.getGust() != null ? wind.getGust() * 3.6 : null,
+                aqi != -1 ? aqi : null,
+                aqi != -1 ? getAQICategory(aqi) : null,
+                Instant.ofEpochSecond(response.getDt()),
+                Instant.ofEpochMilli(reading.fetchedAtEpochMilli()));
+    }
 
-            // Wind data
-            if (response.getWind() != null) {
-                double windSpeedKmh = response.getWind().getSpeed() * 3.6; // Convert m/s to km/h
-                weatherData.put("windSpeed", String.format("%.1f", windSpeedKmh));
-                weatherData.put("windDirection", getWindDirection(response.getWind().getDeg()));
-                
-                if (response.getWind().getGust() != null) {
-                    double windGustKmh = response.getWind().getGust() * 3.6;
-                    weatherData.put("windGusts", String.format("%.1f", windGustKmh));
-                } else {
-                    weatherData.put("windGusts", null);
-                }
-            } else {
-                weatherData.put("windSpeed", "N/A");
-                weatherData.put("windDirection", "N/A");
-                weatherData.put("windGusts", null);
-            }
-            
-            // AQI data
-            int aqi = getAQIForCity(city);
-            weatherData.put("aqi", aqi);
-            weatherData.put("aqiCategory", getAQICategory(aqi));
-            
-            // Timestamps
-            weatherData.put("currentTime", LocalDateTime.now());
-            weatherData.put("lastUpdated", LocalDateTime.ofInstant(
-                Instant.ofEpochSecond(response.getDt()), 
-                ZoneId.systemDefault()
-            ));
-        } else {
-            // Set default values if weather data is not available
-            weatherData.put("temperature", "N/A");
-            weatherData.put("feelsLike", "N/A");
-            weatherData.put("weatherCondition", "N/A");
-            weatherData.put("weatherIcon", null);
-            weatherData.put("windSpeed", "N/A");
-            weatherData.put("windDirection", "N/A");
-            weatherData.put("windGusts", null);
-            weatherData.put("aqi", -1);
-            weatherData.put("aqiCategory", "N/A");
-            weatherData.put("currentTime", LocalDateTime.now());
-            weatherData.put("lastUpdated", LocalDateTime.now());
+    /**
+     * The current-weather page for {@code city}. The formatted view is built once per cached reading
+     * and reused until the reading is replaced; a changed AQI only swaps that one field.
+     */
+    public CurrentWeatherView getCurrentWeatherView(String city) {
+        CurrentWeatherCache.Reading reading = getWeatherReading(city);
+        WeatherResponse response = reading != null ? reading.response() : null;
+        if (response == null || response.getMain() == null) {
+            return CurrentWeatherView.UNAVAILABLE;
         }
-        
-        return weatherData;
+        int aqi = getAQIForCity(city, response);
+        CurrentWeatherView view = reading.view();
+        if (view == null) {
+            view = buildCurrentWeatherView(response, reading.fetchedAtEpochMilli(), aqi);
+            reading.setView(view);
+        } else if (view.aqi() != aqi) {
+            view = view.withAqi(aqi, getAQICategory(aqi));
+            reading.setView(view);
+        }
+        return view;
+    }
+
+    private CurrentWeatherView buildCurrentWeatherView(WeatherResponse response, long fetchedAtEpochMilli, int aqi) {
+        WeatherResponse.WeatherData weatherInfo = response.getWeather() != null && !response.getWeather().isEmpty()
+                ? response.getWeather().get(0) : null;
+        WeatherResponse.Wind wind = response.getWind();
+        return new CurrentWeatherView(
+                String.format("%.1f", convertKelvinToCelsius(response.getMain().getTemp())),
+                String.format("%.1f", convertKelvinToCelsius(response.getMain().getFeels_like())),
+                weatherInfo != null ? weatherInfo.getMain() : "N/A",
+                weatherInfo != null ? weatherInfo.getIcon() : null,
+                wind != null ? String.format("%.1f", wind.getSpeed() * 3.6) : "N/A", // m/s to km/h
+                wind != null ? getWindDirection(wind.getDeg()) : "N/A",
+                wind != null && wind.getGust() != null ? String.format("%.1f", wind.getGust() * 3.6) : null,
+                aqi,
+                getAQICategory(aqi),
+                LocalDateTime.ofInstant(Instant.ofEpochSecond(response.getDt()), ZoneId.systemDefault()),
+                fetchedAtEpochMilli);
     }
 
     private String getWindDirection(Double degrees) {
@@ -0,0 +1,31 @@
+package com.example.weather_data.storage;
+
+/** Reads a stream written by {@link BitWriter}. */
+final class BitReader {
+    private final byte[] bytes;
+    private long bitPosition;
+
+    BitReader(byte[] bytes) {
+        this.bytes = bytes;
+    }
+
+    boolean readBit() {
+        boolean bit = (bytes[(int) (bitPosition >>> 3)] & (0x80 >>> (bitPosition & 7))) != 0;
+        bitPosition++;
+        return bit;
+    }
+
+    /** Reads {@code bits} bits as an unsigned value. */
+    long read(int bits) {
+        long value = 0;
+        while (bits > 0) {
+            int available = 8 - (int) (bitPosition & 7);
+            int n = Math.min(available, bits);
+            int chunk = (bytes[(int) (bitPosition >>> 3)] >>> (available - n)) & ((1 << n) - 1);
+            value = (value << n) | chunk;
+            bitPosition += n;
+            bits -= n;
+        }
+        return value;
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.weather_data.storage;
+
+import java.util.Arrays;
+
+/** Growable big-endian bit stream; the last byte is zero-padded. */
+final class BitWriter {
+    private byte[] bytes;
+    private long bitPosition;
+
+    BitWriter(int initialBytes) {
+        bytes = new byte[Math.max(16, initialBytes)];
+    }
+
+    void writeBit(boolean bit) {
+        ensureCapacity(1);
+        if (bit) {
+            bytes[(int) (bitPosition >>> 3)] |= (byte) (0x80 >>> (bitPosition & 7));
+        }
+        bitPosition++;
+    }
+
+    /** Writes the low {@code bits} bits of {@code value}, most significant first. */
+    void write(long value, int bits) {
+        ensureCapacity(bits);
+        while (bits > 0) {
+            int free = 8 - (int) (bitPosition & 7);
+            int n = Math.min(free, bits);
+            int chunk = (int) (value >>> (bits - n)) & ((1 << n) - 1);
+            bytes[(int) (bitPosition >>> 3)] |= (byte) (chunk << (free - n));
+            bitPosition += n;
+            bits -= n;
+        }
+    }
+
+    byte[] toByteArray() {
+        return Arrays.copyOf(bytes, (int) ((bitPosition + 7) >>> 3));
+    }
+
+    private void ensureCapacity(int bits) {
+        long needed = (bitPosition + bits + 7) >>> 3;
+        if (needed > bytes.length) {
+            bytes = Arrays.copyOf(bytes, (int) Math.max(needed, bytes.length * 2L));
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.weather_data.storage;
+
+/**
+ * One raw reading as stored in the {@link ObservationLog}. Temperatures are Celsius,
+ * wind speed and gust are m/s; absent gusts are {@code NaN} and an unknown AQI is {@code -1}.
+ */
+public record Observation(String city, long epochSecond, float temp, float feelsLike, int humidity,
+                          float windSpeed, float windDeg, float windGust, int aqi) {
+}
@@ -0,0 +1,272 @@
+package com.example.weather_data.storage;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Compressed archive of sealed observations. Each call to {@link #seal} appends one immutable
+ * block (typically a city's completed day) encoded by {@link ObservationBlock}, which takes a few
+ * bytes per reading instead of the log's fixed 40. Blocks of all cities share one append-only
+ * file; a sparse in-memory index holds one entry per block with its time span and file offset,
+ * rebuilt from the block headers on startup, so a range query decodes only the blocks it overlaps.
+ * <p>
+ * Seals are serialized; range reads use positional reads and may run concurrently with them.
+ */
+@Component
+public class ObservationArchive implements DisposableBean {
+    private static final Logger logger = LoggerFactory.getLogger(ObservationArchive.class);
+
+    // Block header: city id, reading count, first and last epoch second, payload length, payload CRC32
+    private static final int HEADER_BYTES = 32;
+
+    private static final String ARCHIVE_FILE = "observations.blk";
+    private static final String CITY_NAMES_FILE = "cities.txt";
+
+    private final Path directory;
+    private final FileChannel channel;
+    private final Map<String, Integer> cityIds = new ConcurrentHashMap<>();
+    private final Map<Integer, CityBlocks> cityBlocks = new ConcurrentHashMap<>();
+    private long endOffset;
+    private long readings;
+
+    public ObservationArchive(@Value("${weather.archive.dir:./data/archive}") Path directory) {
+        this.directory = directory;
+        try {
+            Files.createDirectories(directory);
+            loadCityNames();
+            channel = FileChannel.open(directory.resolve(ARCHIVE_FILE),
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            recover();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open observation archive in " + directory, e);
+        }
+    }
+
+    /**
+     * Appends {@code series} as one block for {@code city} unless it is empty or does not start
+     * after the last block sealed for the city. Timestamps must be strictly increasing.
+     */
+    public synchronized boolean seal(String city, ObservationSeries series) {
+        int count = series.size();
+        if (count == 0 || series.epochSeconds()[0] <= lastSealedEpochSecond(city)) {
+            return false;
+        }
+        long first = series.epochSeconds()[0];
+        long last = series.epochSeconds()[count - 1];
+        if (last - first > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("A block may span at most " + Integer.MAX_VALUE + " seconds");
+        }
+        byte[] payload = ObservationBlock.encode(series);
+
+        int cityId = cityIdFor(city);
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + payload.length);
+        buffer.putInt(cityId).putInt(count).putLong(first).putLong(last)
+                .putInt(payload.length).putInt(checksum(payload)).put(payload).flip();
+        try {
+            long offset = endOffset;
+            while (buffer.hasRemaining()) {
+                offset += channel.write(buffer, offset);
+            }
+            channel.force(false);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot seal " + count + " observations for " + city, e);
+        }
+        cityBlocks.computeIfAbsent(cityId, id -> new CityBlocks())
+                .add(new BlockRef(first, last, count, endOffset + HEADER_BYTES, payload.length));
+        endOffset += HEADER_BYTES + payload.length;
+        readings += count;
+        return true;
+    }
+
+    /** Returns every archived observation for {@code city} with {@code fromEpochSecond <= t <= toEpochSecond}. */
+    public ObservationSeries range(String city, long fromEpochSecond, long toEpochSecond) {
+        Integer cityId = cityIds.get(city);
+        CityBlocks index = cityId != null ? cityBlocks.get(cityId) : null;
+        if (index == null) {
+            return ObservationSeries.allocate(0);
+        }
+        int size = index.size;
+        BlockRef[] blocks = index.blocks;
+        int from = firstEndingAtOrAfter(blocks, size, fromEpochSecond);
+        int to = from;
+        int count = 0;
+        while (to < size && blocks[to].first() <= toEpochSecond) {
+            count += blocks[to].count();
+            to++;
+        }
+        ObservationSeries series = ObservationSeries.allocate(count);
+        int offset = 0;
+        for (int i = from; i < to; i++) {
+            ObservationBlock.decode(readPayload(blocks[i]), blocks[i].count(), series, offset);
+            offset += blocks[i].count();
+        }
+        // Only the first and last block can hold readings outside the range
+        int start = 0;
+        while (start < count && series.epochSeconds()[start] < fromEpochSecond) {
+            start++;
+        }
+        int end = count;
+        while (end > start && series.epochSeconds()[end - 1] > toEpochSecond) {
+            end--;
+        }
+        return start == 0 && end == count ? series : series.slice(start, end);
+    }
+
+    /** Epoch second of the newest reading sealed for {@code city}, or {@link Long#MIN_VALUE} if none. */
+    public long lastSealedEpochSecond(String city) {
+        Integer cityId = cityIds.get(city);
+        CityBlocks index = cityId != null ? cityBlocks.get(cityId) : null;
+        if (index == null || index.size == 0) {
+            return Long.MIN_VALUE;
+        }
+        int size = index.size;
+        return index.blocks[size - 1].last();
+    }
+
+    public synchronized long readings() {
+        return readings;
+    }
+
+    public synchronized long sizeBytes() {
+        return endOffset;
+    }
+
+    private byte[] readPayload(BlockRef block) {
+        ByteBuffer buffer = ByteBuffer.allocate(block.length());
+        try {
+            long position = block.offset();
+            while (buffer.hasRemaining()) {
+                int read = channel.read(buffer, position);
+                if (read < 0) {
+                    throw new IOException("Unexpected end of archive");
+                }
+                position += read;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read archived block at " + block.offset(), e);
+        }
+        return buffer.array();
+    }
+
+    // First block whose last reading is at or after epochSecond; blocks of a city never overlap
+    private static int firstEndingAtOrAfter(BlockRef[] blocks, int size, long epochSecond) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (blocks[mid].last() < epochSecond) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private int cityIdFor(String city) {
+        Integer existing = cityIds.get(city);
+        if (existing != null) {
+            return existing;
+        }
+        int id = cityIds.size() + 1;
+        try {
+            Files.writeString(directory.resolve(CITY_NAMES_FILE), city + System.lineSeparator(), StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot register city " + city + " in observation archive", e);
+        }
+        cityIds.put(city, id);
+        return id;
+    }
+
+    private void loadCityNames() throws IOException {
+        Path names = directory.resolve(CITY_NAMES_FILE);
+        if (Files.exists(names)) {
+            List<String> lines = Files.readAllLines(names, StandardCharsets.UTF_8);
+            for (int i = 0; i < lines.size(); i++) {
+                cityIds.put(lines.get(i), i + 1);
+            }
+        }
+    }
+
+    // Re-indexes every complete block and truncates a torn or corrupt tail left by a crash mid-seal
+    private void recover() throws IOException {
+        long size = channel.size();
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        while (endOffset + HEADER_BYTES <= size) {
+            header.clear();
+            channel.read(header, endOffset);
+            header.flip();
+            int cityId = header.getInt();
+            int count = header.getInt();
+            long first = header.getLong();
+            long last = header.getLong();
+            int length = header.getInt();
+            int checksum = header.getInt();
+            BlockRef block = new BlockRef(first, last, count, endOffset + HEADER_BYTES, length);
+            if (cityId <= 0 || count <= 0 || length <= 0 || block.offset() + length > size
+                    || checksum != checksum(readPayload(block))) {
+                break;
+            }
+            cityBlocks.computeIfAbsent(cityId, id -> new CityBlocks()).add(block);
+            endOffset = block.offset() + length;
+            readings += count;
+        }
+        if (endOffset < size) {
+            logger.warn("Discarding {} bytes of incomplete blocks at the end of {}", size - endOffset, ARCHIVE_FILE);
+            channel.truncate(endOffset);
+        }
+        if (readings > 0) {
+            logger.info("Recovered {} archived observations for {} cities from {}", readings, cityIds.size(), directory);
+        }
+    }
+
+    private static int checksum(byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+
+    @Override
+    public void destroy() throws IOException {
+        channel.close();
+    }
+
+    private record BlockRef(long first, long last, int count, long offset, int length) {}
+
+    /**
+     * A city's blocks in time order. As in the log's city index, the single writer publishes a
+     * larger array before bumping {@code size}, so readers read {@code size} first.
+     */
+    private static final class CityBlocks {
+        private volatile BlockRef[] blocks = new BlockRef[16];
+        private volatile int size;
+
+        void add(BlockRef block) {
+            BlockRef[] current = blocks;
+            if (size == current.length) {
+                current = Arrays.copyOf(current, current.length * 2);
+                blocks = current;
+            }
+            current[size] = block;
+            size = size + 1;
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package com.example.weather_data.storage;
+
+/**
+ * Gorilla-style encoding of one city's readings into a single bit stream, column after column.
+ * Timestamps are stored as the first value followed by delta-of-deltas, so a station reporting
+ * on a steady cadence costs one bit per reading. Every other column is stored as the XOR of each
+ * value's bits with the previous one: an unchanged value costs one bit, and a changed one only
+ * its meaningful bits, reusing the previous leading/trailing-zero window when it fits.
+ * <p>
+ * Float columns are encoded from their raw bits, so {@code NaN} gusts and {@code -1} AQIs
+ * survive exactly.
+ */
+final class ObservationBlock {
+
+    private ObservationBlock() {
+    }
+
+    static byte[] encode(ObservationSeries series) {
+        int count = series.size();
+        BitWriter out = new BitWriter(count * 8);
+        encodeTimestamps(out, series.epochSeconds());
+        encodeFloats(out, series.temps());
+        encodeFloats(out, series.feelsLike());
+        encodeInts(out, series.humidity());
+        encodeFloats(out, series.windSpeeds());
+        encodeFloats(out, series.windDegs());
+        encodeFloats(out, series.windGusts());
+        encodeInts(out, series.aqi());
+        return out.toByteArray();
+    }
+
+    /** Decodes a block of {@code count} readings into {@code target} starting at index {@code offset}. */
+    static void decode(byte[] block, int count, ObservationSeries target, int offset) {
+        BitReader in = new BitReader(block);
+        decodeTimestamps(in, target.epochSeconds(), offset, count);
+        decodeFloats(in, target.temps(), offset, count);
+        decodeFloats(in, target.feelsLike(), offset, count);
+        decodeInts(in, target.humidity(), offset, count);
+        decodeFloats(in, target.windSpeeds(), offset, count);
+        decodeFloats(in, target.windDegs(), offset, count);
+        decodeFloats(in, target.windGusts(), offset, count);
+        decodeInts(in, target.aqi(), offset, count);
+    }
+
+    // Delta-of-delta buckets: '0', '10'+7, '110'+9, '1110'+12 and '1111'+32 bits
+    private static void encodeTimestamps(BitWriter out, long[] epochSeconds) {
+        out.write(epochSeconds[0], 64);
+        long previousDelta = 0;
+        for (int i = 1; i < epochSeconds.length; i++) {
+            long delta = epochSeconds[i] - epochSeconds[i - 1];
+            long deltaOfDelta = delta - previousDelta;
+            if (deltaOfDelta == 0) {
+                out.writeBit(false);
+            } else if (deltaOfDelta >= -63 && deltaOfDelta <= 64) {
+                out.write(0b10, 2);
+                out.write(deltaOfDelta + 63, 7);
+            } else if (deltaOfDelta >= -255 && deltaOfDelta <= 256) {
+                out.write(0b110, 3);
+                out.write(deltaOfDelta + 255, 9);
+            } else if (deltaOfDelta >= -2047 && deltaOfDelta <= 2048) {
+                out.write(0b1110, 4);
+                out.write(deltaOfDelta + 2047, 12);
+            } else {
+                out.write(0b1111, 4);
+                out.write(deltaOfDelta, 32);
+            }
+            previousDelta = delta;
+        }
+    }
+
+    private static void decodeTimestamps(BitReader in, long[] epochSeconds, int offset, int count) {
+        long previous = in.read(64);
+        epochSeconds[offset] = previous;
+        long delta = 0;
+        for (int i = 1; i < count; i++) {
+            if (!in.readBit()) {
+                // same delta as before
+            } else if (!in.readBit()) {
+                delta += in.read(7) - 63;
+            } else if (!in.readBit()) {
+                delta += in.read(9) - 255;
+            } else if (!in.readBit()) {
+                delta += in.read(12) - 2047;
+            } else {
+                delta += (int) in.read(32);
+            }
+            previous += delta;
+            epochSeconds[offset + i] = previous;
+        }
+    }
+
+    private static void encodeFloats(BitWriter out, float[] values) {
+        XorEncoder encoder = new XorEncoder(out, Float.floatToRawIntBits(values[0]));
+        for (int i = 1; i < values.length; i++) {
+            encoder.encode(Float.floatToRawIntBits(values[i]));
+        }
+    }
+
+    private static void encodeInts(BitWriter out, int[] values) {
+        XorEncoder encoder = new XorEncoder(out, values[0]);
+        for (int i = 1; i < values.length; i++) {
+            encoder.encode(values[i]);
+        }
+    }
+
+    private static void decodeFloats(BitReader in, float[] values, int offset, int count) {
+        XorDecoder decoder = new XorDecoder(in);
+        for (int i = 0; i < count; i++) {
+            values[offset + i] = Float.intBitsToFloat(decoder.next(i == 0));
+        }
+    }
+
+    private static void decodeInts(BitReader in, int[] values, int offset, int count) {
+        XorDecoder decoder = new XorDecoder(in);
+        for (int i = 0; i < count; i++) {
+            values[offset + i] = decoder.next(i == 0);
+        }
+    }
+
+    // '0' for an unchanged value, '10' + bits inside the previous window, or
+    // '11' + 5 bits of leading zeros + 5 bits of (length - 1) + the meaningful bits
+    private static final class XorEncoder {
+        private final BitWriter out;
+        private int previous;
+        private int leading = -1;
+        private int trailing;
+
+        XorEncoder(BitWriter out, int first) {
+            this.out = out;
+            this.previous = first;
+            out.write(first, 32);
+        }
+
+        void encode(int value) {
+            int xor = value ^ previous;
+            previous = value;
+            if (xor == 0) {
+                out.writeBit(false);
+                return;
+            }
+            int newLeading = Integer.numberOfLeadingZeros(xor);
+            int newTrailing = Integer.numberOfTrailingZeros(xor);
+            if (leading >= 0 && newLeading >= leading && newTrailing >= trailing) {
+                out.write(0b10, 2);
+                out.write(xor >>> trailing, 32 - leading - trailing);
+            } else {
+                leading = newLeading;
+                trailing = newTrailing;
+                int length = 32 - leading - trailing;
+                out.write(0b11, 2);
+                out.write(leading, 5);
+                out.write(length - 1, 5);
+                out.write(xor >>> trailing, length);
+            }
+        }
+    }
+
+    private static final class XorDecoder {
+        private final BitReader in;
+        private int previous;
+        private int leading;
+        private int trailing;
+
+        XorDecoder(BitReader in) {
+            this.in = in;
+        }
+
+        int next(boolean first) {
+            if (first) {
+                previous = (int) in.read(32);
+            } else if (in.readBit()) {
+                if (in.readBit()) {
+                    leading = (int) in.read(5);
+                    trailing = 32 - leading - ((int) in.read(5) + 1);
+                }
+                previous ^= (int) in.read(32 - leading - trailing) << trailing;
+            }
+            return previous;
+        }
+    }
+}
@@ -0,0 +1,359 @@
+package com.example.weather_data.storage;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.ToLongFunction;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Append-only log of raw observations, stored as fixed-width binary records in memory-mapped
+ * segment files that roll once full. An in-memory per-city index of record positions (rebuilt by
+ * scanning the segments on startup) turns a city/time range query into two binary searches and
+ * a sequential read straight out of the page cache.
+ * <p>
+ * Appends are serialized; range scans may run concurrently with them. Once every record of a full
+ * segment has been sealed into the {@link ObservationArchive}, {@link #dropSealedSegments} deletes
+ * it, so the log only holds the days the archive does not.
+ */
+@Component
+public class ObservationLog implements DisposableBean {
+    private static final Logger logger = LoggerFactory.getLogger(ObservationLog.class);
+
+    static final int RECORD_BYTES = 40;
+
+    // Record layout; city id 0 marks unwritten space, so it is written last
+    private static final int CITY_ID = 0;
+    private static final int EPOCH_SECOND = 4;
+    private static final int TEMP = 12;
+    private static final int FEELS_LIKE = 16;
+    private static final int HUMIDITY = 20;
+    private static final int WIND_SPEED = 24;
+    private static final int WIND_DEG = 28;
+    private static final int WIND_GUST = 32;
+    private static final int AQI = 36;
+
+    private static final String CITY_NAMES_FILE = "cities.txt";
+    private static final Pattern SEGMENT_FILE = Pattern.compile("observations-(\\d{6})\\.seg");
+
+    private final Path directory;
+    private final int recordsPerSegment;
+    // segments.get(i) is segment firstSegment + i; earlier ones have been dropped
+    private final List<MappedByteBuffer> segments = new CopyOnWriteArrayList<>();
+    private volatile int firstSegment;
+    // Range scans hold the read lock so a segment is never dropped under them
+    private final ReadWriteLock dropLock = new ReentrantReadWriteLock();
+    private final Map<String, Integer> cityIds = new ConcurrentHashMap<>();
+    private final Map<Integer, CityIndex> cityIndexes = new ConcurrentHashMap<>();
+    private long nextPosition;
+
+    public ObservationLog(@Value("${weather.observations.dir:./data/observations}") Path directory,
+                          @Value("${weather.observations.segment-size:16MB}") DataSize segmentSize) {
+        this.directory = directory;
+        this.recordsPerSegment = (int) (segmentSize.toBytes() / RECORD_BYTES);
+        try {
+            Files.createDirectories(directory);
+            loadCityNames();
+            recover();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open observation log in " + directory, e);
+        }
+    }
+
+    /**
+     * Appends {@code observation} unless it is not newer than the last one stored for its city
+     * (OpenWeatherMap repeats the same {@code dt} until the station reports again).
+     */
+    public synchronized boolean append(Observation observation) {
+        int cityId = cityIdFor(observation.city());
+        CityIndex index = cityIndexes.computeIfAbsent(cityId, id -> new CityIndex());
+        if (index.size > 0 && observation.epochSecond() <= epochSecondAt(index.positions[index.size - 1])) {
+            return false;
+        }
+
+        int segment = (int) (nextPosition / recordsPerSegment);
+        if (segment - firstSegment == segments.size()) {
+            segments.add(mapSegment(segment));
+        }
+        MappedByteBuffer buffer = segments.get(segment - firstSegment);
+        int offset = (int) (nextPosition % recordsPerSegment) * RECORD_BYTES;
+        buffer.putLong(offset + EPOCH_SECOND, observation.epochSecond());
+        buffer.putFloat(offset + TEMP, observation.temp());
+        buffer.putFloat(offset + FEELS_LIKE, observation.feelsLike());
+        buffer.putInt(offset + HUMIDITY, observation.humidity());
+        buffer.putFloat(offset + WIND_SPEED, observation.windSpeed());
+        buffer.putFloat(offset + WIND_DEG, observation.windDeg());
+        buffer.putFloat(offset + WIND_GUST, observation.windGust());
+        buffer.putInt(offset + AQI, observation.aqi());
+        buffer.putInt(offset + CITY_ID, cityId);
+
+        index.add(nextPosition);
+        nextPosition++;
+        return true;
+    }
+
+    /** Returns every observation for {@code city} with {@code fromEpochSecond <= t <= toEpochSecond}. */
+    public ObservationSeries range(String city, long fromEpochSecond, long toEpochSecond) {
+        Integer cityId = cityIds.get(city);
+        CityIndex index = cityId != null ? cityIndexes.get(cityId) : null;
+        if (index == null) {
+            return read(new long[0], 0, 0);
+        }
+        dropLock.readLock().lock();
+        try {
+            int size = index.size;
+            long[] positions = index.positions;
+            int from = lowerBound(positions, size, fromEpochSecond);
+            int to = lowerBound(positions, size, toEpochSecond == Long.MAX_VALUE ? toEpochSecond : toEpochSecond + 1);
+            return read(positions, from, to);
+        } finally {
+            dropLock.readLock().unlock();
+        }
+    }
+
+    /** Observations ever appended, including those in dropped segments. */
+    public long size() {
+        return nextPosition;
+    }
+
+    /** Observations still held in the log's segments. */
+    public long retained() {
+        return nextPosition - (long) firstSegment * recordsPerSegment;
+    }
+
+    /**
+     * Deletes the oldest full segments whose every record is at or before
+     * {@code lastSealedEpochSecond} of its city, stopping at the first one that is not, and
+     * returns how many were deleted. The segment still being appended to is always kept.
+     */
+    public synchronized int dropSealedSegments(ToLongFunction<String> lastSealedEpochSecond) {
+        String[] names = new String[cityIds.size() + 1];
+        cityIds.forEach((name, id) -> names[id] = name);
+        long[] sealedThrough = new long[names.length];
+        Arrays.fill(sealedThrough, Long.MIN_VALUE);
+        for (int id = 1; id < names.length; id++) {
+            if (names[id] != null) {
+                sealedThrough[id] = lastSealedEpochSecond.applyAsLong(names[id]);
+            }
+        }
+
+        int droppable = 0;
+        int full = (int) (nextPosition / recordsPerSegment) - firstSegment;
+        while (droppable < full && isSealed(segments.get(droppable), sealedThrough)) {
+            droppable++;
+        }
+        if (droppable == 0) {
+            return 0;
+        }
+
+        long retainedFrom = (long) (firstSegment + droppable) * recordsPerSegment;
+        dropLock.writeLock().lock();
+        try {
+            for (CityIndex index : cityIndexes.values()) {
+                index.dropBefore(retainedFrom);
+            }
+            for (int i = 0; i < droppable; i++) {
+                segments.remove(0);
+                Files.deleteIfExists(segmentPath(firstSegment));
+                firstSegment++;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot delete observation segment " + firstSegment, e);
+        } finally {
+            dropLock.writeLock().unlock();
+        }
+        logger.info("Dropped {} observation segments already sealed into the archive", droppable);
+        return droppable;
+    }
+
+    private boolean isSealed(MappedByteBuffer buffer, long[] sealedThrough) {
+        for (int record = 0; record < recordsPerSegment; record++) {
+            int offset = record * RECORD_BYTES;
+            int cityId = buffer.getInt(offset + CITY_ID);
+            if (cityId >= sealedThrough.length || buffer.getLong(offset + EPOCH_SECOND) > sealedThrough[cityId]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** Every city that has ever had an observation appended. */
+    public Set<String> cities() {
+        return Collections.unmodifiableSet(cityIds.keySet());
+    }
+
+    private ObservationSeries read(long[] positions, int from, int to) {
+        int count = Math.max(0, to - from);
+        long[] epochSeconds = new long[count];
+        float[] temps = new float[count];
+        float[] feelsLike = new float[count];
+        int[] humidity = new int[count];
+        float[] windSpeeds = new float[count];
+        float[] windDegs = new float[count];
+        float[] windGusts = new float[count];
+        int[] aqi = new int[count];
+        for (int i = 0; i < count; i++) {
+            long position = positions[from + i];
+            MappedByteBuffer buffer = segments.get((int) (position / recordsPerSegment) - firstSegment);
+            int offset = (int) (position % recordsPerSegment) * RECORD_BYTES;
+            epochSeconds[i] = buffer.getLong(offset + EPOCH_SECOND);
+            temps[i] = buffer.getFloat(offset + TEMP);
+            feelsLike[i] = buffer.getFloat(offset + FEELS_LIKE);
+            humidity[i] = buffer.getInt(offset + HUMIDITY);
+            windSpeeds[i] = buffer.getFloat(offset + WIND_SPEED);
+            windDegs[i] = buffer.getFloat(offset + WIND_DEG);
+            windGusts[i] = buffer.getFloat(offset + WIND_GUST);
+            aqi[i] = buffer.getInt(offset + AQI);
+        }
+        return new ObservationSeries(epochSeconds, temps, feelsLike, humidity, windSpeeds, windDegs, windGusts, aqi);
+    }
+
+    // First index in positions[0, size) whose record is at or after epochSecond
+    private int lowerBound(long[] positions, int size, long epochSecond) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (epochSecondAt(positions[mid]) < epochSecond) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private long epochSecondAt(long position) {
+        MappedByteBuffer buffer = segments.get((int) (position / recordsPerSegment) - firstSegment);
+        return buffer.getLong((int) (position % recordsPerSegment) * RECORD_BYTES + EPOCH_SECOND);
+    }
+
+    private int cityIdFor(String city) {
+        Integer existing = cityIds.get(city);
+        if (existing != null) {
+            return existing;
+        }
+        int id = cityIds.size() + 1;
+        try {
+            Files.writeString(directory.resolve(CITY_NAMES_FILE), city + System.lineSeparator(), StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot register city " + city + " in observation log", e);
+        }
+        cityIds.put(city, id);
+        return id;
+    }
+
+    private void loadCityNames() throws IOException {
+        Path names = directory.resolve(CITY_NAMES_FILE);
+        if (Files.exists(names)) {
+            List<String> lines = Files.readAllLines(names, StandardCharsets.UTF_8);
+            for (int i = 0; i < lines.size(); i++) {
+                cityIds.put(lines.get(i), i + 1);
+            }
+        }
+    }
+
+    // Maps existing segments in order, starting after the dropped ones, and re-indexes every record
+    // up to the first unwritten slot
+    private void recover() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            firstSegment = files.map(file -> SEGMENT_FILE.matcher(file.getFileName().toString()))
+                    .filter(Matcher::matches)
+                    .mapToInt(matcher -> Integer.parseInt(matcher.group(1)))
+                    .min()
+                    .orElse(0);
+        }
+        nextPosition = (long) firstSegment * recordsPerSegment;
+        for (int segment = firstSegment; Files.exists(segmentPath(segment)); segment++) {
+            segments.add(mapSegment(segment));
+        }
+        scan:
+        for (MappedByteBuffer buffer : segments) {
+            for (int record = 0; record < recordsPerSegment; record++) {
+                int cityId = buffer.getInt(record * RECORD_BYTES + CITY_ID);
+                if (cityId == 0) {
+                    break scan;
+                }
+                cityIndexes.computeIfAbsent(cityId, id -> new CityIndex()).add(nextPosition);
+                nextPosition++;
+            }
+        }
+        if (retained() > 0) {
+            logger.info("Recovered {} observations for {} cities from {}", retained(), cityIds.size(), directory);
+        }
+    }
+
+    private MappedByteBuffer mapSegment(int segment) {
+        try (FileChannel channel = FileChannel.open(segmentPath(segment),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) recordsPerSegment * RECORD_BYTES);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot map observation segment " + segment, e);
+        }
+    }
+
+    private Path segmentPath(int segment) {
+        return directory.resolve(String.format("observations-%06d.seg", segment));
+    }
+
+    @Override
+    public void destroy() {
+        segments.forEach(MappedByteBuffer::force);
+    }
+
+    /**
+     * Growable list of a city's record positions in append (and therefore time) order. The single
+     * writer publishes a larger array before bumping {@code size}, so a reader that reads
+     * {@code size} first always sees an array holding at least that many positions.
+     */
+    private static final class CityIndex {
+        private volatile long[] positions = new long[64];
+        private volatile int size;
+
+        void add(long position) {
+            long[] current = positions;
+            if (size == current.length) {
+                current = Arrays.copyOf(current, current.length * 2);
+                positions = current;
+            }
+            current[size] = position;
+            size = size + 1;
+        }
+
+        // Only called with no range scan in progress, so the positions can be moved in place
+        void dropBefore(long position) {
+            int keep = 0;
+            while (keep < size && positions[keep] < position) {
+                keep++;
+            }
+            if (keep > 0) {
+                System.arraycopy(positions, keep, positions, 0, size - keep);
+                size = size - keep;
+            }
+        }
+    }
+}
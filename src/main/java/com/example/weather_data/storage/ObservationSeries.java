@@ -0,0 +1,28 @@
+package com.example.weather_data.storage;
+
+import java.util.Arrays;
+
+/**
+ * Column-oriented result of an {@link ObservationLog} or {@link ObservationArchive} range scan:
+ * element {@code i} of every array belongs to the same reading, ordered by time.
+ */
+public record ObservationSeries(long[] epochSeconds, float[] temps, float[] feelsLike, int[] humidity,
+                                float[] windSpeeds, float[] windDegs, float[] windGusts, int[] aqi) {
+
+    public int size() {
+        return epochSeconds.length;
+    }
+
+    /** Copies readings {@code [from, to)} into a new series. */
+    public ObservationSeries slice(int from, int to) {
+        return new ObservationSeries(Arrays.copyOfRange(epochSeconds, from, to), Arrays.copyOfRange(temps, from, to),
+                Arrays.copyOfRange(feelsLike, from, to), Arrays.copyOfRange(humidity, from, to),
+                Arrays.copyOfRange(windSpeeds, from, to), Arrays.copyOfRange(windDegs, from, to),
+                Arrays.copyOfRange(windGusts, from, to), Arrays.copyOfRange(aqi, from, to));
+    }
+
+    static ObservationSeries allocate(int count) {
+        return new ObservationSeries(new long[count], new float[count], new float[count], new int[count],
+                new float[count], new float[count], new float[count], new int[count]);
+    }
+}
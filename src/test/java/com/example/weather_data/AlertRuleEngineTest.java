@@ -0,0 +1,90 @@
+package com.example.weather_data;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.weather_data.service.AlertRuleEngine;
+import com.example.weather_data.service.AlertRuleProperties;
+import com.example.weather_data.service.AlertRuleProperties.Rule;
+
+class AlertRuleEngineTest {
+
+    private final List<String> fired = new ArrayList<>();
+    private final AlertRuleEngine.AlertSink sink = (city, kind, message) -> fired.add(kind + "|" + message);
+
+    @Test
+    void deltaRuleComparesAgainstThePreviousReading() {
+        AlertRuleEngine engine = engine(new Rule("temperature-change", "temperature", "delta", 1.0, -5.0, null, null,
+                "changed by %.1f, now %.1f", true));
+
+        assertEquals(0, engine.evaluate("Delhi", 30, 50, Double.NaN, sink));
+        // above-exclusive: a rise of exactly 1.0 is not a breach
+        assertEquals(0, engine.evaluate("Delhi", 31, 50, Double.NaN, sink));
+        assertEquals(0, engine.evaluate("Delhi", 30, 50, Double.NaN, sink));
+        assertEquals(1, engine.evaluate("Delhi", 31.5, 50, Double.NaN, sink));
+        assertEquals(0, engine.evaluate("Delhi", 28, 50, Double.NaN, sink));
+        assertEquals(1, engine.evaluate("Delhi", 22, 50, Double.NaN, sink));
+        assertEquals(List.of("temperature-change|changed by 1.5, now 31.5", "temperature-change|changed by -6.0, now 22.0"), fired);
+    }
+
+    @Test
+    void builtInThresholdsNeedConsecutiveBreaches() {
+        AlertRuleEngine engine = engine();
+
+        assertEquals(0, engine.evaluate("Chennai", 36, 50, Double.NaN, sink));
+        assertEquals(0, engine.evaluate("Chennai", 34, 50, Double.NaN, sink));
+        assertEquals(0, engine.evaluate("Chennai", 36, 50, Double.NaN, sink));
+        assertEquals(1, engine.evaluate("Chennai", 37, 50, Double.NaN, sink));
+        assertEquals(1, engine.evaluate("Chennai", 38, 50, Double.NaN, sink));
+        // Streaks are tracked per city
+        assertEquals(0, engine.evaluate("Mumbai", 36, 50, Double.NaN, sink));
+        assertEquals("high-temperature|Temperature has been at or above 35.0°C for 3 readings. Current temperature: 38.00°C",
+                fired.get(1));
+    }
+
+    @Test
+    void aqiBandUsesTheCategoryLowerBoundAndSkipsUnknownValues() {
+        AlertRuleEngine engine = engine(new Rule("unhealthy-air", "aqi", null, null, null, "Unhealthy", null,
+                "AQI %2$.0f", null));
+
+        assertEquals(0, engine.evaluate("Delhi", 20, 50, 150, sink));
+        assertEquals(0, engine.evaluate("Delhi", 20, 50, Double.NaN, sink));
+        assertEquals(1, engine.evaluate("Delhi", 20, 50, 151, sink));
+        assertEquals(List.of("unhealthy-air|AQI 151"), fired);
+    }
+
+    @Test
+    void aqiBandFiresOnEntryOnly() {
+        AlertRuleEngine engine = engine(new Rule("unhealthy-air", "aqi", null, null, null, "Unhealthy", null,
+                "AQI %2$.0f", null));
+
+        assertEquals(1, engine.evaluate("Delhi", 20, 50, 160, sink));
+        // Staying in the band, or a stale AQI in between, is not a new alert
+        assertEquals(0, engine.evaluate("Delhi", 20, 50, 160, sink));
+        assertEquals(0, engine.evaluate("Delhi", 20, 50, Double.NaN, sink));
+        assertEquals(0, engine.evaluate("Delhi", 20, 50, 170, sink));
+        // Leaving and re-entering is
+        assertEquals(0, engine.evaluate("Delhi", 20, 50, 90, sink));
+        assertEquals(1, engine.evaluate("Delhi", 20, 50, 155, sink));
+        assertEquals(List.of("unhealthy-air|AQI 160", "unhealthy-air|AQI 155"), fired);
+    }
+
+    @Test
+    void invalidRulesFailAtStartup() {
+        assertThrows(IllegalArgumentException.class,
+                () -> engine(new Rule("wind", "wind", null, 10.0, null, null, null, null, null)));
+        assertThrows(IllegalArgumentException.class,
+                () -> engine(new Rule("no-bounds", "humidity", "delta", null, null, null, null, null, null)));
+        assertThrows(IllegalArgumentException.class,
+                () -> engine(new Rule("bad-message", "humidity", null, 90.0, null, null, null, "%d", null)));
+    }
+
+    private static AlertRuleEngine engine(Rule... rules) {
+        return new AlertRuleEngine(new AlertRuleProperties(List.of(rules)), 35.0, 80, 2);
+    }
+}
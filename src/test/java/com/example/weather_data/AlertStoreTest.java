@@ -0,0 +1,62 @@
+package com.example.weather_data;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.weather_data.service.AlertStore;
+import com.example.weather_data.service.WeatherAlert;
+
+class AlertStoreTest {
+
+    @Test
+    void keepsOnlyNewestAlertPerCityAndKindWithinCapacity() {
+        AlertStore store = new AlertStore(8, Duration.ofHours(1));
+        for (int i = 0; i < 20; i++) {
+            store.publish("City-" + i, "temperature-change", "reading " + i);
+        }
+        store.publish("City-19", "temperature-change", "newer reading");
+        store.publish("City-19", "humidity-change", "humidity");
+
+        List<String> visible = messages(store.snapshot());
+        assertEquals(List.of("reading 14", "reading 15", "reading 16", "reading 17", "reading 18",
+                "newer reading", "humidity"), visible);
+        assertEquals(22, store.lastSequence());
+    }
+
+    @Test
+    void snapshotIgnoresLaterPublishesAndClearHidesEverything() {
+        AlertStore store = new AlertStore(8, Duration.ofHours(1));
+        store.publish("Delhi", "temperature-change", "first");
+        AlertStore.Snapshot snapshot = store.snapshot();
+        store.publish("Delhi", "temperature-change", "second");
+
+        assertEquals(List.of("first"), messages(snapshot));
+        assertEquals(List.of("second"), messages(store.snapshotAfter(snapshot.getVersion())));
+
+        store.clear();
+        assertTrue(store.snapshot().isEmpty());
+        store.publish("Delhi", "temperature-change", "third");
+        assertEquals(List.of("third"), messages(store.snapshot()));
+    }
+
+    @Test
+    void expiredAlertsAreHidden() {
+        AlertStore store = new AlertStore(8, Duration.ZERO);
+        store.publish("Delhi", "temperature-change", "gone");
+        assertTrue(store.snapshot().isEmpty());
+    }
+
+    private static List<String> messages(AlertStore.Snapshot snapshot) {
+        List<String> messages = new ArrayList<>();
+        for (WeatherAlert alert : snapshot) {
+            messages.add(alert.message());
+        }
+        return messages;
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.weather_data;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.example.weather_data.entity.AQICache;
+import com.example.weather_data.repository.AQICacheRepository;
+import com.example.weather_data.service.AqiCacheStore;
+
+@SpringBootTest(properties = {"weather.fetch.interval=86400000", "weather.aqi.refresh-interval=86400000",
+        "spring.datasource.url=jdbc:h2:mem:aqi-cache-store-test"})
+class AqiCacheStoreTest {
+
+    private static final Duration TTL = Duration.ofMinutes(30);
+
+    @Autowired
+    AqiCacheStore store;
+
+    @Autowired
+    AQICacheRepository repository;
+
+    @Test
+    void repeatedPutsKeepOneRowPerCityAndWarmANewStore() {
+        store.put("Cachetown", 80);
+        store.put("Cachetown", 95);
+        AqiCacheStore.CachedAqi latest = store.put("Cachetown", 120);
+        store.put("Othertown", 10);
+
+        List<AQICache> rows = repository.findAll().stream().filter(row -> row.getCity().equals("Cachetown")).toList();
+        assertEquals(1, rows.size());
+        assertEquals(120, rows.get(0).getAqiValue());
+        assertEquals(latest.validUntilEpochMilli(), rows.get(0).getValidUntilEpochMilli());
+
+        // A store that has never been written to reads the table once, on first use
+        AqiCacheStore restarted = new AqiCacheStore(repository, TTL);
+        AqiCacheStore.CachedAqi warmed = restarted.get("Cachetown");
+        assertEquals(120, warmed.value());
+        assertEquals(latest.validUntilEpochMilli(), warmed.validUntilEpochMilli());
+        assertEquals(latest.fetchedAtEpochMilli(), warmed.fetchedAtEpochMilli(), 5.0);
+        assertEquals(10, restarted.all().get("Othertown").value());
+        assertNull(restarted.get("Nowhere"));
+    }
+}
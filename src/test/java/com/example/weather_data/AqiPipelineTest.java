@@ -0,0 +1,104 @@
+package com.example.weather_data;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import com.example.weather_data.service.AqiPipeline;
+import com.example.weather_data.service.UpstreamQuotas;
+import com.example.weather_data.service.WeatherService;
+
+/**
+ * Runs the AQI pipeline against a local stand-in for IQAir and OpenWeatherMap, and checks that
+ * page views only read its snapshot, that every IQAir request is charged to the quota and that a
+ * city IQAir does not know is not asked for again on the next run.
+ */
+@SpringBootTest
+class AqiPipelineTest {
+
+    private static final List<String> iqAirCities = new CopyOnWriteArrayList<>();
+    private static final AtomicInteger nearestCityRequests = new AtomicInteger();
+    private static UpstreamStub upstream;
+
+    @Autowired
+    AqiPipeline aqiPipeline;
+
+    @Autowired
+    WeatherService weatherService;
+
+    @Autowired
+    UpstreamQuotas upstreamQuotas;
+
+    @DynamicPropertySource
+    static void stubUpstream(DynamicPropertyRegistry registry) throws IOException {
+        upstream = UpstreamStub.start()
+                .route("/v2/city", exchange -> {
+                    String city = UpstreamStub.query(exchange, "city");
+                    iqAirCities.add(city);
+                    Integer aqi = Map.of("Delhi", 155, "Hyderabad City", 88).get(city);
+                    UpstreamStub.respond(exchange, aqi == null ? "{\"status\":\"fail\",\"data\":{\"message\":\"city_not_found\"}}"
+                            : "{\"status\":\"success\",\"data\":{\"current\":{\"pollution\":{\"aqius\":" + aqi + "}}}}");
+                })
+                .route("/v2/nearest_city", exchange -> {
+                    nearestCityRequests.incrementAndGet();
+                    UpstreamStub.respond(exchange, "{\"status\":\"success\",\"data\":{\"current\":{\"pollution\":{\"aqius\":61}}}}");
+                })
+                .route("/data/2.5/weather", exchange -> UpstreamStub.respond(exchange, "{\"id\":1259229,\"name\":\"Pune\","
+                        + "\"dt\":1729234800,\"coord\":{\"lat\":18.5196,\"lon\":73.8553},"
+                        + "\"main\":{\"temp\":300.15,\"feels_like\":301.15,\"humidity\":40}}"))
+                .route("/data/2.5/", exchange -> UpstreamStub.respond(exchange, "{\"cnt\":0,\"list\":[]}"));
+        upstream.register(registry, List.of(
+                "name,owm_id,lat,lon,iqair_state,aliases,iqair_names",
+                "Delhi,1273294,28.6667,77.2167,Delhi,,",
+                "Hyderabad,1269843,17.3753,78.4744,Telangana,,Hyderabad|Hyderabad City",
+                "Nowhere,7100001,10.0,70.0,Nowhere State,,"));
+        registry.add("spring.datasource.url", () -> "jdbc:h2:mem:aqi-pipeline-test");
+    }
+
+    @AfterAll
+    static void stopUpstream() {
+        upstream.stop();
+    }
+
+    @Test
+    void pipelinePublishesASnapshotThatPagesReadWithoutCallingIqAir() throws InterruptedException {
+        // The first scheduled run starts as soon as the pipeline is created
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (aqiPipeline.snapshot().values().size() < 2 && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+        }
+        assertEquals(155, aqiPipeline.snapshot().get("Delhi").value());
+        // Hyderabad is listed by IQAir under its alternate name
+        assertEquals(88, aqiPipeline.snapshot().get("Hyderabad").value());
+        assertNull(aqiPipeline.snapshot().get("Nowhere"));
+        assertEquals(List.of("Delhi", "Hyderabad", "Hyderabad City", "Nowhere"), iqAirCities.stream().sorted().toList());
+        // Four requests out of the five tokens the quota starts with; Hyderabad paid for both of its names
+        assertEquals(1, upstreamQuotas.iqAir().headroom(System.currentTimeMillis()));
+
+        // Nowhere failed and backs off instead of taking the last token again
+        aqiPipeline.refresh();
+        weatherService.refreshDashboard();
+        weatherService.getCurrentWeatherView("Hyderabad");
+        assertEquals(4, iqAirCities.size());
+
+        // A city outside the registry is tracked once, whatever the spelling of the page views
+        weatherService.getCurrentWeatherView("Pune");
+        weatherService.getCurrentWeatherView("PUNE");
+        aqiPipeline.refresh();
+        assertEquals(1, nearestCityRequests.get());
+        assertEquals(61, weatherService.getCurrentWeatherView(" pune").aqi());
+    }
+}
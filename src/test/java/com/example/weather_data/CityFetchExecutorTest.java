@@ -0,0 +1,118 @@
+package com.example.weather_data;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.example.weather_data.service.CityFetchExecutor;
+
+class CityFetchExecutorTest {
+
+    private final CityFetchExecutor executor = new CityFetchExecutor(4);
+
+    @AfterEach
+    void shutDown() {
+        executor.destroy();
+    }
+
+    @Test
+    void requestsRunInParallelUpToThePoolSize() throws Exception {
+        // Each task waits for all four to have started, so this only finishes if they run together
+        CountDownLatch started = new CountDownLatch(4);
+        List<CompletableFuture<Boolean>> futures = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            futures.add(executor.submit(() -> {
+                started.countDown();
+                return await(started);
+            }, Duration.ofSeconds(10)));
+        }
+        for (CompletableFuture<Boolean> future : futures) {
+            assertTrue(future.get(10, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    void runningRequestPastTheCityDeadlineTimesOutAndIsInterrupted() throws Exception {
+        CountDownLatch interrupted = new CountDownLatch(1);
+        CompletableFuture<String> future = executor.submit(() -> {
+            try {
+                Thread.sleep(10_000);
+                return "finished";
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+                return "interrupted";
+            }
+        }, Duration.ofMillis(100));
+
+        ExecutionException error = assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(TimeoutException.class, error.getCause());
+        assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void timeQueuedDoesNotCountAgainstTheDeadline() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        List<CompletableFuture<Boolean>> busy = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            busy.add(executor.submit(() -> await(release), Duration.ofSeconds(10)));
+        }
+        CompletableFuture<String> queued = executor.submit(() -> "done", Duration.ofMillis(200));
+        Thread.sleep(400);
+        release.countDown();
+
+        assertEquals("done", queued.get(5, TimeUnit.SECONDS));
+        for (CompletableFuture<Boolean> future : busy) {
+            assertTrue(future.get(5, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    void cancelledRequestIsInterruptedOrSkipped() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch running = new CountDownLatch(4);
+        List<CompletableFuture<Boolean>> busy = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            busy.add(executor.submit(() -> {
+                running.countDown();
+                return await(release);
+            }, Duration.ofSeconds(10)));
+        }
+        assertTrue(running.await(5, TimeUnit.SECONDS));
+        CountDownLatch ranQueued = new CountDownLatch(1);
+        CompletableFuture<String> queued = executor.submit(() -> {
+            ranQueued.countDown();
+            return "ran";
+        }, Duration.ofSeconds(10));
+
+        // The queued task never starts, and the running ones are interrupted without the release
+        queued.cancel(true);
+        busy.forEach(future -> future.cancel(true));
+        assertEquals("after", executor.submit(() -> "after", Duration.ofSeconds(5)).get(2, TimeUnit.SECONDS));
+        assertFalse(ranQueued.await(100, TimeUnit.MILLISECONDS));
+        assertEquals(1, release.getCount());
+    }
+
+    // True once the latch opens, false if the wait was interrupted or timed out
+    private static boolean await(CountDownLatch latch) {
+        try {
+            return latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.weather_data;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import com.example.weather_data.service.CityRegistry;
+import com.example.weather_data.service.WeatherResponse;
+import com.example.weather_data.service.WeatherService;
+import com.example.weather_data.storage.ObservationLog;
+
+/**
+ * Runs one scheduler tick for a 45-city registry against a local stand-in for OpenWeatherMap's
+ * group endpoint.
+ */
+@SpringBootTest
+class CityRegistryGroupFetchTest {
+
+    private static final int CITIES = 45;
+    private static final long FIRST_ID = 9_000_000;
+
+    private static final List<String> requestedIds = new CopyOnWriteArrayList<>();
+    private static UpstreamStub upstream;
+
+    @Autowired
+    CityRegistry cityRegistry;
+
+    @Autowired
+    WeatherService weatherService;
+
+    @Autowired
+    ObservationLog observationLog;
+
+    @DynamicPropertySource
+    static void stubUpstream(DynamicPropertyRegistry registry) throws IOException {
+        upstream = UpstreamStub.start().route("/data/2.5/group", exchange -> {
+            String ids = UpstreamStub.query(exchange, "id");
+            requestedIds.add(ids);
+            String list = Arrays.stream(ids.split(","))
+                    .map(id -> "{\"id\":" + id + ",\"name\":\"Upstream " + id + "\",\"dt\":1729234800,"
+                            + "\"main\":{\"temp\":300.15,\"feels_like\":301.15,\"humidity\":40},"
+                            + "\"weather\":[{\"main\":\"Clear\",\"icon\":\"01d\"}]}")
+                    .collect(Collectors.joining(","));
+            UpstreamStub.respond(exchange, "{\"cnt\":" + ids.split(",").length + ",\"list\":[" + list + "]}");
+        });
+
+        List<String> lines = new ArrayList<>(List.of("name,owm_id,lat,lon,iqair_state,aliases"));
+        for (int i = 0; i < CITIES; i++) {
+            lines.add("Stubville " + i + "," + (FIRST_ID + i) + ",20.0,78.0,Stub State," + (i == 7 ? "Old Stubville" : ""));
+        }
+        upstream.register(registry, lines);
+    }
+
+    @AfterAll
+    static void stopUpstream() {
+        upstream.stop();
+    }
+
+    @Test
+    void tickFetchesTheRegistryInGroupsOfTwenty() throws InterruptedException {
+        assertEquals(CITIES, cityRegistry.size());
+        assertEquals("Stubville 7", cityRegistry.find("old stubville").name());
+
+        // The first scheduled tick runs as soon as the service is created
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (observationLog.size() < CITIES && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+        }
+        assertEquals(CITIES, observationLog.size());
+
+        assertEquals(3, requestedIds.size());
+        Set<Long> fetched = new HashSet<>();
+        for (String batch : requestedIds) {
+            String[] ids = batch.split(",");
+            assertTrue(ids.length <= 20, "at most 20 ids per request");
+            Arrays.stream(ids).map(Long::parseLong).forEach(fetched::add);
+        }
+        assertEquals(CITIES, fetched.size());
+
+        // Readings are cached under the registry name, so aliases are served without another request
+        WeatherResponse cached = weatherService.getWeather("Old Stubville");
+        assertEquals("Stubville 7", cached.getName());
+        assertEquals(3, requestedIds.size());
+    }
+}
@@ -0,0 +1,162 @@
+package com.example.weather_data;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.weather_data.entity.DailyWeatherSummary;
+import com.example.weather_data.entity.RollupGranularity;
+import com.example.weather_data.entity.WeatherCondition;
+import com.example.weather_data.repository.DailyWeatherSummaryRepository;
+import com.example.weather_data.repository.DailyWeatherSummaryRepositoryCustom.DailyReading;
+import com.example.weather_data.repository.MergeRetry;
+import com.example.weather_data.repository.RollupDelta;
+import com.example.weather_data.repository.WeatherRollupRepository;
+import com.example.weather_data.repository.WeatherRollupRepositoryCustom.RollupReading;
+
+/**
+ * Checks that the MERGE upserts keep one row per key. The race tests force the first-insert race:
+ * another transaction inserts the same new key and commits only once the MERGE is blocked on it, so
+ * the MERGE's NOT MATCHED insert fails on the unique index and has to be retried as an update.
+ * Inside a caller's transaction the caller retries instead.
+ */
+@SpringBootTest(properties = {"weather.fetch.interval=86400000", "spring.datasource.url=jdbc:h2:mem:concurrent-merge-test"})
+class ConcurrentMergeTest {
+
+    private static final LocalDate DAY = LocalDate.of(2024, 5, 1);
+
+    @Autowired
+    DataSource dataSource;
+
+    @Autowired
+    DailyWeatherSummaryRepository summaries;
+
+    @Autowired
+    WeatherRollupRepository rollups;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Test
+    void upsertsForTheSameDayAccumulateIntoOneRow() {
+        LocalDate day = DAY.plusDays(1);
+        summaries.upsertReadings(List.of(
+                new DailyReading("Accumulate", day, 20.0, 40, WeatherCondition.CLEAR),
+                new DailyReading("Accumulate", day, 30.0, 50, WeatherCondition.RAIN)));
+        summaries.upsertReadings(List.of(new DailyReading("Accumulate", day, 10.0, 60, WeatherCondition.CLEAR)));
+
+        List<DailyWeatherSummary> rows = summaries.findByDate(day);
+        assertEquals(1, rows.size());
+        DailyWeatherSummary summary = rows.get(0);
+        assertEquals(3, summary.getDataPointCount());
+        assertEquals(20.0, summary.getAverageTemp(), 1e-9);
+        assertEquals(10.0, summary.getMinTemp(), 1e-9);
+        assertEquals(30.0, summary.getMaxTemp(), 1e-9);
+        assertEquals(60, summary.getHumidity());
+        assertEquals(2, summary.getConditionCounts().count(WeatherCondition.CLEAR));
+        assertEquals(1, summary.getConditionCounts().count(WeatherCondition.RAIN));
+    }
+
+    @Test
+    void dailySummaryMergeThatLosesTheInsertRaceIsRetriedAsAnUpdate() throws Exception {
+        raceFirstInsert("""
+                INSERT INTO daily_weather_summaries (city, date, average_temp, max_temp, min_temp, humidity,
+                    data_point_count, condition_counts0, condition_counts1, condition_counts2, condition_counts3)
+                VALUES ('Race', DATE '2024-05-01', 20.0, 20.0, 20.0, 40, 1, 0, 0, 0, 0)
+                """, () -> summaries.upsertReadings(List.of(new DailyReading("Race", DAY, 30.0, 50, WeatherCondition.RAIN))));
+
+        DailyWeatherSummary summary = summaries.findByCityAndDate("Race", DAY).orElseThrow();
+        assertEquals(2, summary.getDataPointCount());
+        assertEquals(25.0, summary.getAverageTemp(), 1e-9);
+        assertEquals(20.0, summary.getMinTemp(), 1e-9);
+        assertEquals(30.0, summary.getMaxTemp(), 1e-9);
+        assertEquals(50, summary.getHumidity());
+    }
+
+    @Test
+    void rollupMergeThatLosesTheInsertRaceIsRetriedAsAnUpdate() throws Exception {
+        long hour = 1_714_521_600L;
+        RollupDelta delta = new RollupDelta(new RollupDelta.Key(RollupGranularity.HOUR, "Race", hour));
+        delta.add(new RollupReading("Race", hour + 600, 30.0, 50, 80));
+        raceFirstInsert("""
+                INSERT INTO weather_rollups (granularity, city, bucket_start, reading_count, temp_sum, temp_sum_sq,
+                    temp_min, temp_max, humidity_sum, aqi_count, aqi_sum, aqi_min, aqi_max)
+                VALUES ('HOUR', 'Race', 1714521600, 1, 20.0, 400.0, 20.0, 20.0, 40, 0, 0, NULL, NULL)
+                """, () -> rollups.mergeDeltas(List.of(delta)));
+
+        var totals = rollups.totals(RollupGranularity.HOUR, "Race", hour, hour + 3_600);
+        assertEquals(2, totals.readings());
+        assertEquals(25.0, totals.averageTemp(), 1e-9);
+        assertEquals(80.0, totals.averageAqi(), 1e-9);
+    }
+
+    @Test
+    void mergeInsideACallersTransactionIsRetriedByTheCaller() throws Exception {
+        TransactionTemplate batch = new TransactionTemplate(transactionManager);
+        AtomicInteger attempts = new AtomicInteger();
+        raceFirstInsert("""
+                INSERT INTO daily_weather_summaries (city, date, average_temp, max_temp, min_temp, humidity,
+                    data_point_count, condition_counts0, condition_counts1, condition_counts2, condition_counts3)
+                VALUES ('Batch', DATE '2024-05-01', 20.0, 20.0, 20.0, 40, 1, 0, 0, 0, 0)
+                """, () -> MergeRetry.inTransaction(batch, () -> {
+                    attempts.incrementAndGet();
+                    summaries.upsertReadings(List.of(new DailyReading("Batch", DAY, 30.0, 50, WeatherCondition.RAIN)));
+                }));
+
+        // The first attempt's transaction was rolled back as a whole and the second one merged
+        assertEquals(2, attempts.get());
+        assertEquals(2, summaries.findByCityAndDate("Batch", DAY).orElseThrow().getDataPointCount());
+    }
+
+    private void raceFirstInsert(String insert, Runnable merge) throws Exception {
+        try (Connection first = dataSource.getConnection(); Connection monitor = dataSource.getConnection()) {
+            first.setAutoCommit(false);
+            try (Statement statement = first.createStatement()) {
+                statement.executeUpdate(insert);
+            }
+            CompletableFuture<Void> racing = CompletableFuture.runAsync(merge);
+            awaitBlockedMerge(monitor);
+            first.commit();
+            racing.get(30, TimeUnit.SECONDS);
+        }
+    }
+
+    // The MERGE's insert waits on the uncommitted row until the first transaction ends; unblocked,
+    // it finishes within milliseconds
+    private static void awaitBlockedMerge(Connection monitor) throws SQLException, InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        try (PreparedStatement query = monitor.prepareStatement("""
+                SELECT COUNT(*) FROM INFORMATION_SCHEMA.SESSIONS
+                WHERE EXECUTING_STATEMENT LIKE 'MERGE%'
+                  AND EXECUTING_STATEMENT_START < CURRENT_TIMESTAMP - INTERVAL '0.2' SECOND
+                """)) {
+            while (System.nanoTime() < deadline) {
+                try (ResultSet rows = query.executeQuery()) {
+                    rows.next();
+                    if (rows.getInt(1) > 0) {
+                        return;
+                    }
+                }
+                Thread.sleep(10);
+            }
+        }
+        throw new AssertionError("the MERGE never blocked on the uncommitted insert");
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.weather_data;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.weather_data.entity.ConditionCounts;
+import com.example.weather_data.entity.ConditionTally;
+import com.example.weather_data.entity.WeatherCondition;
+
+class ConditionCountsTest {
+
+    @Test
+    void everyConditionHasItsOwnLane() {
+        ConditionCounts counts = new ConditionCounts();
+        assertNull(counts.dominant());
+        for (WeatherCondition condition : WeatherCondition.values()) {
+            for (int i = 0; i <= condition.ordinal(); i++) {
+                counts.increment(condition);
+            }
+        }
+        // SNOW is the top lane of the first word, next to the sign bit: exact up to 32767
+        for (int i = 0; i < 32_000; i++) {
+            counts.increment(WeatherCondition.SNOW);
+        }
+
+        ConditionCounts later = new ConditionCounts();
+        later.increment(WeatherCondition.RAIN);
+        counts.add(later);
+
+        for (WeatherCondition condition : WeatherCondition.values()) {
+            int expected = condition.ordinal() + 1
+                    + (condition == WeatherCondition.SNOW ? 32_000 : 0)
+                    + (condition == WeatherCondition.RAIN ? 1 : 0);
+            assertEquals(expected, counts.count(condition), condition.name());
+        }
+        assertEquals(136 + 32_001, counts.total());
+        assertEquals(WeatherCondition.SNOW, counts.dominant());
+    }
+
+    @Test
+    void tallyAcrossCitiesDoesNotOverflowTheLanes() {
+        // A day of 1-minute readings in 60 cities: 86340 Clear readings would not fit a 16-bit lane
+        ConditionTally tally = new ConditionTally();
+        for (int city = 0; city < 60; city++) {
+            ConditionCounts day = new ConditionCounts();
+            for (int minute = 0; minute < 1_440; minute++) {
+                day.increment(minute == 0 ? WeatherCondition.SMOKE : WeatherCondition.CLEAR);
+            }
+            tally.add(day);
+        }
+        assertEquals(60 * 1_439, tally.count(WeatherCondition.CLEAR));
+        assertEquals(60, tally.count(WeatherCondition.SMOKE));
+        assertEquals(0, tally.count(WeatherCondition.CLOUDS));
+        assertEquals(60 * 1_440, tally.total());
+        assertEquals(WeatherCondition.CLEAR, tally.dominant());
+        assertNull(new ConditionTally().dominant());
+    }
+
+    @Test
+    void mapsOwmGroupsAndFallsBackToOther() {
+        assertEquals(WeatherCondition.THUNDERSTORM, WeatherCondition.fromOwm("Thunderstorm"));
+        assertEquals(WeatherCondition.CLEAR, WeatherCondition.fromOwm("Clear"));
+        assertEquals(WeatherCondition.CLOUDS, WeatherCondition.fromOwm("Clouds"));
+        assertEquals(WeatherCondition.OTHER, WeatherCondition.fromOwm("clear"));
+        assertEquals(WeatherCondition.OTHER, WeatherCondition.fromOwm("Volcano"));
+        assertEquals(WeatherCondition.OTHER, WeatherCondition.fromOwm(null));
+        for (WeatherCondition condition : WeatherCondition.values()) {
+            if (condition != WeatherCondition.OTHER) {
+                assertEquals(condition, WeatherCondition.fromOwm(condition.getDisplayName()));
+            }
+        }
+    }
+}
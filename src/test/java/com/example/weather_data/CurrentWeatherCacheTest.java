@@ -0,0 +1,134 @@
+package com.example.weather_data;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.example.weather_data.service.CityFetchExecutor;
+import com.example.weather_data.service.CurrentWeatherCache;
+import com.example.weather_data.service.WeatherResponse;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class CurrentWeatherCacheTest {
+
+    private final CityFetchExecutor executor = new CityFetchExecutor(2);
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @AfterEach
+    void shutDown() {
+        executor.destroy();
+    }
+
+    @Test
+    void staleReadingIsServedWhileOneBackgroundRefreshRuns() throws InterruptedException {
+        CurrentWeatherCache cache = cache(Duration.ofMinutes(10), Duration.ZERO);
+        cache.put("delhi", response("first"));
+        // Stale means older than stale-after, so a lookup in the same millisecond would still be fresh
+        Thread.sleep(5);
+
+        CountDownLatch release = new CountDownLatch(1);
+        Function<String, WeatherResponse> slowLoader = key -> {
+            loads.incrementAndGet();
+            await(release);
+            return response("second");
+        };
+        for (int i = 0; i < 20; i++) {
+            assertEquals("first", cache.get("delhi", slowLoader).response().getName());
+        }
+        release.countDown();
+
+        // Wait until the refreshed reading is visible
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!"second".equals(cache.get("delhi", key -> response("unexpected")).response().getName())
+                && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void freshReadingIsServedWithoutLoading() {
+        CurrentWeatherCache cache = cache(Duration.ofMinutes(10), Duration.ofMinutes(5));
+        cache.put("delhi", response("first"));
+
+        CurrentWeatherCache.Reading reading = cache.get("delhi", this::countingLoader);
+        assertEquals("first", reading.response().getName());
+        assertTrue(reading.ageMillis(System.currentTimeMillis()) < 1_000);
+        assertEquals(0, loads.get());
+    }
+
+    @Test
+    void readingPastTheMaxAgeIsLoadedSynchronously() throws InterruptedException {
+        CurrentWeatherCache cache = cache(Duration.ofMillis(50), Duration.ofMillis(10));
+        cache.put("delhi", response("first"));
+        Thread.sleep(100);
+
+        assertEquals("loaded", cache.get("delhi", this::countingLoader).response().getName());
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void concurrentMissesShareOneLoad() throws Exception {
+        CurrentWeatherCache cache = cache(Duration.ofMinutes(10), Duration.ofMinutes(5));
+        CountDownLatch release = new CountDownLatch(1);
+        WeatherResponse loaded = response("loaded");
+        ExecutorService callers = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<CurrentWeatherCache.Reading>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(callers.submit(() -> cache.get("delhi", key -> {
+                    loads.incrementAndGet();
+                    await(release);
+                    return loaded;
+                })));
+            }
+            // Let every caller reach the cache before the first load finishes
+            Thread.sleep(100);
+            release.countDown();
+            for (Future<CurrentWeatherCache.Reading> result : results) {
+                assertSame(loaded, result.get(5, TimeUnit.SECONDS).response());
+            }
+        } finally {
+            callers.shutdownNow();
+        }
+        assertEquals(1, loads.get());
+    }
+
+    private CurrentWeatherCache cache(Duration maxAge, Duration staleAfter) {
+        return new CurrentWeatherCache(maxAge, staleAfter, 100, Duration.ofSeconds(5), executor, new SimpleMeterRegistry());
+    }
+
+    private WeatherResponse countingLoader(String key) {
+        loads.incrementAndGet();
+        return response("loaded");
+    }
+
+    private static WeatherResponse response(String name) {
+        WeatherResponse response = new WeatherResponse();
+        response.setName(name);
+        return response;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
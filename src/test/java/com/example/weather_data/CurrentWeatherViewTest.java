@@ -0,0 +1,144 @@
+package com.example.weather_data;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.net.http.HttpResponse;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import com.example.weather_data.service.AqiPipeline;
+import com.example.weather_data.service.CurrentWeatherView;
+import com.example.weather_data.service.WeatherService;
+
+/**
+ * Builds the current-weather page view from a stubbed OpenWeatherMap reading and IQAir value that
+ * the test can change, and checks that it is formatted once and shared until the AQI changes.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class CurrentWeatherViewTest {
+
+    private static final long VIEWVILLE_ID = 7_000_001;
+    private static final long OBSERVED_AT = 1729234800;
+    private static final String READING = "{\"id\":" + VIEWVILLE_ID + ",\"name\":\"Upstream\",\"dt\":" + OBSERVED_AT + ","
+            + "\"main\":{\"temp\":300.15,\"feels_like\":301.15,\"humidity\":40},"
+            + "\"wind\":{\"speed\":5.0,\"deg\":90.0,\"gust\":10.0},"
+            + "\"weather\":[{\"main\":\"Clear\",\"icon\":\"01d\"}]}";
+
+    private static final AtomicInteger aqi = new AtomicInteger(120);
+    private static UpstreamStub upstream;
+
+    @LocalServerPort
+    int port;
+
+    @Autowired
+    WeatherService weatherService;
+
+    @Autowired
+    AqiPipeline aqiPipeline;
+
+    @DynamicPropertySource
+    static void stubUpstream(DynamicPropertyRegistry registry) throws IOException {
+        // Only Viewville has a reading; Dryville is in the registry but OpenWeatherMap has nothing for it
+        upstream = UpstreamStub.start()
+                .route("/data/2.5/group", exchange -> UpstreamStub.respond(exchange, "{\"cnt\":1,\"list\":[" + READING + "]}"))
+                .route("/data/2.5/weather", exchange -> {
+                    if (String.valueOf(VIEWVILLE_ID).equals(UpstreamStub.query(exchange, "id"))) {
+                        UpstreamStub.respond(exchange, READING);
+                    } else {
+                        UpstreamStub.respond(exchange, 404);
+                    }
+                })
+                .route("/v2/city", exchange -> UpstreamStub.respond(exchange,
+                        "{\"status\":\"success\",\"data\":{\"current\":{\"pollution\":{\"aqius\":" + aqi.get() + "}}}}"));
+        upstream.register(registry, List.of(
+                "name,owm_id,lat,lon,iqair_state,aliases",
+                "Viewville," + VIEWVILLE_ID + ",20.0,78.0,Stub State,Old Viewville",
+                "Dryville,7000002,21.0,78.0,,"));
+        registry.add("spring.datasource.url", () -> "jdbc:h2:mem:current-weather-view-test");
+        // Every pipeline run fetches Viewville's AQI again
+        registry.add("weather.aqi.cache-ttl", () -> "PT0S");
+    }
+
+    @AfterAll
+    static void stopUpstream() {
+        upstream.stop();
+    }
+
+    @Test
+    void viewIsFormattedOnceAndSharedByLaterRequests() throws InterruptedException {
+        CurrentWeatherView view = awaitView();
+        assertTrue(view.isAvailable());
+        assertEquals("27.0", view.temperature());
+        assertEquals("28.0", view.feelsLike());
+        assertEquals("Clear", view.weatherCondition());
+        assertEquals("01d", view.weatherIcon());
+        assertEquals("18.0", view.windSpeed());
+        assertEquals("E", view.windDirection());
+        assertEquals("36.0", view.windGusts());
+        assertEquals(120, view.aqi());
+        assertEquals("Unhealthy for Sensitive Groups", view.aqiCategory());
+        assertEquals(LocalDateTime.ofInstant(Instant.ofEpochSecond(OBSERVED_AT), ZoneId.systemDefault()), view.lastUpdated());
+
+        // Aliases and other spellings resolve to the same reading, and so to the same view
+        assertSame(view, weatherService.getCurrentWeatherView("Viewville"));
+        assertSame(view, weatherService.getCurrentWeatherView("old viewville"));
+    }
+
+    @Test
+    void changedAqiReplacesOnlyTheAqi() throws InterruptedException {
+        CurrentWeatherView before = awaitView();
+        try {
+            aqi.set(0);
+            aqiPipeline.refresh();
+            CurrentWeatherView after = weatherService.getCurrentWeatherView("Viewville");
+            assertNotSame(before, after);
+            assertEquals(0, after.aqi());
+            assertEquals("Good", after.aqiCategory());
+            assertEquals(before.temperature(), after.temperature());
+            assertEquals(before.windGusts(), after.windGusts());
+            assertEquals(before.fetchedAtEpochMilli(), after.fetchedAtEpochMilli());
+            assertSame(after, weatherService.getCurrentWeatherView("Viewville"));
+        } finally {
+            aqi.set(120);
+            aqiPipeline.refresh();
+        }
+    }
+
+    @Test
+    void cityWithoutAReadingRendersAsUnavailable() throws Exception {
+        CurrentWeatherView view = weatherService.getCurrentWeatherView("Dryville");
+        assertSame(CurrentWeatherView.UNAVAILABLE, view);
+        assertFalse(view.isAvailable());
+        assertEquals("N/A", view.getDataAge());
+
+        HttpResponse<String> page = LocalHttp.get(port, "/weather/Dryville");
+        assertEquals(200, page.statusCode());
+        assertTrue(page.body().contains("Last Updated: N/A"));
+    }
+
+    // The first pipeline run starts as soon as the pipeline is created
+    private CurrentWeatherView awaitView() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (aqiPipeline.snapshot().get("Viewville") == null && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+        }
+        return weatherService.getCurrentWeatherView("Viewville");
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.weather_data;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.http.HttpResponse;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import com.example.weather_data.service.AlertStore;
+import com.example.weather_data.service.DashboardSnapshot;
+import com.example.weather_data.service.WeatherService;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"weather.fetch.interval=86400000", "weather.aqi.refresh-interval=86400000"})
+class DashboardSnapshotTest {
+
+    @LocalServerPort
+    int port;
+
+    @Autowired
+    WeatherService weatherService;
+
+    @Autowired
+    AlertStore alertStore;
+
+    @Test
+    void unchangedDashboardIsServedAsNotModified() throws Exception {
+        DashboardSnapshot before = weatherService.refreshDashboard();
+        assertSame(before, weatherService.refreshDashboard(), "rebuilding unchanged content keeps the version");
+
+        HttpResponse<String> first = LocalHttp.get(port, "/weather/alerts");
+        assertEquals(200, first.statusCode());
+        String etag = first.headers().firstValue("ETag").orElseThrow();
+        assertTrue(first.headers().firstValue("Last-Modified").isPresent());
+
+        HttpResponse<String> revalidated = LocalHttp.get(port, "/weather/alerts", etag);
+        assertEquals(304, revalidated.statusCode());
+        assertEquals("", revalidated.body());
+
+        alertStore.publish("Delhi", "temperature-change", "dashboard etag test");
+        DashboardSnapshot after = weatherService.refreshDashboard();
+        assertNotEquals(before.version(), after.version());
+
+        HttpResponse<String> changed = LocalHttp.get(port, "/weather/alerts", etag);
+        assertEquals(200, changed.statusCode());
+        assertTrue(changed.body().contains("dashboard etag test"));
+        assertEquals(after.etag(), changed.headers().firstValue("ETag").orElseThrow());
+    }
+}
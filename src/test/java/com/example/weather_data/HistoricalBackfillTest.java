@@ -0,0 +1,197 @@
+package com.example.weather_data;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import com.example.weather_data.entity.DailyWeatherSummary;
+import com.example.weather_data.entity.RollupGranularity;
+import com.example.weather_data.entity.WeatherCondition;
+import com.example.weather_data.repository.DailyWeatherSummaryRepository;
+import com.example.weather_data.repository.DailyWeatherSummaryRepositoryCustom.DailyReading;
+import com.example.weather_data.repository.WeatherRollupRepository;
+import com.example.weather_data.service.BackfillProgress;
+import com.example.weather_data.service.HistoricalBackfill;
+import com.example.weather_data.service.UpstreamGuards;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Backfills against a local stand-in for OpenWeatherMap's 2.5 timemachine endpoint that answers
+ * with the 24 hourly readings of the UTC day around the requested {@code dt}, and can fail or
+ * leave out an hour for chosen latitudes.
+ */
+@SpringBootTest
+class HistoricalBackfillTest {
+
+    private static final ZoneId ZONE = ZoneId.systemDefault();
+
+    private static final Map<String, AtomicInteger> requests = new ConcurrentHashMap<>();
+    private static final Set<String> failingLatitudes = ConcurrentHashMap.newKeySet();
+    private static final Set<String> gappyLatitudes = ConcurrentHashMap.newKeySet();
+    private static UpstreamStub upstream;
+
+    @Autowired
+    HistoricalBackfill backfill;
+
+    @Autowired
+    DailyWeatherSummaryRepository summaries;
+
+    @Autowired
+    WeatherRollupRepository rollups;
+
+    @DynamicPropertySource
+    static void stubUpstream(DynamicPropertyRegistry registry) throws IOException {
+        upstream = UpstreamStub.start().route("/data/2.5/onecall/timemachine", exchange -> {
+            String lat = UpstreamStub.query(exchange, "lat");
+            requests.computeIfAbsent(lat, l -> new AtomicInteger()).incrementAndGet();
+            long dt = Long.parseLong(UpstreamStub.query(exchange, "dt"));
+            if (failingLatitudes.contains(lat)) {
+                UpstreamStub.respond(exchange, 500);
+                return;
+            }
+            // The 2.5 API returns the hours of the UTC day around dt; temperatures follow the local hour
+            long utcDayStart = Math.floorDiv(dt, 86_400) * 86_400;
+            String hourly = IntStream.range(0, 24)
+                    .filter(h -> !(gappyLatitudes.contains(lat) && h == 5))
+                    .mapToObj(h -> {
+                        long hour = utcDayStart + h * 3600L;
+                        int localHour = Instant.ofEpochSecond(hour).atZone(ZONE).getHour();
+                        return "{\"dt\":" + hour + ",\"temp\":" + (283.15 + localHour) + ",\"feels_like\":280.0,"
+                                + "\"humidity\":" + (40 + localHour) + ",\"wind_speed\":3.1,\"weather\":[{\"main\":\"Clear\"}]}";
+                    })
+                    .collect(Collectors.joining(","));
+            UpstreamStub.respond(exchange, "{\"lat\":" + lat + ",\"current\":{\"dt\":" + dt + ",\"temp\":290.0},\"hourly\":[" + hourly + "]}");
+        });
+        upstream.register(registry, List.of(
+                "name,owm_id,lat,lon,iqair_state,aliases",
+                "Backfill A,8000001,11.0,77.0,Stub State,",
+                "Backfill B,8000002,12.0,77.0,Stub State,",
+                "Backfill C,8000003,13.0,77.0,Stub State,",
+                "Backfill D,8000004,14.0,77.0,Stub State,"));
+        registry.add("spring.datasource.url", () -> "jdbc:h2:mem:backfill-test");
+        registry.add("weather.backfill.batch-size", () -> "2");
+    }
+
+    @AfterAll
+    static void stopUpstream() {
+        upstream.stop();
+    }
+
+    private static int requests(String latitude) {
+        AtomicInteger count = requests.get(latitude);
+        return count == null ? 0 : count.get();
+    }
+
+    // One call per UTC day the local day overlaps: one in UTC, two anywhere else
+    private static int callsPerDay(LocalDate date) {
+        LocalDate first = LocalDate.ofInstant(date.atStartOfDay(ZONE).toInstant(), ZoneOffset.UTC);
+        LocalDate last = LocalDate.ofInstant(date.plusDays(1).atStartOfDay(ZONE).toInstant().minusSeconds(1), ZoneOffset.UTC);
+        return (int) ChronoUnit.DAYS.between(first, last) + 1;
+    }
+
+    @Test
+    void failedDaysStayPendingAndResumeWithoutRefetchingStoredOnes() throws Exception {
+        LocalDate start = LocalDate.now(ZONE).minusDays(5);
+        LocalDate end = start.plusDays(2);
+        failingLatitudes.add("12.0");
+
+        BackfillProgress progress = backfill.start(List.of("Backfill A", "backfill b"), start, end).get(30, TimeUnit.SECONDS);
+        assertEquals(3, progress.fetched());
+        assertEquals(3, progress.failed());
+        assertEquals(3, progress.pendingUnits());
+        int calls = callsPerDay(start) + callsPerDay(start.plusDays(1)) + callsPerDay(end);
+        assertEquals(calls, requests("11.0"));
+        for (LocalDate date = start; !date.isAfter(end); date = date.plusDays(1)) {
+            DailyWeatherSummary summary = summaries.findByCityAndDate("Backfill A", date).orElseThrow();
+            assertEquals(24, summary.getDataPointCount());
+            assertEquals(21.5, summary.getAverageTemp(), 1e-9);
+            assertEquals(10.0, summary.getMinTemp(), 1e-9);
+            assertEquals(33.0, summary.getMaxTemp(), 1e-9);
+            assertTrue(summaries.findByCityAndDate("Backfill B", date).isEmpty());
+        }
+        long dayStart = start.atStartOfDay(ZONE).toEpochSecond();
+        long dayEnd = start.plusDays(1).atStartOfDay(ZONE).toEpochSecond();
+        assertEquals(24, rollups.totals(RollupGranularity.DAY, "Backfill A", dayStart, dayEnd).readings());
+        assertEquals(24, rollups.findBuckets(RollupGranularity.HOUR, "Backfill A", dayStart, dayEnd).size());
+
+        // Only Backfill B's days are fetched again, and A's are not counted twice
+        failingLatitudes.clear();
+        progress = backfill.resume().get(30, TimeUnit.SECONDS);
+        assertEquals(3, progress.fetched());
+        assertEquals(0, progress.failed());
+        assertEquals(0, progress.pendingUnits());
+        assertEquals(calls, requests("11.0"));
+        assertEquals(24, summaries.findByCityAndDate("Backfill A", start).orElseThrow().getDataPointCount());
+        assertEquals(24, summaries.findByCityAndDate("Backfill B", end).orElseThrow().getDataPointCount());
+
+        // Requesting the same range again finds every unit completed
+        progress = backfill.start(List.of("Backfill A", "Backfill B"), start, end).get(30, TimeUnit.SECONDS);
+        assertEquals(0, progress.fetched());
+        assertEquals(0, progress.failed());
+        assertEquals(calls, requests("11.0"));
+    }
+
+    @Test
+    void dayWithMissingHoursIsNotCompleted() throws Exception {
+        LocalDate day = LocalDate.now(ZONE).minusDays(3);
+        gappyLatitudes.add("14.0");
+
+        BackfillProgress progress = backfill.start(List.of("Backfill D"), day, day).get(30, TimeUnit.SECONDS);
+        assertEquals(0, progress.fetched());
+        assertEquals(1, progress.failed());
+        assertEquals(1, progress.pendingUnits());
+        assertTrue(summaries.findByCityAndDate("Backfill D", day).isEmpty());
+
+        gappyLatitudes.clear();
+        progress = backfill.resume().get(30, TimeUnit.SECONDS);
+        assertEquals(1, progress.fetched());
+        assertEquals(0, progress.pendingUnits());
+        assertEquals(24, summaries.findByCityAndDate("Backfill D", day).orElseThrow().getDataPointCount());
+    }
+
+    @Test
+    void daysWithStoredReadingsAreNotFetched() throws Exception {
+        LocalDate day = LocalDate.now(ZONE).minusDays(10);
+        summaries.upsertReadings(List.of(new DailyReading("Backfill C", day, 25.0, 50, WeatherCondition.CLEAR)));
+
+        BackfillProgress progress = backfill.start(List.of("Backfill C"), day, day).get(30, TimeUnit.SECONDS);
+        assertEquals(0, progress.fetched());
+        assertEquals(0, requests("13.0"));
+        assertEquals(1, summaries.findByCityAndDate("Backfill C", day).orElseThrow().getDataPointCount());
+
+        assertThrows(IllegalArgumentException.class, () -> backfill.start(List.of("Backfill C"), day, LocalDate.now(ZONE)));
+        assertThrows(IllegalArgumentException.class, () -> backfill.start(List.of("Nowhere"), day, day));
+    }
+
+    @Test
+    void concurrencyAboveTheHistoryBulkheadFailsAtStartup() {
+        UpstreamGuards guards = new UpstreamGuards(20, 10, 0.5, 0.8, Duration.ofSeconds(5), Duration.ofSeconds(60), 3,
+                12, 4, 2, new SimpleMeterRegistry());
+        assertThrows(IllegalArgumentException.class, () -> new HistoricalBackfill(null, null, null, null, null, null,
+                guards, null, "key", "http://localhost:1", 5, 50, false));
+    }
+}
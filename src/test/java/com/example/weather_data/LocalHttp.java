@@ -0,0 +1,29 @@
+package com.example.weather_data;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+/** GETs against the application under test, started on a random port. */
+final class LocalHttp {
+
+    private static final HttpClient client = HttpClient.newHttpClient();
+
+    private LocalHttp() {
+    }
+
+    static HttpResponse<String> get(int port, String path) throws IOException, InterruptedException {
+        return get(port, path, null);
+    }
+
+    /** Sends {@code If-None-Match: ifNoneMatch} unless it is {@code null}. */
+    static HttpResponse<String> get(int port, String path, String ifNoneMatch) throws IOException, InterruptedException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path));
+        if (ifNoneMatch != null) {
+            request.header("If-None-Match", ifNoneMatch);
+        }
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+}
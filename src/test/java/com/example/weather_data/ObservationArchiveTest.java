@@ -0,0 +1,165 @@
+package com.example.weather_data;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import com.example.weather_data.service.ObservationArchiver;
+import com.example.weather_data.storage.Observation;
+import com.example.weather_data.storage.ObservationArchive;
+import com.example.weather_data.storage.ObservationLog;
+import com.example.weather_data.storage.ObservationSeries;
+
+class ObservationArchiveTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void blocksRoundTripExactlyAcrossRestart() throws IOException {
+        ObservationSeries first = series(10_000, 96, 900, new Random(1));
+        ObservationSeries second = series(first.epochSeconds()[95] + 3_600, 50, 600, new Random(2));
+        ObservationArchive archive = new ObservationArchive(directory);
+        assertTrue(archive.seal("delhi", first));
+        assertTrue(archive.seal("delhi", second));
+        assertTrue(archive.seal("mumbai", first));
+        assertFalse(archive.seal("delhi", first), "blocks must start after the last sealed one");
+        assertTrue(archive.sizeBytes() < 242 * 30, "noisy readings still take well under the log's 40 bytes");
+        archive.destroy();
+
+        ObservationArchive reopened = new ObservationArchive(directory);
+        assertEquals(242, reopened.readings());
+        assertSameReadings(first, reopened.range("delhi", 0, first.epochSeconds()[95]));
+        assertSameReadings(second, reopened.range("delhi", first.epochSeconds()[95] + 1, Long.MAX_VALUE));
+        assertSameReadings(first, reopened.range("mumbai", 0, Long.MAX_VALUE));
+
+        // A range cutting through both blocks decodes only the readings inside it
+        long from = first.epochSeconds()[90];
+        long to = second.epochSeconds()[4];
+        ObservationSeries middle = reopened.range("delhi", from, to);
+        assertEquals(11, middle.size());
+        assertEquals(from, middle.epochSeconds()[0]);
+        assertEquals(to, middle.epochSeconds()[10]);
+        assertEquals(0, reopened.range("kolkata", 0, Long.MAX_VALUE).size());
+        reopened.destroy();
+
+        // A block torn by a crash mid-seal is dropped on recovery
+        long intact = reopened.sizeBytes();
+        try (FileChannel channel = FileChannel.open(directory.resolve("observations.blk"), StandardOpenOption.WRITE)) {
+            channel.truncate(intact - 5);
+        }
+        ObservationArchive recovered = new ObservationArchive(directory);
+        assertEquals(146, recovered.readings());
+        assertTrue(recovered.seal("mumbai", first));
+        assertSameReadings(first, recovered.range("mumbai", 0, Long.MAX_VALUE));
+        recovered.destroy();
+    }
+
+    @Test
+    void archiverSealsEachCompletedDayOnce() throws IOException {
+        ZoneId zone = ZoneId.systemDefault();
+        ObservationLog log = new ObservationLog(directory.resolve("log"), DataSize.ofKilobytes(64));
+        ObservationArchive archive = new ObservationArchive(directory.resolve("archive"));
+        ObservationArchiver archiver = new ObservationArchiver(log, archive);
+        long start = LocalDate.now(zone).minusDays(2).atStartOfDay(zone).toEpochSecond();
+        for (long t = start; t < start + 3 * 86_400 - 3_600; t += 3_600) {
+            log.append(new Observation("delhi", t, 25, 27, 60, 3, 180, Float.NaN, 80));
+        }
+
+        // Two completed days; today stays in the log only
+        assertEquals(2, archiver.sealCompletedDays());
+        assertEquals(0, archiver.sealCompletedDays());
+        long today = LocalDate.now(zone).atStartOfDay(zone).toEpochSecond();
+        assertSameReadings(log.range("delhi", start, today - 1), archive.range("delhi", 0, Long.MAX_VALUE));
+        log.destroy();
+        archive.destroy();
+    }
+
+    @Test
+    void segmentsHoldingOnlySealedReadingsAreDropped() throws IOException {
+        ZoneId zone = ZoneId.systemDefault();
+        // 400 bytes per segment = 10 records
+        ObservationLog log = new ObservationLog(directory.resolve("log"), DataSize.ofBytes(400));
+        ObservationArchive archive = new ObservationArchive(directory.resolve("archive"));
+        ObservationArchiver archiver = new ObservationArchiver(log, archive);
+        long start = LocalDate.now(zone).minusDays(2).atStartOfDay(zone).toEpochSecond();
+        long today = LocalDate.now(zone).atStartOfDay(zone).toEpochSecond();
+        for (long t = start; t < start + 3 * 86_400; t += 3_600) {
+            log.append(new Observation("delhi", t, 25, 27, 60, 3, 180, Float.NaN, 80));
+            log.append(new Observation("mumbai", t, 30, 33, 70, 4, 90, Float.NaN, 60));
+        }
+        ObservationSeries todayInDelhi = log.range("delhi", today, Long.MAX_VALUE);
+        ObservationSeries sealedInMumbai = log.range("mumbai", start, today - 1);
+
+        // 96 sealed records fill segments 0-8; segment 9 also holds today's readings
+        assertEquals(4, archiver.sealCompletedDays());
+        assertEquals(144, log.size());
+        assertEquals(54, log.retained());
+        assertFalse(Files.exists(directory.resolve("log").resolve("observations-000008.seg")));
+        assertTrue(Files.exists(directory.resolve("log").resolve("observations-000009.seg")));
+        assertSameReadings(todayInDelhi, log.range("delhi", today, Long.MAX_VALUE));
+        assertSameReadings(sealedInMumbai, archive.range("mumbai", 0, Long.MAX_VALUE));
+        assertEquals(0, archiver.sealCompletedDays());
+        assertEquals(54, log.retained());
+        log.destroy();
+
+        // The log reopens after the dropped segments and keeps appending
+        ObservationLog reopened = new ObservationLog(directory.resolve("log"), DataSize.ofBytes(400));
+        assertEquals(144, reopened.size());
+        assertSameReadings(todayInDelhi, reopened.range("delhi", today, Long.MAX_VALUE));
+        assertTrue(reopened.append(new Observation("delhi", start + 3 * 86_400, 26, 28, 61, 3, 180, Float.NaN, 81)));
+        assertEquals(25, reopened.range("delhi", today, Long.MAX_VALUE).size());
+        reopened.destroy();
+        archive.destroy();
+    }
+
+    // Irregular cadence, negative temperatures, missing gusts and AQIs
+    private static ObservationSeries series(long start, int count, int interval, Random random) {
+        long[] epochSeconds = new long[count];
+        float[] temps = new float[count];
+        float[] feelsLike = new float[count];
+        int[] humidity = new int[count];
+        float[] windSpeeds = new float[count];
+        float[] windDegs = new float[count];
+        float[] windGusts = new float[count];
+        int[] aqi = new int[count];
+        long t = start;
+        for (int i = 0; i < count; i++) {
+            t += random.nextInt(5) == 0 ? interval + random.nextInt(5_000) - 200 : interval;
+            epochSeconds[i] = t;
+            temps[i] = Math.round((-12 + random.nextFloat() * 50) * 100) / 100f;
+            feelsLike[i] = random.nextBoolean() ? temps[i] : temps[i] - 1.5f;
+            humidity[i] = 30 + random.nextInt(70);
+            windSpeeds[i] = random.nextInt(3) == 0 ? windSpeeds[Math.max(0, i - 1)] : random.nextFloat() * 20;
+            windDegs[i] = random.nextInt(360);
+            windGusts[i] = random.nextInt(4) == 0 ? Float.NaN : random.nextFloat() * 30;
+            aqi[i] = random.nextInt(6) == 0 ? -1 : random.nextInt(500);
+        }
+        return new ObservationSeries(epochSeconds, temps, feelsLike, humidity, windSpeeds, windDegs, windGusts, aqi);
+    }
+
+    private static void assertSameReadings(ObservationSeries expected, ObservationSeries actual) {
+        assertArrayEquals(expected.epochSeconds(), actual.epochSeconds());
+        assertArrayEquals(expected.temps(), actual.temps());
+        assertArrayEquals(expected.feelsLike(), actual.feelsLike());
+        assertArrayEquals(expected.humidity(), actual.humidity());
+        assertArrayEquals(expected.windSpeeds(), actual.windSpeeds());
+        assertArrayEquals(expected.windDegs(), actual.windDegs());
+        assertArrayEquals(expected.windGusts(), actual.windGusts());
+        assertArrayEquals(expected.aqi(), actual.aqi());
+    }
+}
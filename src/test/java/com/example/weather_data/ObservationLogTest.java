@@ -0,0 +1,45 @@
+package com.example.weather_data;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import com.example.weather_data.storage.Observation;
+import com.example.weather_data.storage.ObservationLog;
+import com.example.weather_data.storage.ObservationSeries;
+
+class ObservationLogTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void rangeScanSurvivesSegmentRollAndRestart() {
+        // 400 bytes per segment = 10 records, so 30 appends span three segments
+        ObservationLog log = new ObservationLog(directory, DataSize.ofBytes(400));
+        for (int i = 0; i < 15; i++) {
+            log.append(observation("delhi", 1_000 + i * 60L, 20 + i));
+            log.append(observation("mumbai", 1_000 + i * 60L, 30 + i));
+        }
+        assertFalse(log.append(observation("delhi", 1_000, 99)), "older readings are not appended");
+        log.destroy();
+
+        ObservationLog reopened = new ObservationLog(directory, DataSize.ofBytes(400));
+        assertEquals(30, reopened.size());
+
+        ObservationSeries series = reopened.range("delhi", 1_000 + 5 * 60L, 1_000 + 7 * 60L);
+        assertArrayEquals(new long[] {1_300, 1_360, 1_420}, series.epochSeconds());
+        assertArrayEquals(new float[] {25, 26, 27}, series.temps());
+        assertEquals(0, reopened.range("kolkata", 0, Long.MAX_VALUE).size());
+    }
+
+    private static Observation observation(String city, long epochSecond, float temp) {
+        return new Observation(city, epochSecond, temp, temp + 1, 50, 3.5f, 180, Float.NaN, 120);
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.weather_data;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.FileSystemResource;
+
+import com.example.weather_data.service.City;
+import com.example.weather_data.service.CityRegistry;
+import com.example.weather_data.service.ProviderQuota;
+import com.example.weather_data.service.RefreshScheduler;
+import com.example.weather_data.service.UpstreamQuotas;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class RefreshSchedulerTest {
+
+    private static final long MINUTE = 60_000;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void quotaBoundsTheRequestsOfATickAndDefersTheRest() throws IOException {
+        // Two requests per minute for 100 cities in groups of 20
+        RefreshScheduler scheduler = scheduler(100, 2);
+        long now = System.currentTimeMillis();
+
+        List<List<City>> batches = scheduler.plan(now, 20);
+        assertEquals(2, batches.size());
+        assertEquals(20, batches.get(0).size());
+        assertEquals(60, scheduler.queueDepth());
+        assertTrue(scheduler.plan(now, 20).isEmpty(), "no tokens left this minute");
+    }
+
+    @Test
+    void viewedCitiesAreRefreshedMoreOftenThanColdOnes() throws IOException {
+        RefreshScheduler scheduler = scheduler(3, 60);
+        long start = System.currentTimeMillis();
+        for (String city : List.of("City 0", "City 1", "City 2")) {
+            scheduler.markRefreshed(city, start);
+        }
+        for (int i = 0; i < 10; i++) {
+            scheduler.recordDemand("City 1", start);
+        }
+
+        assertEquals(List.of(List.of("City 1")), names(scheduler.plan(start + 6 * MINUTE, 20)));
+        scheduler.markRefreshed("City 1", start + 6 * MINUTE);
+        assertEquals(0, scheduler.queueDepth());
+
+        // Past the cold interval everything is due, the hot city (most overdue) first
+        List<String> due = names(scheduler.plan(start + 31 * MINUTE, 20)).get(0);
+        assertEquals(3, due.size());
+        assertEquals("City 1", due.get(0));
+    }
+
+    @Test
+    void quotaRefillsContinuously() {
+        ProviderQuota quota = new ProviderQuota("owm", 60, 100_000, 0);
+        for (int i = 0; i < 60; i++) {
+            assertTrue(quota.tryAcquire(0));
+        }
+        assertFalse(quota.tryAcquire(0));
+        assertEquals(1, quota.rejected());
+        assertEquals(10, quota.headroom(10_000));
+    }
+
+    private RefreshScheduler scheduler(int cities, int perMinute) throws IOException {
+        List<String> lines = new ArrayList<>(List.of("name,owm_id,lat,lon,iqair_state,aliases"));
+        for (int i = 0; i < cities; i++) {
+            lines.add("City " + i + "," + (1000 + i) + ",0,0,State,");
+        }
+        Path file = Files.write(directory.resolve("cities.csv"), lines);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        return new RefreshScheduler(new CityRegistry(new FileSystemResource(file)),
+                new UpstreamQuotas(perMinute, 100_000, 60, 1_000, 5, 500, meterRegistry),
+                Duration.ofMinutes(5), Duration.ofMinutes(30), Duration.ofMinutes(30), meterRegistry);
+    }
+
+    private static List<List<String>> names(List<List<City>> batches) {
+        return batches.stream().map(batch -> batch.stream().map(City::name).toList()).toList();
+    }
+}
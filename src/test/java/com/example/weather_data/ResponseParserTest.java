@@ -0,0 +1,88 @@
+package com.example.weather_data;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.weather_data.service.GroupWeatherResponse;
+import com.example.weather_data.service.IqAirResponseParser;
+import com.example.weather_data.service.OwmResponseParser;
+import com.example.weather_data.service.WeatherResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+class ResponseParserTest {
+
+    private static final String OWM_DELHI = "{\"coord\":{\"lon\":77.2167,\"lat\":28.6667},"
+            + "\"weather\":[{\"id\":721,\"main\":\"Haze\",\"description\":\"haze\",\"icon\":\"50d\"}],\"base\":\"stations\","
+            + "\"main\":{\"temp\":304.2,\"feels_like\":305.86,\"temp_min\":304.2,\"temp_max\":304.2,\"pressure\":1008,\"humidity\":48},"
+            + "\"visibility\":3000,\"wind\":{\"speed\":2.57,\"deg\":290,\"gust\":4.12},\"clouds\":{\"all\":20},\"dt\":1729234800,"
+            + "\"sys\":{\"type\":1,\"id\":9165,\"country\":\"IN\",\"sunrise\":1729213085,\"sunset\":1729254327},"
+            + "\"timezone\":19800,\"id\":1273294,\"name\":\"Delhi\",\"cod\":200}";
+
+    @Test
+    void iqAirParserReadsStatusAndAqiInAnyFieldOrder() throws IOException {
+        IqAirResponseParser.Result success = IqAirResponseParser.parse(bytes("{\"status\":\"success\",\"data\":{\"city\":\"Delhi\","
+                + "\"location\":{\"type\":\"Point\",\"coordinates\":[77.2,28.6]},"
+                + "\"current\":{\"weather\":{\"tp\":31},\"pollution\":{\"ts\":\"2024-10-18T07:00:00.000Z\",\"aqius\":187,\"aqicn\":124}}}}"));
+        assertTrue(success.isSuccess());
+        assertEquals(187, success.aqi());
+
+        IqAirResponseParser.Result statusLast = IqAirResponseParser.parse(bytes(
+                "{\"data\":{\"current\":{\"pollution\":{\"aqius\":55}}},\"status\":\"success\"}"));
+        assertEquals(55, statusLast.aqi());
+
+        IqAirResponseParser.Result failure = IqAirResponseParser.parse(bytes(
+                "{\"status\":\"fail\",\"data\":{\"message\":\"city_not_found\"}}"));
+        assertFalse(failure.isSuccess());
+        assertEquals("city_not_found", failure.message());
+
+        assertFalse(IqAirResponseParser.parse(bytes("{\"status\":\"success\",\"data\":{\"current\":{}}}")).isSuccess());
+    }
+
+    @Test
+    void owmParserMatchesDataBinding() throws IOException {
+        WeatherResponse bound = new ObjectMapper().readValue(OWM_DELHI, WeatherResponse.class);
+        WeatherResponse streamed = OwmResponseParser.parseCurrent(bytes(OWM_DELHI));
+        assertSameReading(bound, streamed);
+
+        GroupWeatherResponse group = OwmResponseParser.parseGroup(bytes("{\"cnt\":2,\"list\":[" + OWM_DELHI + ","
+                + "{\"id\":1275339,\"name\":\"Mumbai\",\"dt\":1729234801,\"main\":{\"temp\":302.1,\"humidity\":70},"
+                + "\"wind\":{\"speed\":4.1,\"deg\":270},\"weather\":[]}]}"));
+        assertEquals(2, group.getCnt());
+        assertSameReading(bound, group.getList().get(0));
+        WeatherResponse mumbai = group.getList().get(1);
+        assertEquals(1275339, mumbai.getId());
+        assertEquals(70, mumbai.getMain().getHumidity());
+        assertNull(mumbai.getWind().getGust());
+        assertNull(mumbai.getCoord());
+        assertTrue(mumbai.getWeather().isEmpty());
+    }
+
+    private static void assertSameReading(WeatherResponse expected, WeatherResponse actual) {
+        assertEquals(expected.getId(), actual.getId());
+        assertEquals(expected.getName(), actual.getName());
+        assertEquals(expected.getDt(), actual.getDt());
+        assertEquals(expected.getMain().getTemp(), actual.getMain().getTemp());
+        assertEquals(expected.getMain().getFeels_like(), actual.getMain().getFeels_like());
+        assertEquals(expected.getMain().getHumidity(), actual.getMain().getHumidity());
+        assertEquals(expected.getWind().getSpeed(), actual.getWind().getSpeed());
+        assertEquals(expected.getWind().getDeg(), actual.getWind().getDeg());
+        assertEquals(expected.getWind().getGust(), actual.getWind().getGust());
+        assertEquals(expected.getCoord().getLat(), actual.getCoord().getLat());
+        assertEquals(expected.getCoord().getLon(), actual.getCoord().getLon());
+        assertEquals(expected.getWeather().size(), actual.getWeather().size());
+        assertEquals(expected.getWeather().get(0).getMain(), actual.getWeather().get(0).getMain());
+        assertEquals(expected.getWeather().get(0).getIcon(), actual.getWeather().get(0).getIcon());
+        assertEquals(expected.getWeather().get(0).getDescription(), actual.getWeather().get(0).getDescription());
+    }
+
+    private static byte[] bytes(String json) {
+        return json.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.weather_data;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import com.example.weather_data.entity.RollupGranularity;
+import com.example.weather_data.service.AqiPipeline;
+import com.example.weather_data.service.RollupStats;
+import com.example.weather_data.service.SummaryWriteBehind;
+import com.example.weather_data.service.WeatherRollups;
+import com.example.weather_data.service.WeatherService;
+import com.example.weather_data.storage.ObservationLog;
+import com.example.weather_data.storage.ObservationSeries;
+
+/**
+ * Runs scheduler ticks for one city whose AQI is either just fetched or past
+ * {@code weather.aqi.max-age}, and checks what the observation log and the rollups store with
+ * each reading. Every tick's reading falls in its own hour.
+ */
+@SpringBootTest
+class StaleAqiTest {
+
+    private static final Instant HOUR = Instant.now().truncatedTo(ChronoUnit.HOURS);
+
+    private static volatile Instant observedAt = HOUR.minus(3, ChronoUnit.HOURS);
+    private static UpstreamStub upstream;
+
+    @Autowired
+    WeatherService weatherService;
+
+    @Autowired
+    AqiPipeline aqiPipeline;
+
+    @Autowired
+    ObservationLog observationLog;
+
+    @Autowired
+    WeatherRollups rollups;
+
+    @Autowired
+    SummaryWriteBehind writeBehind;
+
+    @DynamicPropertySource
+    static void stubUpstream(DynamicPropertyRegistry registry) throws IOException {
+        upstream = UpstreamStub.start()
+                .route("/data/2.5/group", exchange -> UpstreamStub.respond(exchange, "{\"cnt\":1,\"list\":[{\"id\":6100001,"
+                        + "\"name\":\"Upstream\",\"dt\":" + (observedAt.getEpochSecond() + 60) + ","
+                        + "\"main\":{\"temp\":300.15,\"feels_like\":301.15,\"humidity\":40},"
+                        + "\"weather\":[{\"main\":\"Clear\",\"icon\":\"01d\"}]}]}"))
+                .route("/v2/city", exchange -> UpstreamStub.respond(exchange,
+                        "{\"status\":\"success\",\"data\":{\"current\":{\"pollution\":{\"aqius\":77}}}}"));
+        upstream.register(registry, List.of(
+                "name,owm_id,lat,lon,iqair_state,aliases",
+                "Staleville,6100001,20.0,78.0,Stub State,"));
+        registry.add("spring.datasource.url", () -> "jdbc:h2:mem:stale-aqi-test");
+        // Every refresh fetches the AQI again, every tick fetches the city again
+        registry.add("weather.aqi.cache-ttl", () -> "PT0S");
+        registry.add("weather.aqi.max-age", () -> "PT5S");
+        registry.add("weather.refresh.hot-interval", () -> "PT1S");
+        registry.add("weather.refresh.cold-interval", () -> "PT1S");
+    }
+
+    @AfterAll
+    static void stopUpstream() {
+        upstream.stop();
+    }
+
+    @Test
+    void readingsStoreTheAqiOnlyWhileItIsWithinTheMaxAge() throws InterruptedException {
+        // The first pipeline run starts as soon as the pipeline is created
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (aqiPipeline.snapshot().get("Staleville") == null && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+        }
+        assertEquals(77, aqiPipeline.snapshot().get("Staleville").value());
+
+        Thread.sleep(6_000);
+        Instant stale = tick(HOUR.minus(2, ChronoUnit.HOURS));
+        // Past the refresh interval again, with an AQI fetched just before the tick
+        Thread.sleep(1_100);
+        aqiPipeline.refresh();
+        Instant fresh = tick(HOUR.minus(1, ChronoUnit.HOURS));
+        writeBehind.flush();
+
+        assertEquals(-1, observation(stale).aqi()[0]);
+        assertNull(hourOf(stale).averageAqi());
+        assertEquals(1, hourOf(stale).readings());
+
+        assertEquals(77, observation(fresh).aqi()[0]);
+        assertEquals(77.0, hourOf(fresh).averageAqi());
+    }
+
+    private Instant tick(Instant hour) {
+        observedAt = hour;
+        weatherService.fetchWeatherDataForIndianMetros();
+        return hour.plusSeconds(60);
+    }
+
+    private ObservationSeries observation(Instant at) {
+        ObservationSeries series = observationLog.range("staleville", at.getEpochSecond(), at.getEpochSecond());
+        assertEquals(1, series.size());
+        return series;
+    }
+
+    private RollupStats hourOf(Instant at) {
+        Instant hour = at.truncatedTo(ChronoUnit.HOURS);
+        List<RollupStats> series = rollups.series("Staleville", RollupGranularity.HOUR, hour, hour.plus(1, ChronoUnit.HOURS));
+        assertEquals(1, series.size());
+        return series.get(0);
+    }
+}
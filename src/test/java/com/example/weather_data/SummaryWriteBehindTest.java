@@ -0,0 +1,102 @@
+package com.example.weather_data;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.example.weather_data.entity.DailyWeatherSummary;
+import com.example.weather_data.entity.WeatherCondition;
+import com.example.weather_data.repository.DailyWeatherSummaryRepository;
+import com.example.weather_data.repository.DailyWeatherSummaryRepositoryCustom.DailyReading;
+import com.example.weather_data.service.SummaryWriteBehind;
+
+@SpringBootTest(properties = {"weather.fetch.interval=86400000", "weather.aqi.refresh-interval=86400000",
+        "spring.datasource.url=jdbc:h2:mem:write-behind-test",
+        "weather.persistence.flush-size=3", "weather.persistence.flush-interval=86400000"})
+class SummaryWriteBehindTest {
+
+    private static final LocalDate DAY = LocalDate.of(2024, 3, 10);
+
+    @Autowired
+    SummaryWriteBehind writeBehind;
+
+    @Autowired
+    DailyWeatherSummaryRepository repository;
+
+    @Test
+    void readingsForOneCityAreCoalescedIntoOneWrite() {
+        writeBehind.submit(List.of(
+                new DailyReading("Coalesce", DAY, 20.0, 40, WeatherCondition.CLEAR),
+                new DailyReading("Coalesce", DAY, 30.0, 50, WeatherCondition.RAIN)));
+        writeBehind.submit(List.of(new DailyReading("Coalesce", DAY, 25.0, 60, WeatherCondition.RAIN)));
+        assertEquals(1, writeBehind.pendingKeys());
+        assertTrue(repository.findByCityAndDate("Coalesce", DAY).isEmpty());
+
+        writeBehind.flush();
+        DailyWeatherSummary summary = repository.findByCityAndDate("Coalesce", DAY).orElseThrow();
+        assertEquals(3, summary.getDataPointCount());
+        assertEquals(25.0, summary.getAverageTemp(), 1e-9);
+        assertEquals(20.0, summary.getMinTemp(), 1e-9);
+        assertEquals(30.0, summary.getMaxTemp(), 1e-9);
+        assertEquals(60, summary.getHumidity());
+        assertEquals("Rain", summary.getDominantCondition());
+
+        // A later delta is added to the stored row
+        writeBehind.submit(List.of(new DailyReading("Coalesce", DAY, 35.0, 70, WeatherCondition.CLEAR)));
+        writeBehind.flush();
+        summary = repository.findByCityAndDate("Coalesce", DAY).orElseThrow();
+        assertEquals(4, summary.getDataPointCount());
+        assertEquals(27.5, summary.getAverageTemp(), 1e-9);
+        assertEquals(35.0, summary.getMaxTemp(), 1e-9);
+    }
+
+    @Test
+    void aFullQueueFlushesOnSubmit() {
+        writeBehind.submit(List.of(
+                new DailyReading("Full 1", DAY, 20.0, 40, WeatherCondition.CLEAR),
+                new DailyReading("Full 2", DAY, 20.0, 40, WeatherCondition.CLEAR)));
+        assertTrue(repository.findByCityAndDate("Full 1", DAY).isEmpty());
+
+        writeBehind.submit(List.of(new DailyReading("Full 3", DAY, 20.0, 40, WeatherCondition.CLEAR)));
+        assertEquals(0, writeBehind.pendingKeys());
+        for (String city : List.of("Full 1", "Full 2", "Full 3")) {
+            assertTrue(repository.findByCityAndDate(city, DAY).isPresent(), city);
+        }
+    }
+
+    @Test
+    void durableProfileKeepsQueuedReadingsAcrossARestart() throws IOException {
+        Path dataDir = Files.createTempDirectory("durable-test");
+        try (ConfigurableApplicationContext first = durableApplication(dataDir)) {
+            first.getBean(SummaryWriteBehind.class)
+                    .submit(List.of(new DailyReading("Durable", DAY, 31.0, 45, WeatherCondition.HAZE)));
+            // Closing the context flushes the queue
+        }
+        try (ConfigurableApplicationContext second = durableApplication(dataDir)) {
+            DailyWeatherSummary summary = second.getBean(DailyWeatherSummaryRepository.class)
+                    .findByCityAndDate("Durable", DAY).orElseThrow();
+            assertEquals(1, summary.getDataPointCount());
+            assertEquals(31.0, summary.getAverageTemp(), 1e-9);
+        }
+    }
+
+    private static ConfigurableApplicationContext durableApplication(Path dataDir) {
+        return new SpringApplicationBuilder(WeatherDataApplication.class)
+                .profiles("durable")
+                .web(WebApplicationType.NONE)
+                .run("--weather.data.dir=" + dataDir, "--weather.fetch.interval=86400000",
+                        "--weather.aqi.refresh-interval=86400000", "--weather.persistence.flush-interval=86400000");
+    }
+}
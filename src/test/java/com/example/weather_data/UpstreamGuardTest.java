@@ -0,0 +1,179 @@
+package com.example.weather_data;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.web.client.HttpClientErrorException;
+
+import com.example.weather_data.service.CircuitBreaker;
+import com.example.weather_data.service.UpstreamGuard;
+import com.example.weather_data.service.UpstreamGuards;
+import com.example.weather_data.service.UpstreamUnavailableException;
+import com.example.weather_data.service.WeatherResponse;
+import com.example.weather_data.service.WeatherService;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Drives the OpenWeatherMap circuit through open and half-open against a local stand-in that
+ * can be switched to answer with server errors.
+ */
+@SpringBootTest
+class UpstreamGuardTest {
+
+    private static final AtomicBoolean failing = new AtomicBoolean();
+    private static final AtomicInteger requests = new AtomicInteger();
+    private static UpstreamStub upstream;
+
+    @Autowired
+    WeatherService weatherService;
+
+    @Autowired
+    UpstreamGuards upstreamGuards;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @DynamicPropertySource
+    static void stubUpstream(DynamicPropertyRegistry registry) throws IOException {
+        upstream = UpstreamStub.start().route("/data/2.5/weather", exchange -> {
+            requests.incrementAndGet();
+            if (failing.get()) {
+                UpstreamStub.respond(exchange, 503);
+                return;
+            }
+            UpstreamStub.respond(exchange, "{\"id\":1,\"name\":\"Faultville\",\"dt\":1729234800,"
+                    + "\"main\":{\"temp\":300.15,\"feels_like\":301.15,\"humidity\":40},"
+                    + "\"weather\":[{\"main\":\"Clear\",\"icon\":\"01d\"}]}");
+        });
+        // No registry cities, so the startup tick makes no calls of its own
+        upstream.register(registry, List.of("name,owm_id,lat,lon,iqair_state,aliases"));
+
+        // Every page view misses the cache and goes upstream
+        registry.add("weather.cache.current.ttl", () -> "PT0.001S");
+        registry.add("weather.cache.current.stale-after", () -> "PT1H");
+        registry.add("weather.circuit.window-size", () -> "4");
+        registry.add("weather.circuit.minimum-calls", () -> "4");
+        registry.add("weather.circuit.open-duration", () -> "PT0.3S");
+        registry.add("weather.circuit.half-open-calls", () -> "1");
+    }
+
+    @AfterAll
+    static void stopUpstream() {
+        upstream.stop();
+    }
+
+    @Test
+    void openCircuitFailsFastToTheLastKnownReading() throws InterruptedException {
+        WeatherResponse first = weatherService.getWeather("Faultville");
+        assertEquals("Faultville", first.getName());
+
+        failing.set(true);
+        for (int i = 0; i < 4; i++) {
+            Thread.sleep(5);
+            assertEquals(300.15, weatherService.getWeather("Faultville").getMain().getTemp());
+        }
+        assertEquals(CircuitBreaker.State.OPEN, upstreamGuards.owm().breaker().state());
+        assertEquals(2.0, circuitState());
+
+        // Open: served from the last reading without reaching the upstream
+        int before = requests.get();
+        Thread.sleep(5);
+        assertEquals("Faultville", weatherService.getWeather("Faultville").getName());
+        assertEquals(before, requests.get());
+
+        // After the open duration a single probe goes through and closes the circuit
+        failing.set(false);
+        Thread.sleep(350);
+        assertEquals("Faultville", weatherService.getWeather("Faultville").getName());
+        assertEquals(before + 1, requests.get());
+        assertEquals(CircuitBreaker.State.CLOSED, upstreamGuards.owm().breaker().state());
+        assertEquals(0.0, circuitState());
+    }
+
+    @Test
+    void slowCallsOpenTheCircuitAndAFailedProbeReopensIt() {
+        CircuitBreaker breaker = new CircuitBreaker("test", 4, 2, 0.5, 0.5, 100, 1_000, 2);
+        breaker.onResult(false, 200, 0);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+        breaker.onResult(false, 150, 0);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+        assertFalse(breaker.tryAcquirePermission(999));
+        assertEquals(1, breaker.notPermitted());
+
+        assertTrue(breaker.tryAcquirePermission(1_000));
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.state());
+        assertTrue(breaker.tryAcquirePermission(1_000));
+        assertFalse(breaker.tryAcquirePermission(1_000));
+        breaker.onResult(false, 10, 1_010);
+        breaker.onResult(true, 10, 1_020);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+        assertFalse(breaker.isCallPermitted(1_500));
+        assertTrue(breaker.isCallPermitted(2_020));
+    }
+
+    @Test
+    void clientErrorsDoNotCountAgainstTheProvider() {
+        UpstreamGuard guard = new UpstreamGuard(new CircuitBreaker("test", 2, 2, 0.5, 1.0, Long.MAX_VALUE, 1_000, 1), 1);
+        for (int i = 0; i < 4; i++) {
+            assertThrows(HttpClientErrorException.class, () -> guard.call(() -> {
+                throw new HttpClientErrorException(HttpStatus.NOT_FOUND);
+            }));
+        }
+        assertEquals(CircuitBreaker.State.CLOSED, guard.breaker().state());
+        // Throttling does: one in a window of two reaches the 50% threshold
+        assertThrows(HttpClientErrorException.class, () -> guard.call(() -> {
+            throw new HttpClientErrorException(HttpStatus.TOO_MANY_REQUESTS);
+        }));
+        assertEquals(CircuitBreaker.State.OPEN, guard.breaker().state());
+        assertThrows(UpstreamUnavailableException.class, () -> guard.call(() -> "unreachable"));
+    }
+
+    @Test
+    void fullBulkheadRejectsWithoutCalling() throws Exception {
+        UpstreamGuard guard = new UpstreamGuard(new CircuitBreaker("test", 10, 10, 0.5, 1.0, Long.MAX_VALUE, 1_000, 1), 1);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<String> blocked = CompletableFuture.supplyAsync(() -> guard.call(() -> {
+            started.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "done";
+        }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        assertEquals(1, guard.inFlight());
+
+        AtomicBoolean called = new AtomicBoolean();
+        assertThrows(UpstreamUnavailableException.class, () -> guard.call(() -> called.getAndSet(true)));
+        assertFalse(called.get());
+        assertEquals(1, guard.bulkheadRejected());
+
+        release.countDown();
+        assertEquals("done", blocked.get(5, TimeUnit.SECONDS));
+        assertEquals(0, guard.inFlight());
+    }
+
+    private double circuitState() {
+        return meterRegistry.get("weather.circuit.state").tag("provider", "owm").gauge().value();
+    }
+}
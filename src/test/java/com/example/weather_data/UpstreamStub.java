@@ -0,0 +1,99 @@
+package com.example.weather_data;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.springframework.test.context.DynamicPropertyRegistry;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Local stand-in for OpenWeatherMap and IQAir: one HTTP server on an ephemeral port that tests
+ * give handlers per path. Every response closes its connection, so the pooled client never reuses
+ * one the server has already dropped.
+ */
+final class UpstreamStub {
+
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+    private UpstreamStub() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.setExecutor(executor);
+    }
+
+    static UpstreamStub start() throws IOException {
+        UpstreamStub stub = new UpstreamStub();
+        stub.server.start();
+        return stub;
+    }
+
+    UpstreamStub route(String path, HttpHandler handler) {
+        server.createContext(path, exchange -> {
+            exchange.getResponseHeaders().set("Connection", "close");
+            handler.handle(exchange);
+        });
+        return this;
+    }
+
+    String baseUrl() {
+        return "http://localhost:" + server.getAddress().getPort();
+    }
+
+    /**
+     * Points both providers at this stub, loads the registry from {@code cities} (CSV lines, header
+     * first) and leaves the scheduled fetch and AQI refresh to their single run at startup.
+     */
+    void register(DynamicPropertyRegistry registry, List<String> cities) throws IOException {
+        Path file = Files.write(Files.createTempFile("cities", ".csv"), cities);
+        registry.add("weather.cities.file", () -> file.toUri().toString());
+        registry.add("weather.owm.base-url", this::baseUrl);
+        registry.add("weather.iqair.base-url", this::baseUrl);
+        registry.add("weather.fetch.interval", () -> "86400000");
+        registry.add("weather.aqi.refresh-interval", () -> "86400000");
+    }
+
+    void stop() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    /** The URL-decoded value of query parameter {@code name}, or {@code null} without one. */
+    static String query(HttpExchange exchange, String name) {
+        String query = exchange.getRequestURI().getRawQuery();
+        if (query == null) {
+            return null;
+        }
+        for (String pair : query.split("&")) {
+            int equals = pair.indexOf('=');
+            if (equals > 0 && pair.substring(0, equals).equals(name)) {
+                return URLDecoder.decode(pair.substring(equals + 1), StandardCharsets.UTF_8);
+            }
+        }
+        return null;
+    }
+
+    static void respond(HttpExchange exchange, String json) throws IOException {
+        byte[] body = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    static void respond(HttpExchange exchange, int status) throws IOException {
+        exchange.sendResponseHeaders(status, -1);
+        exchange.close();
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.weather_data;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.http.HttpResponse;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import com.example.weather_data.entity.RollupGranularity;
+import com.example.weather_data.entity.WeatherCondition;
+import com.example.weather_data.repository.DailyWeatherSummaryRepository;
+import com.example.weather_data.repository.DailyWeatherSummaryRepositoryCustom.DailyReading;
+import com.example.weather_data.repository.RollupDelta;
+import com.example.weather_data.repository.WeatherRollupRepository;
+import com.example.weather_data.repository.WeatherRollupRepositoryCustom.RollupReading;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"weather.fetch.interval=86400000", "weather.aqi.refresh-interval=86400000",
+                "spring.datasource.url=jdbc:h2:mem:weather-api-test"})
+class WeatherApiControllerTest {
+
+    @LocalServerPort
+    int port;
+
+    @Autowired
+    DailyWeatherSummaryRepository repository;
+
+    @Autowired
+    WeatherRollupRepository rollups;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @Test
+    void rangesAndStatsAreTypedJson() throws Exception {
+        LocalDate end = LocalDate.of(2024, 3, 10);
+        List<DailyReading> readings = new ArrayList<>();
+        for (LocalDate day = end.minusDays(9); !day.isAfter(end); day = day.plusDays(1)) {
+            readings.add(new DailyReading("Delhi", day, 30.0, 40, WeatherCondition.CLEAR));
+            readings.add(new DailyReading("Mumbai", day, 20.0, 80, WeatherCondition.RAIN));
+        }
+        repository.upsertReadings(readings);
+
+        HttpResponse<String> trends = LocalHttp.get(port, "/api/weather/trends?startDate=2024-03-05&endDate=2024-03-14");
+        assertEquals(200, trends.statusCode());
+        JsonNode days = objectMapper.readTree(trends.body());
+        // Only days with data are written
+        assertEquals(6, days.size());
+        assertEquals("2024-03-05", days.get(0).get("date").asText());
+        assertTrue(days.get(0).get("averageTemp").isNumber());
+        assertEquals(25.0, days.get(0).get("averageTemp").asDouble(), 1e-9);
+
+        JsonNode stats = objectMapper.readTree(LocalHttp.get(port, "/api/weather/stats?date=2024-03-10").body());
+        assertEquals(30.0, stats.get("maxTemp").asDouble(), 1e-9);
+        assertEquals(2, stats.get("readings").asInt());
+        assertEquals(2, stats.get("cities").size());
+
+        HttpResponse<String> badDate = LocalHttp.get(port, "/api/weather/stats?date=10-03-2024");
+        assertEquals(400, badDate.statusCode());
+        assertTrue(badDate.headers().firstValue("Content-Type").orElseThrow().startsWith("application/problem+json"));
+
+        HttpResponse<String> backwards = LocalHttp.get(port, "/api/weather/trends?startDate=2024-03-10&endDate=2024-03-01");
+        assertEquals(400, backwards.statusCode());
+    }
+
+    @Test
+    void alertsHonourIfNoneMatch() throws Exception {
+        HttpResponse<String> first = LocalHttp.get(port, "/api/weather/alerts");
+        assertEquals(200, first.statusCode());
+        assertTrue(objectMapper.readTree(first.body()).isArray());
+
+        String etag = first.headers().firstValue("ETag").orElseThrow();
+        assertEquals(304, LocalHttp.get(port, "/api/weather/alerts", etag).statusCode());
+    }
+
+    @Test
+    void historyResolvesAliasesAndRejectsUnknownCities() throws Exception {
+        long dayStart = LocalDate.of(2024, 3, 10).atStartOfDay(ZoneId.systemDefault()).toEpochSecond();
+        RollupDelta delta = new RollupDelta(new RollupDelta.Key(RollupGranularity.DAY, "Delhi", dayStart));
+        delta.add(new RollupReading("Delhi", dayStart + 3_600, 30.0, 40, 120));
+        rollups.mergeDeltas(List.of(delta));
+
+        HttpResponse<String> history = LocalHttp.get(port, "/api/weather/history/new%20delhi?startDate=2024-03-10&endDate=2024-03-10");
+        assertEquals(200, history.statusCode());
+        assertEquals(1, objectMapper.readTree(history.body()).get("readings").asInt());
+
+        HttpResponse<String> series = LocalHttp.get(port, "/api/weather/history/NEW%20DELHI/series?startDate=2024-03-10&endDate=2024-03-10");
+        assertEquals(200, series.statusCode());
+        assertEquals(1, objectMapper.readTree(series.body()).size());
+
+        assertEquals(404, LocalHttp.get(port, "/api/weather/history/Atlantis?startDate=2024-03-10&endDate=2024-03-10").statusCode());
+        assertEquals(404, LocalHttp.get(port, "/api/weather/history/Atlantis/series?startDate=2024-03-10&endDate=2024-03-10").statusCode());
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.weather_data;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import com.example.weather_data.service.AlertStore;
+import com.example.weather_data.service.WeatherAlert;
+import com.example.weather_data.service.WeatherEventStream;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class WeatherEventStreamTest {
+
+    private static final int SUBSCRIBERS = 50;
+
+    @LocalServerPort
+    int port;
+
+    @Autowired
+    WeatherEventStream eventStream;
+
+    @Autowired
+    AlertStore alertStore;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @Test
+    void everyConcurrentSubscriberReceivesEveryAlertAndCanResume() throws Exception {
+        int baseline = eventStream.subscriberCount();
+        ExecutorService readers = Executors.newFixedThreadPool(SUBSCRIBERS);
+        try {
+            List<CompletableFuture<List<String>>> received = new ArrayList<>();
+            for (int i = 0; i < SUBSCRIBERS; i++) {
+                received.add(CompletableFuture.supplyAsync(() -> readEventIds(null, 3), readers));
+            }
+            awaitSubscribers(baseline + SUBSCRIBERS);
+
+            List<String> published = new ArrayList<>();
+            for (String city : List.of("Delhi", "Mumbai", "Chennai")) {
+                WeatherAlert alert = alertStore.publish(city, "temperature-change", "stream test");
+                eventStream.publishAlert(city.toLowerCase(), alert);
+            }
+            for (CompletableFuture<List<String>> subscriber : received) {
+                List<String> ids = subscriber.get(30, TimeUnit.SECONDS);
+                if (published.isEmpty()) {
+                    published.addAll(ids);
+                }
+                assertEquals(published, ids);
+            }
+
+            // Reconnecting after the first event replays exactly the two that followed it
+            List<String> resumed = readEventIds(published.get(0), 2);
+            assertEquals(published.subList(1, 3), resumed);
+        } finally {
+            readers.shutdownNow();
+        }
+    }
+
+    private List<String> readEventIds(String lastEventId, int count) {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/weather/alerts/stream"))
+                .header("Accept", "text/event-stream");
+        if (lastEventId != null) {
+            request.header("Last-Event-ID", lastEventId);
+        }
+        try {
+            HttpResponse<Stream<String>> response = client.send(request.build(), HttpResponse.BodyHandlers.ofLines());
+            List<String> ids = new ArrayList<>();
+            try (Stream<String> lines = response.body()) {
+                Iterator<String> iterator = lines.iterator();
+                while (ids.size() < count && iterator.hasNext()) {
+                    String line = iterator.next();
+                    if (line.startsWith("id:")) {
+                        ids.add(line.substring(3).trim());
+                    }
+                }
+            }
+            return ids;
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void awaitSubscribers(int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (eventStream.subscriberCount() < expected && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+        }
+        assertTrue(eventStream.subscriberCount() >= expected, "all subscribers connected");
+    }
+}
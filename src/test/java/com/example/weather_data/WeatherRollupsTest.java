@@ -0,0 +1,143 @@
+package com.example.weather_data;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.example.weather_data.entity.RollupGranularity;
+import com.example.weather_data.repository.WeatherRollupRepositoryCustom.RollupReading;
+import com.example.weather_data.service.RollupStats;
+import com.example.weather_data.service.SummaryWriteBehind;
+import com.example.weather_data.service.WeatherRollups;
+
+@SpringBootTest(properties = {"weather.fetch.interval=86400000", "weather.aqi.refresh-interval=86400000",
+        "spring.datasource.url=jdbc:h2:mem:rollups-test",
+        "weather.persistence.flush-size=100000", "weather.persistence.flush-interval=86400000",
+        "weather.rollup.purge-interval=86400000"})
+class WeatherRollupsTest {
+
+    private static final ZoneId ZONE = ZoneId.systemDefault();
+
+    @Autowired
+    WeatherRollups rollups;
+
+    @Autowired
+    SummaryWriteBehind writeBehind;
+
+    @Test
+    void rangesSpanningMonthsMatchTheRawReadings() {
+        LocalDate first = LocalDate.now().minusDays(100);
+        List<RollupReading> readings = new ArrayList<>();
+        // Four readings a day; every third has no AQI
+        for (int i = 0; i < 95 * 4; i++) {
+            long epochSecond = first.atStartOfDay(ZONE).toEpochSecond() + i * 6 * 3600L + 600;
+            double temp = -5 + (i * 7 % 31) + 0.25 * (i % 4);
+            int aqi = i % 3 == 0 ? -1 : 20 + i % 90;
+            readings.add(new RollupReading("Rollup", epochSecond, temp, 40 + i % 50, aqi));
+        }
+        // Submitted in two halves so buckets are merged both in memory and in the database
+        rollups.record(readings.subList(0, 150));
+        writeBehind.flush();
+        rollups.record(readings.subList(150, readings.size()));
+        writeBehind.flush();
+
+        LocalDate start = first.plusDays(7);
+        LocalDate end = first.plusDays(80);
+        RollupStats stats = rollups.summarize("Rollup", start, end);
+
+        long from = start.atStartOfDay(ZONE).toEpochSecond();
+        long to = end.plusDays(1).atStartOfDay(ZONE).toEpochSecond();
+        long n = 0, humidity = 0, aqiN = 0, aqiSum = 0;
+        double sum = 0, sumSq = 0, min = Double.MAX_VALUE, max = -Double.MAX_VALUE;
+        int aqiMin = Integer.MAX_VALUE, aqiMax = Integer.MIN_VALUE;
+        for (RollupReading r : readings) {
+            if (r.epochSecond() < from || r.epochSecond() >= to) {
+                continue;
+            }
+            n++;
+            sum += r.temp();
+            sumSq += r.temp() * r.temp();
+            min = Math.min(min, r.temp());
+            max = Math.max(max, r.temp());
+            humidity += r.humidity();
+            if (r.aqi() >= 0) {
+                aqiN++;
+                aqiSum += r.aqi();
+                aqiMin = Math.min(aqiMin, r.aqi());
+                aqiMax = Math.max(aqiMax, r.aqi());
+            }
+        }
+        double mean = sum / n;
+        assertEquals(n, stats.readings());
+        assertEquals(mean, stats.averageTemp(), 1e-9);
+        assertEquals(min, stats.minTemp(), 1e-9);
+        assertEquals(max, stats.maxTemp(), 1e-9);
+        assertEquals(Math.sqrt(sumSq / n - mean * mean), stats.stdDevTemp(), 1e-9);
+        assertEquals((double) humidity / n, stats.averageHumidity(), 1e-9);
+        assertEquals((double) aqiSum / aqiN, stats.averageAqi(), 1e-9);
+        assertEquals(aqiMin, stats.minAqi());
+        assertEquals(aqiMax, stats.maxAqi());
+
+        // Days and months each cover every reading once (hours may already have been purged)
+        Instant all = first.withDayOfMonth(1).atStartOfDay(ZONE).toInstant();
+        Instant after = first.plusDays(200).atStartOfDay(ZONE).toInstant();
+        for (RollupGranularity granularity : List.of(RollupGranularity.DAY, RollupGranularity.MONTH)) {
+            long total = rollups.series("Rollup", granularity, all, after).stream()
+                    .mapToLong(RollupStats::readings).sum();
+            assertEquals(readings.size(), total, granularity.name());
+        }
+        assertTrue(rollups.series("Rollup", RollupGranularity.MONTH, all, after).size() <= 5);
+
+        assertThrows(IllegalArgumentException.class, () -> rollups.summarize("Rollup", end, start));
+    }
+
+    @Test
+    void bucketsWithoutAqiAndEmptyRangesHaveNullAggregates() {
+        LocalDate day = LocalDate.now().minusDays(3);
+        long epochSecond = day.atTime(12, 0).atZone(ZONE).toEpochSecond();
+        rollups.record(List.of(new RollupReading("No AQI", epochSecond, 10.0, 50, -1),
+                new RollupReading("No AQI", epochSecond + 60, 12.0, 70, -1)));
+        writeBehind.flush();
+
+        RollupStats stats = rollups.summarize("No AQI", day, day);
+        assertEquals(2, stats.readings());
+        assertEquals(11.0, stats.averageTemp(), 1e-9);
+        assertEquals(1.0, stats.stdDevTemp(), 1e-9);
+        assertNull(stats.averageAqi());
+        assertNull(stats.minAqi());
+        assertNull(stats.maxAqi());
+
+        RollupStats empty = rollups.summarize("No AQI", day.minusDays(40), day.minusDays(1));
+        assertEquals(0, empty.readings());
+        assertNull(empty.averageTemp());
+        assertNull(empty.minTemp());
+    }
+
+    @Test
+    void expiredBucketsArePurgedPerGranularity() {
+        LocalDate old = LocalDate.now().minusYears(5);
+        long epochSecond = old.atTime(9, 0).atZone(ZONE).toEpochSecond();
+        rollups.record(List.of(new RollupReading("Purge", epochSecond, 15.0, 60, 30)));
+        writeBehind.flush();
+        Instant from = old.minusMonths(1).atStartOfDay(ZONE).toInstant();
+        Instant to = old.plusMonths(1).atStartOfDay(ZONE).toInstant();
+        assertEquals(1, rollups.series("Purge", RollupGranularity.HOUR, from, to).size());
+
+        rollups.purgeExpired();
+        assertTrue(rollups.series("Purge", RollupGranularity.HOUR, from, to).isEmpty());
+        assertTrue(rollups.series("Purge", RollupGranularity.DAY, from, to).isEmpty());
+        // Monthly buckets are kept forever
+        assertEquals(1, rollups.series("Purge", RollupGranularity.MONTH, from, to).size());
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.weather_data;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import com.example.weather_data.service.WeatherService;
+import com.example.weather_data.storage.ObservationLog;
+
+/**
+ * Runs scheduler ticks against a stand-in for OpenWeatherMap's group endpoint that answers one
+ * city at once and never answers the other, with one city per request and a one-second tick
+ * deadline.
+ */
+@SpringBootTest
+class WeatherTickDeadlineTest {
+
+    private static final long QUICKVILLE_ID = 6_000_001;
+    private static final long STUCKVILLE_ID = 6_000_002;
+
+    private static final CountDownLatch release = new CountDownLatch(1);
+    private static final AtomicInteger stuckRequests = new AtomicInteger();
+    private static UpstreamStub upstream;
+
+    @Autowired
+    WeatherService weatherService;
+
+    @Autowired
+    ObservationLog observationLog;
+
+    @DynamicPropertySource
+    static void stubUpstream(DynamicPropertyRegistry registry) throws IOException {
+        upstream = UpstreamStub.start().route("/data/2.5/group", exchange -> {
+            String id = UpstreamStub.query(exchange, "id");
+            if (String.valueOf(STUCKVILLE_ID).equals(id)) {
+                stuckRequests.incrementAndGet();
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            UpstreamStub.respond(exchange, "{\"cnt\":1,\"list\":[{\"id\":" + id + ",\"name\":\"Upstream\",\"dt\":1729234800,"
+                    + "\"main\":{\"temp\":300.15,\"feels_like\":301.15,\"humidity\":40},"
+                    + "\"weather\":[{\"main\":\"Clear\",\"icon\":\"01d\"}]}]}");
+        });
+        upstream.register(registry, List.of(
+                "name,owm_id,lat,lon,iqair_state,aliases",
+                "Quickville," + QUICKVILLE_ID + ",20.0,78.0,Stub State,",
+                "Stuckville," + STUCKVILLE_ID + ",21.0,78.0,Stub State,"));
+        registry.add("spring.datasource.url", () -> "jdbc:h2:mem:weather-tick-deadline-test");
+        registry.add("weather.owm.group-size", () -> "1");
+        registry.add("weather.fetch.tick-timeout", () -> "PT1S");
+    }
+
+    @AfterAll
+    static void stopUpstream() {
+        release.countDown();
+        upstream.stop();
+    }
+
+    @Test
+    void tickStopsWaitingAtItsDeadlineAndLeavesTheSlowCityDue() throws InterruptedException {
+        // The first scheduled tick runs as soon as the service is created; on a slow start Quickville
+        // may miss its deadline too, so run ticks until it has been fetched
+        for (int tick = 0; observationLog.size() < 1 && tick < 10; tick++) {
+            weatherService.fetchWeatherDataForIndianMetros();
+        }
+        assertEquals(1, observationLog.size());
+        int stuckBefore = stuckRequests.get();
+
+        // Quickville was refreshed and is not due again; Stuckville was abandoned and is
+        long tickStart = System.nanoTime();
+        weatherService.fetchWeatherDataForIndianMetros();
+        long tickMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - tickStart);
+
+        assertTrue(tickMillis >= 900 && tickMillis < 5_000, "tick took " + tickMillis + " ms");
+        assertEquals(stuckBefore + 1, stuckRequests.get());
+        assertEquals(1, observationLog.size());
+        assertEquals(1, release.getCount());
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.weather_data;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.example.weather_data.entity.WeatherCondition;
+import com.example.weather_data.repository.DailyWeatherSummaryRepository;
+import com.example.weather_data.repository.DailyWeatherSummaryRepositoryCustom.DailyReading;
+import com.example.weather_data.service.WeatherService;
+
+@SpringBootTest(properties = {"weather.fetch.interval=86400000", "spring.datasource.url=jdbc:h2:mem:weather-trends-test"})
+class WeatherTrendsTest {
+
+    private static final LocalDate START = LocalDate.of(2024, 3, 10);
+
+    @Autowired
+    WeatherService weatherService;
+
+    @Autowired
+    DailyWeatherSummaryRepository summaries;
+
+    @Test
+    void rangeIsAggregatedPerDayAcrossCitiesAndGapsKeepTheEmptyDayValues() {
+        summaries.upsertReadings(List.of(
+                new DailyReading("Trend A", START.minusDays(30), 5.0, 40, WeatherCondition.CLEAR),
+                new DailyReading("Trend A", START, 20.0, 40, WeatherCondition.CLEAR),
+                new DailyReading("Trend B", START, 30.0, 40, WeatherCondition.CLEAR),
+                new DailyReading("Trend B", START.plusDays(2), 25.0, 40, WeatherCondition.CLEAR),
+                new DailyReading("Trend A", START.plusDays(4), 40.0, 40, WeatherCondition.CLEAR)));
+
+        // Exactly the requested days, in order, whatever is stored before or after them
+        Map<LocalDate, Map<String, Object>> trends = weatherService.getWeatherTrends(START, START.plusDays(3));
+        assertEquals(List.of(START, START.plusDays(1), START.plusDays(2), START.plusDays(3)), List.copyOf(trends.keySet()));
+
+        assertStats(trends.get(START), 25.0, 30.0, 20.0);
+        assertStats(trends.get(START.plusDays(1)), 0.0, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY);
+        assertStats(trends.get(START.plusDays(2)), 25.0, 25.0, 25.0);
+        assertStats(trends.get(START.plusDays(3)), 0.0, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY);
+    }
+
+    private static void assertStats(Map<String, Object> stats, double average, double max, double min) {
+        assertEquals(average, (double) stats.get("averageTemp"), 1e-9);
+        assertEquals(max, (double) stats.get("maxTemp"));
+        assertEquals(min, (double) stats.get("minTemp"));
+    }
+}